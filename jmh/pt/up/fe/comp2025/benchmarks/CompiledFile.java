@@ -0,0 +1,89 @@
+package pt.up.fe.comp2025.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file of the test corpus with the result of every stage, so each benchmark only measures its own stage.
+ * <p>
+ * The defaults are programs that go through the whole pipeline, the ones under jmh/inputs have many methods for the
+ * parser benchmarks. Other files are given with '-p file=...', or with 'gradle jmh -PjmhCorpus' for every file under
+ * cp2 and cp3.
+ */
+@State(Scope.Benchmark)
+public class CompiledFile {
+
+    @Param({
+            "test/pt/up/fe/comp/cp2/ollir/basic/BasicClassWithFields.jmm",
+            "test/pt/up/fe/comp/cp2/ollir/control_flow/SwitchStat.jmm",
+            "test/pt/up/fe/comp/cp2/optimizations/reg_alloc/regalloc.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/arithmetic/Arithmetic_and.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/arrays/ArrayAccess.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm",
+            "test/pt/up/fe/comp/initial/apps/App1.jmm",
+            "jmh/inputs/LongHeaders.jmm",
+            "jmh/inputs/ManyMethods.jmm"
+    })
+    public String file;
+
+    Map<String, String> config;
+    String code;
+    JmmNode rootNode;
+    SymbolTable table;
+    JmmSemanticsResult semanticsResult;
+    String ollirCode;
+    OllirResult ollirResult;
+
+    @Setup
+    public void setup() {
+        var inputFile = new File(file);
+
+        config = CompilerConfig.getDefault();
+        config.put(ConfigOptions.getInputFile(), inputFile.getAbsolutePath());
+        // Otherwise the OLLIR optimizer has nothing to do
+        config.put(ConfigOptions.getRegister(), "0");
+        config.put(ConfigOptions.getOptimize(), "true");
+        config.put(ConfigOptions.getDeadCodeElimination(), "true");
+
+        code = SpecsIo.read(inputFile);
+
+        JmmParserResult parserResult = new JmmParserImpl().parse(code, config);
+        check(parserResult.getReports(), "parsing");
+        rootNode = parserResult.getRootNode();
+
+        semanticsResult = new JmmAnalysisImpl().semanticAnalysis(parserResult);
+        check(semanticsResult.getReports(), "semantic analysis");
+        table = semanticsResult.getSymbolTable();
+
+        var optimization = new JmmOptimizationImpl();
+        ollirResult = optimization.toOllir(semanticsResult);
+        ollirCode = ollirResult.getOllirCode();
+        ollirResult = optimization.optimize(ollirResult);
+        check(ollirResult.getReports(), "OLLIR generation");
+    }
+
+    private void check(List<Report> reports, String stage) {
+        if (ReportUtils.anyError(reports)) {
+            throw new IllegalStateException("'" + file + "' does not get past " + stage + ": " + reports);
+        }
+    }
+}
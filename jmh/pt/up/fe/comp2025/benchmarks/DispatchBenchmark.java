@@ -0,0 +1,88 @@
+package pt.up.fe.comp2025.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.PreorderKindVisitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Visits the whole AST with the same visitor on top of the visitor of the library, which looks up the visit method
+ * of each node by the names of its kinds, and on top of {@link PreorderKindVisitor}, which looks it up by Kind.
+ * <p>
+ * The visit methods do almost nothing, so the difference is the cost of the lookup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Benchmark
+    public int nameDispatch(CompiledFile file) {
+        var counter = new NameCounter();
+        counter.visit(file.rootNode);
+
+        return counter.count;
+    }
+
+    @Benchmark
+    public int kindDispatch(CompiledFile file) {
+        var counter = new KindCounter();
+        counter.visit(file.rootNode);
+
+        return counter.count;
+    }
+
+    /**
+     * Same visit methods as the analysis passes: a few expressions, statements through their rule, and a default.
+     */
+    private static class NameCounter extends PreorderJmmVisitor<Void, Void> {
+
+        private int count;
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::visitNode);
+            addVisit(Kind.BINARY_OP, this::visitNode);
+            addVisit(Kind.METHOD_CALL, this::visitNode);
+            addVisit(Kind.IDENTIFIER, this::visitNode);
+            addVisit(Kind.STMT, this::visitNode);
+            setDefaultVisit((node, data) -> null);
+        }
+
+        private Void visitNode(JmmNode node, Void data) {
+            count++;
+            return null;
+        }
+    }
+
+    private static class KindCounter extends PreorderKindVisitor<Void, Void> {
+
+        private int count;
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::visitNode);
+            addVisit(Kind.BINARY_OP, this::visitNode);
+            addVisit(Kind.METHOD_CALL, this::visitNode);
+            addVisit(Kind.IDENTIFIER, this::visitNode);
+            addVisit(Kind.STMT, this::visitNode);
+            setDefaultVisit((node, data) -> null);
+        }
+
+        private Void visitNode(JmmNode node, Void data) {
+            count++;
+            return null;
+        }
+    }
+}
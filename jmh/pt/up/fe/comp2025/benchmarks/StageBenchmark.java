@@ -0,0 +1,131 @@
+package pt.up.fe.comp2025.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.analysis.FusedAnalysis;
+import pt.up.fe.comp2025.analysis.passes.IdentifierAndDeclarationVerification;
+import pt.up.fe.comp2025.analysis.passes.MethodCallVerificationVisitor;
+import pt.up.fe.comp2025.analysis.passes.TypeCheckingVisitor;
+import pt.up.fe.comp2025.backend.JasminGenerator;
+import pt.up.fe.comp2025.optimization.OllirGeneratorVisitor;
+import pt.up.fe.comp2025.optimization.optimi.OllirOptimizerVisitor;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark per compiler stage, each one starting from the output of the previous stages.
+ * <p>
+ * Run with 'gradle jmh', which also enables the GC profiler to report the bytes allocated by each stage.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+
+    @Benchmark
+    public JmmParserResult parse(CompiledFile file) {
+        return new JmmParserImpl().parse(file.code, file.config);
+    }
+
+    @Benchmark
+    public JmmSymbolTable symbolTable(CompiledFile file) {
+        return new JmmSymbolTableBuilder().build(file.rootNode);
+    }
+
+    @Benchmark
+    public List<Report> identifierAndDeclarationVerification(UnannotatedTree tree, CompiledFile file) {
+        return new IdentifierAndDeclarationVerification().analyze(tree.rootNode, file.table);
+    }
+
+    @Benchmark
+    public List<Report> typeChecking(UnannotatedTree tree, CompiledFile file) {
+        return new TypeCheckingVisitor().analyze(tree.rootNode, file.table);
+    }
+
+    @Benchmark
+    public List<Report> methodCallVerification(UnannotatedTree tree, CompiledFile file) {
+        return new MethodCallVerificationVisitor().analyze(tree.rootNode, file.table);
+    }
+
+    @Benchmark
+    public FusedAnalysis fusedAnalysis(UnannotatedTree tree, CompiledFile file) {
+        var analysis = new FusedAnalysis(List.of(
+                new IdentifierAndDeclarationVerification(),
+                new TypeCheckingVisitor(),
+                new MethodCallVerificationVisitor()
+        ));
+        analysis.analyze(tree.rootNode, file.table);
+
+        return analysis;
+    }
+
+    @Benchmark
+    public String ollirGeneration(CompiledFile file) {
+        return new OllirGeneratorVisitor(file.table, file.config).visit(file.rootNode);
+    }
+
+    @Benchmark
+    public OllirResult ollirParsing(CompiledFile file) {
+        return new OllirResult(file.semanticsResult, file.ollirCode, Collections.emptyList());
+    }
+
+    @Benchmark
+    public OllirResult ollirOptimization(UnoptimizedOllir ollir) {
+        return new OllirOptimizerVisitor().optimize(ollir.ollirResult);
+    }
+
+    @Benchmark
+    public String jasminGeneration(CompiledFile file) {
+        return new JasminGenerator(file.ollirResult).build();
+    }
+
+    /**
+     * The AST of the file, parsed again before each invocation. The analysis passes store the type of each expression
+     * in its node, so analysing the tree of {@link CompiledFile} would only read the types found by its setup.
+     */
+    @State(Scope.Thread)
+    public static class UnannotatedTree {
+
+        JmmNode rootNode;
+
+        @Setup(Level.Invocation)
+        public void setup(CompiledFile file) {
+            rootNode = new JmmParserImpl().parse(file.code, file.config).getRootNode();
+        }
+    }
+
+    /**
+     * The OLLIR of the file as generated, parsed again before each invocation. The optimizer changes the methods in
+     * place, so optimizing the result of {@link CompiledFile} would measure code that is already optimized.
+     */
+    @State(Scope.Thread)
+    public static class UnoptimizedOllir {
+
+        OllirResult ollirResult;
+
+        @Setup(Level.Invocation)
+        public void setup(CompiledFile file) {
+            ollirResult = new OllirResult(file.semanticsResult, file.ollirCode, Collections.emptyList());
+        }
+    }
+}
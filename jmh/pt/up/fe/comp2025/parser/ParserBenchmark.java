@@ -0,0 +1,99 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2025.benchmarks.CompiledFile;
+import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.specs.util.SpecsSystem;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parts of {@link JmmParserImpl} that only exist to parse faster, each one against what it replaces. In this
+ * package to reach the stages of the parser, the files are the ones of {@link CompiledFile}.
+ * <p>
+ * {@link #methodDeclAlternatives} and {@link #singleMethodHeader} are the SLL stage with the Javamm grammar, where
+ * methodDecl has an alternative for each kind of header, and with the JavammSll grammar, which has a single header
+ * and classifies it after parsing. A difference would show most on the method-heavy files of {@link CompiledFile}.
+ * <p>
+ * {@link #llOnly} is the whole parse without the SLL stage, to compare with StageBenchmark.parse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Benchmark
+    public JmmNode methodDeclAlternatives(Source source) {
+        var pool = ParserPool.get(MappedCharStream.of(source.code));
+        try {
+            return parseSll(pool.getParser());
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Benchmark
+    public JmmNode singleMethodHeader(Source source) {
+        var pool = ParserPool.get(MappedCharStream.of(source.code));
+        try {
+            var root = parseSll(pool.getSllParser());
+            MethodHeaders.classify(root);
+
+            return root;
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Benchmark
+    public JmmParserResult llOnly(Source source) {
+        return new JmmParserImpl().parseLlOnly(source.code, source.config);
+    }
+
+    /**
+     * Same as the SLL stage of {@link JmmParserImpl}, the files have no errors so the parse never bails out.
+     */
+    private static JmmNode parseSll(Parser parser) {
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        var tree = SpecsSystem.invoke(parser, "program");
+
+        return AstConverter.convert(tree, parser);
+    }
+
+    /**
+     * The code of the file, the fields of {@link CompiledFile} are only visible to its package.
+     */
+    @State(Scope.Benchmark)
+    public static class Source {
+
+        String code;
+        Map<String, String> config;
+
+        @Setup
+        public void setup(CompiledFile file) {
+            code = SpecsIo.read(new File(file.file));
+            config = new HashMap<>();
+        }
+    }
+}
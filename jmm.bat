@@ -1,3 +1,28 @@
 @echo off
+setlocal
 
+rem If a daemon was started with 'jmm -s', JMM_DAEMON_PORT makes this script use the thin client instead, but only for
+rem single files given with -i (and --stop). Batch (-b), project (-m), profile (-t) and daemon (-s) runs always use the Launcher.
+if not defined JMM_DAEMON_PORT goto launcher
+
+set "JMM_CLIENT="
+for %%A in (%*) do call :classify "%%~A"
+if not defined JMM_CLIENT goto launcher
+if "%JMM_CLIENT%"=="no" goto launcher
+
+java -XX:TieredStopAtLevel=1 -Xshare:auto -cp "./build/install/jmm/lib/*" pt.up.fe.comp2025.daemon.JmmClient %*
+exit /b %ERRORLEVEL%
+
+:launcher
 call "./build/install/jmm/bin/jmm.bat" %*
+exit /b %ERRORLEVEL%
+
+:classify
+set "JMM_ARG=%~1"
+if /i "%JMM_ARG%"=="--stop" if not "%JMM_CLIENT%"=="no" set "JMM_CLIENT=yes"
+if /i "%JMM_ARG:~0,2%"=="-i" if not "%JMM_CLIENT%"=="no" set "JMM_CLIENT=yes"
+if /i "%JMM_ARG:~0,2%"=="-b" set "JMM_CLIENT=no"
+if /i "%JMM_ARG:~0,2%"=="-m" set "JMM_CLIENT=no"
+if /i "%JMM_ARG:~0,2%"=="-t" set "JMM_CLIENT=no"
+if /i "%JMM_ARG:~0,2%"=="-s" set "JMM_CLIENT=no"
+exit /b 0
@@ -66,6 +66,7 @@ staticVoidModifiers
     ;
 
 
+// Syntax errors are reported with these alternatives, valid code is parsed first with the single header of JavammSll.g4
 methodDecl locals[boolean isPublic=false, boolean isMain=false, boolean isWrong=false]
     : (PUBLIC {$isPublic=true;})?
         type name=ID
@@ -0,0 +1,20 @@
+// Javamm with a simpler methodDecl, used by the SLL stage of the parser (see JmmParserImpl).
+// The alternatives of methodDecl in Javamm.g4 differ only in their modifiers and parameters, so predicting one looks
+// ahead over the whole method. Here every header with a parameter list shares one alternative, the 'static void'
+// varargs main keeps its own, and the two accept exactly the headers Javamm.g4 accepts. MethodHeaders tells a main
+// and the wrong 'static'/'void' headers apart after parsing.
+grammar JavammSll;
+
+// Also brings the @header of Javamm, with the package
+import Javamm;
+
+methodDecl locals[boolean isPublic=false, boolean isMain=false, boolean isWrong=false]
+    : (PUBLIC {$isPublic=true;})?
+        ((STATIC { $isWrong = true; })? type | staticVoidModifiers) name=ID
+        '(' (param (',' param)*)? ')'
+        '{' (varDecl)* (stmt)* '}'
+    | (PUBLIC {$isPublic=true; $isMain=true;})? { $isWrong = true; }
+        STATIC VOID name=ID
+        '(' string=ID '...' args=ID ')'
+        '{' (varDecl)* (stmt)* '}'
+    ;
@@ -0,0 +1,147 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.cache.CompilationCache;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles several .jmm files in a single JVM, running each file through the whole pipeline on a fork-join pool.
+ * <p>
+ * Files are independent from each other, so an error in one file is reported and does not stop the others.
+ */
+public class BatchCompiler {
+
+    private static final String JMM_EXTENSION = "jmm";
+
+    private final Map<String, String> config;
+    private final int parallelism;
+    private final CompilationCache cache;
+
+    public BatchCompiler(Map<String, String> config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchCompiler(Map<String, String> config, int parallelism) {
+        this.config = config;
+        this.parallelism = parallelism;
+        this.cache = CompilerConfig.getCacheDir(config).map(CompilationCache::new).orElse(null);
+    }
+
+    public Optional<CompilationCache> getCache() {
+        return Optional.ofNullable(cache);
+    }
+
+    /**
+     * Expands the given paths into the list of .jmm files to compile. Folders are searched recursively.
+     */
+    public static List<File> collectSources(List<File> paths) {
+        var sources = new ArrayList<File>();
+
+        for (var path : paths) {
+            if (path.isDirectory()) {
+                sources.addAll(SpecsIo.getFilesRecursive(path, JMM_EXTENSION));
+            } else if (path.isFile()) {
+                sources.add(path);
+            } else {
+                throw new RuntimeException("Could not find batch input '" + path + "'");
+            }
+        }
+
+        return sources;
+    }
+
+    /**
+     * Compiles every file, returning the results in the same order as the given files.
+     */
+    public List<CompilationResult> compile(List<File> sources) {
+        var compiler = new JmmCompiler(config, cache);
+
+        var tasks = new ArrayList<Callable<CompilationResult>>();
+        for (var source : sources) {
+            tasks.add(() -> compiler.compile(source));
+        }
+
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            var futures = pool.invokeAll(tasks);
+
+            var results = new ArrayList<CompilationResult>();
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(sources.get(i), futures.get(i)));
+            }
+
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CompilationResult getResult(File source, Future<CompilationResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            var report = Report.newError(Stage.OTHER, -1, -1, "Exception while compiling '" + source + "'", e);
+            return new CompilationResult(source, List.of(report), null, null);
+        }
+    }
+
+    /**
+     * Writes the output of every successful compilation to the given folder, as {@code <ClassName>.j}
+     * or, with the class-file backend, {@code <ClassName>.class}.
+     */
+    public static void writeOutput(List<CompilationResult> results, File outputDir) {
+        SpecsIo.mkdir(outputDir);
+
+        for (var result : results) {
+            result.getJasminResult().ifPresent(jasmin ->
+                    SpecsIo.write(new File(outputDir, jasmin.getClassName() + ".j"), jasmin.getJasminCode()));
+
+            if (result.getJasminResult().isEmpty() && result.getClassFile().isPresent()) {
+                var classFile = new File(outputDir, result.getClassName().orElseThrow() + ".class");
+                try {
+                    Files.write(classFile.toPath(), result.getClassFile().get());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write '" + classFile + "'", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the errors of each file followed by a summary line.
+     *
+     * @return the number of files that failed to compile
+     */
+    public static int printSummary(List<CompilationResult> results) {
+        int failed = 0;
+
+        for (var result : results) {
+            if (result.isSuccess()) {
+                continue;
+            }
+
+            failed++;
+            System.out.println(result.getSource() + ":");
+            for (var report : result.getReports()) {
+                System.out.println("   " + report);
+            }
+        }
+
+        System.out.println("Compiled " + (results.size() - failed) + " of " + results.size() + " files, " + failed + " failed.");
+        return failed;
+    }
+}
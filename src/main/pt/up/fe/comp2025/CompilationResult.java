@@ -0,0 +1,135 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.cache.CacheEntry;
+import pt.up.fe.comp2025.profile.StageProfiler;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Result of running the whole pipeline over a single source file.
+ * <p>
+ * The OLLIR and Jasmin results are only present if the corresponding stage was reached.
+ * Results that come from the {@link pt.up.fe.comp2025.cache.CompilationCache} have no OllirResult, only its code.
+ */
+public class CompilationResult {
+
+    private final File source;
+    private final List<Report> reports;
+    private final OllirResult ollirResult;
+    private final JasminResult jasminResult;
+
+    private String cacheKey;
+    private String ollirCode;
+    private String className;
+    private byte[] classFile;
+    private boolean fromCache;
+    private StageProfiler profile;
+
+    public CompilationResult(File source, List<Report> reports, OllirResult ollirResult, JasminResult jasminResult) {
+        this.source = source;
+        this.reports = reports;
+        this.ollirResult = ollirResult;
+        this.jasminResult = jasminResult;
+        this.ollirCode = ollirResult == null ? null : ollirResult.getOllirCode();
+        this.className = jasminResult == null ? null : jasminResult.getClassName();
+    }
+
+    /**
+     * Result of the class-file backend, which has no Jasmin code.
+     */
+    public static CompilationResult fromClassFile(File source, List<Report> reports, OllirResult ollirResult, String className, byte[] classFile) {
+        var result = new CompilationResult(source, reports, ollirResult, null);
+        result.className = className;
+        result.classFile = classFile;
+
+        return result;
+    }
+
+    public static CompilationResult fromCache(File source, String cacheKey, CacheEntry entry, Map<String, String> config) {
+        // Entries from the class-file backend have no Jasmin code
+        var jasmin = entry.getJasminCode() == null ? null
+                : new JasminResult(entry.getClassName(), entry.getJasminCode(), new ArrayList<>(), config);
+
+        var result = new CompilationResult(source, new ArrayList<>(), null, jasmin);
+        result.cacheKey = cacheKey;
+        result.className = entry.getClassName();
+        result.ollirCode = entry.getOllirCode();
+        result.classFile = entry.getClassFile() == null ? null : Base64.getDecoder().decode(entry.getClassFile());
+        result.fromCache = true;
+
+        return result;
+    }
+
+    public File getSource() {
+        return source;
+    }
+
+    public List<Report> getReports() {
+        return reports;
+    }
+
+    public Optional<OllirResult> getOllirResult() {
+        return Optional.ofNullable(ollirResult);
+    }
+
+    public Optional<JasminResult> getJasminResult() {
+        return Optional.ofNullable(jasminResult);
+    }
+
+    public Optional<String> getOllirCode() {
+        return Optional.ofNullable(ollirCode);
+    }
+
+    public Optional<String> getClassName() {
+        return Optional.ofNullable(className);
+    }
+
+    /**
+     * Class file, only known if it was generated by the class-file backend or stored in the cache.
+     */
+    public Optional<byte[]> getClassFile() {
+        return Optional.ofNullable(classFile);
+    }
+
+    /**
+     * Key of this compilation in the cache, if a cache was used.
+     */
+    public Optional<String> getCacheKey() {
+        return Optional.ofNullable(cacheKey);
+    }
+
+    void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * Time spent in each stage, if profiling was enabled.
+     */
+    public Optional<StageProfiler> getProfile() {
+        return Optional.ofNullable(profile);
+    }
+
+    void setProfile(StageProfiler profile) {
+        this.profile = profile;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * Returns true if every stage ran and none of them reported errors.
+     */
+    public boolean isSuccess() {
+        return (jasminResult != null || classFile != null) && !ReportUtils.anyError(reports);
+    }
+}
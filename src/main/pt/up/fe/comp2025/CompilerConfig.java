@@ -1,7 +1,9 @@
 package pt.up.fe.comp2025;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -9,7 +11,19 @@ public class CompilerConfig {
 
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
+    private static final String DEAD_CODE_ELIMINATION = "deadCodeElimination";
     private static final String REGISTER = "registerAllocation";
+    private static final String BATCH = "batch";
+    private static final String OUTPUT_DIR = "outputDir";
+    private static final String SERVER = "server";
+    private static final String CACHE_DIR = "cacheDir";
+    private static final String INCREMENTAL = "incremental";
+    private static final String BACKEND = "backend";
+    private static final String TRACE = "trace";
+    private static final String PROFILE = "profile";
+    private static final String CLASSPATH = "classpath";
+    private static final String PROJECT = "project";
+    private static final String WARM_UP = "warmUp";
 
 
     static Map<String, String> shortToLong = new HashMap<>();
@@ -17,7 +31,19 @@ public class CompilerConfig {
     static {
         shortToLong.put("i", CompilerConfig.INPUT_FILE);
         shortToLong.put("o", CompilerConfig.OPTIMIZE);
+        shortToLong.put("e", CompilerConfig.DEAD_CODE_ELIMINATION);
         shortToLong.put("r", CompilerConfig.REGISTER);
+        shortToLong.put("b", CompilerConfig.BATCH);
+        shortToLong.put("d", CompilerConfig.OUTPUT_DIR);
+        shortToLong.put("s", CompilerConfig.SERVER);
+        shortToLong.put("c", CompilerConfig.CACHE_DIR);
+        shortToLong.put("n", CompilerConfig.INCREMENTAL);
+        shortToLong.put("g", CompilerConfig.BACKEND);
+        shortToLong.put("v", CompilerConfig.TRACE);
+        shortToLong.put("t", CompilerConfig.PROFILE);
+        shortToLong.put("p", CompilerConfig.CLASSPATH);
+        shortToLong.put("m", CompilerConfig.PROJECT);
+        shortToLong.put("w", CompilerConfig.WARM_UP);
     }
 
 
@@ -32,6 +58,91 @@ public class CompilerConfig {
         return Optional.of(new File(inputFile));
     }
 
+    /**
+     * Paths given to '-b', separated by the platform path separator. Each path is either a .jmm file or a folder.
+     */
+    public static List<File> getBatchInputs(Map<String, String> config) {
+        return getPaths(config.get(BATCH));
+    }
+
+    public static boolean isBatch(Map<String, String> config) {
+        return config.containsKey(BATCH);
+    }
+
+    /**
+     * Paths given to '-m', the files (or folders) of a project whose classes import each other.
+     */
+    public static List<File> getProjectInputs(Map<String, String> config) {
+        return getPaths(config.get(PROJECT));
+    }
+
+    public static boolean isProject(Map<String, String> config) {
+        return config.containsKey(PROJECT);
+    }
+
+    private static List<File> getPaths(String paths) {
+        if (paths == null) {
+            return List.of();
+        }
+
+        return Arrays.stream(paths.split(File.pathSeparator))
+                .filter(path -> !path.isBlank())
+                .map(File::new)
+                .toList();
+    }
+
+    public static boolean isServer(Map<String, String> config) {
+        return config.containsKey(SERVER);
+    }
+
+    /**
+     * Port given to '-s=<PORT>', if any.
+     */
+    public static Optional<Integer> getServerPort(Map<String, String> config) {
+        var port = config.get(SERVER);
+
+        if (port == null || port.equals("true")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Integer.parseInt(port));
+    }
+
+    public static Optional<File> getOutputDir(Map<String, String> config) {
+        return Optional.ofNullable(config.get(OUTPUT_DIR)).map(File::new);
+    }
+
+    /**
+     * Folder of the compilation cache given with '-c=<PATH>', if any.
+     */
+    public static Optional<File> getCacheDir(Map<String, String> config) {
+        return Optional.ofNullable(config.get(CACHE_DIR)).map(File::new);
+    }
+
+    /**
+     * If the parser should be warmed up before compiling, with '-w'. See {@link pt.up.fe.comp2025.parser.JmmParserImpl#warmUp()}.
+     */
+    public static boolean isWarmUp(Map<String, String> config) {
+        return config.containsKey(WARM_UP);
+    }
+
+    public static boolean isProfile(Map<String, String> config) {
+        return config.containsKey(PROFILE);
+    }
+
+    /**
+     * File given to '-t=<PATH>' for the JSON profile, if any.
+     */
+    public static Optional<File> getProfileFile(Map<String, String> config) {
+        var file = config.get(PROFILE);
+
+        if (file == null || file.equals("true")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(file));
+    }
+
     public static boolean getOptimize(Map<String, String> config) {
         return Boolean.parseBoolean(config.getOrDefault(OPTIMIZE, "false"));
     }
@@ -89,9 +200,30 @@ public class CompilerConfig {
             config.put(getLongOpt(shortOption), value);
         }
 
+        // The daemon receives the input files from its clients
+        if (isServer(config)) {
+            getServerPort(config);
+
+            return config;
+        }
+
+        // In batch and project mode the input files come from '-b' and '-m'
+        if (isBatch(config) || isProject(config)) {
+            var option = isProject(config) ? "-m" : "-b";
+            var inputs = isProject(config) ? getProjectInputs(config) : getBatchInputs(config);
+            if (inputs.isEmpty()) {
+                throw new RuntimeException("Expected files or folders to compile, use '" + option + "=<PATH>" + File.pathSeparator + "<PATH>...'");
+            }
+
+            getOptimize(config);
+            getRegisterAllocation(config);
+
+            return config;
+        }
+
         if (!config.containsKey(INPUT_FILE)) {
 
-            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>'");
+            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>', '-b=<PATHS>' for batch mode, '-m=<PATHS>' for project mode or '-s[=<PORT>]' for daemon mode");
         }
 
         // make sure we save the absolute path of the input file
@@ -1,6 +1,8 @@
 package pt.up.fe.comp2025;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -9,8 +11,20 @@ public class ConfigOptions {
 
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
+    private static final String DEAD_CODE_ELIMINATION = "deadCodeElimination";
     private static final String REGISTER = "registerAllocation";
     private static final String EXTRA = "extra";
+    private static final String INCREMENTAL = "incremental";
+    private static final String BACKEND = "backend";
+    private static final String TRACE = "trace";
+    private static final String CLASSPATH = "classpath";
+    private static final String PROJECT_INDEX = "projectIndex";
+
+    // Where the compiled classes jmm programs import are kept in this repository
+    private static final File DEFAULT_CLASSPATH = new File("libs-jmm/compiled");
+
+    public static final String JASMIN_BACKEND = "jasmin";
+    public static final String CLASS_FILE_BACKEND = "classfile";
 
     // These methods should be on CompilerConfig, but to avoid rewriting a file
     // that is in the src folder, this new class was added
@@ -23,6 +37,10 @@ public class ConfigOptions {
         return OPTIMIZE;
     }
 
+    public static String getDeadCodeElimination() {
+        return DEAD_CODE_ELIMINATION;
+    }
+
     public static String getRegister() {
         return REGISTER;
     }
@@ -31,6 +49,26 @@ public class ConfigOptions {
         return EXTRA;
     }
 
+    public static String getIncremental() {
+        return INCREMENTAL;
+    }
+
+    public static String getBackend() {
+        return BACKEND;
+    }
+
+    public static String getTrace() {
+        return TRACE;
+    }
+
+    public static String getClasspath() {
+        return CLASSPATH;
+    }
+
+    public static String getProjectIndex() {
+        return PROJECT_INDEX;
+    }
+
     public static Optional<File> getInputFile(Map<String, String> config) {
         var inputFile = config.get(INPUT_FILE);
 
@@ -47,6 +85,14 @@ public class ConfigOptions {
         return Boolean.parseBoolean(config.getOrDefault(OPTIMIZE, "false"));
     }
 
+    /**
+     * If the OLLIR of each method should go through {@link pt.up.fe.comp2025.optimization.optimi.DeadCodeElimination},
+     * with '-e'. Separate from '-o', which only changes the code through constant propagation and folding.
+     */
+    public static boolean getDeadCodeElimination(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(DEAD_CODE_ELIMINATION, "false"));
+    }
+
     public static int getRegisterAllocation(Map<String, String> config) {
         return Integer.parseInt(config.getOrDefault(REGISTER, "-1"));
     }
@@ -54,4 +100,57 @@ public class ConfigOptions {
     public static boolean getExtra(Map<String, String> config) {
         return Boolean.parseBoolean(config.getOrDefault(EXTRA, "false"));
     }
+
+    public static boolean getIncremental(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(INCREMENTAL, "false"));
+    }
+
+    /**
+     * Either {@link #JASMIN_BACKEND} (the default) or {@link #CLASS_FILE_BACKEND}, which writes .class files directly.
+     */
+    public static String getBackend(Map<String, String> config) {
+        var backend = config.getOrDefault(BACKEND, JASMIN_BACKEND);
+
+        if (!backend.equals(JASMIN_BACKEND) && !backend.equals(CLASS_FILE_BACKEND)) {
+            throw new RuntimeException("Unknown backend '" + backend + "', expected '" + JASMIN_BACKEND + "' or '" + CLASS_FILE_BACKEND + "'");
+        }
+
+        return backend;
+    }
+
+    public static boolean isClassFileBackend(Map<String, String> config) {
+        return getBackend(config).equals(CLASS_FILE_BACKEND);
+    }
+
+    /**
+     * Value of the trace option, or null if tracing is off. See {@link pt.up.fe.comp2025.utils.Trace}.
+     */
+    public static String getTrace(Map<String, String> config) {
+        return config.get(TRACE);
+    }
+
+    /**
+     * Folders and jars with the classes that jmm programs import, separated by the path separator.
+     * If not given, 'libs-jmm/compiled' is used when it exists.
+     */
+    public static List<File> getClasspath(Map<String, String> config) {
+        var classpath = config.get(CLASSPATH);
+
+        if (classpath == null) {
+            return DEFAULT_CLASSPATH.isDirectory() ? List.of(DEFAULT_CLASSPATH) : List.of();
+        }
+
+        return Arrays.stream(classpath.split(File.pathSeparator))
+                .filter(path -> !path.isBlank())
+                .map(File::new)
+                .toList();
+    }
+
+    /**
+     * Key of the signatures of the project the file is compiled with, or null if it is compiled on its own.
+     * See {@link pt.up.fe.comp2025.classpath.SignatureIndex#register}.
+     */
+    public static String getProjectIndex(Map<String, String> config) {
+        return config.get(PROJECT_INDEX);
+    }
 }
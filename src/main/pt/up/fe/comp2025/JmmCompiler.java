@@ -0,0 +1,210 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.backend.ClassFileBackendImpl;
+import pt.up.fe.comp2025.backend.ClassFileResult;
+import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.cache.CacheEntry;
+import pt.up.fe.comp2025.cache.CompilationCache;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.profile.StageProfiler;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runs the whole pipeline (parse, semantic analysis, OLLIR generation and Jasmin generation) over a single file.
+ * <p>
+ * Unlike the Launcher, errors do not throw: the pipeline stops at the first stage that reports an error and
+ * every report collected so far is returned in the {@link CompilationResult}.
+ * Each call creates its own stage instances, so the same JmmCompiler can be used from several threads.
+ * If a {@link CompilationCache} is given, successful compilations are stored there and a hit skips every stage.
+ * With '-t', the time spent in each stage is recorded in the {@link StageProfiler} of the result.
+ */
+public class JmmCompiler {
+
+    private final Map<String, String> config;
+    private final CompilationCache cache;
+
+    public JmmCompiler(Map<String, String> config) {
+        this(config, null);
+    }
+
+    public JmmCompiler(Map<String, String> config, CompilationCache cache) {
+        this.config = config;
+        this.cache = cache;
+    }
+
+    public Optional<CompilationCache> getCache() {
+        return Optional.ofNullable(cache);
+    }
+
+    public CompilationResult compile(File inputFile) {
+        var profiler = StageProfiler.start(CompilerConfig.isProfile(config));
+        try {
+            var result = compileFile(inputFile);
+            if (profiler.isEnabled()) {
+                result.setProfile(profiler);
+            }
+
+            return result;
+        } finally {
+            profiler.stop();
+        }
+    }
+
+    /**
+     * Each file gets its own config, pointing to itself as the input file.
+     */
+    Map<String, String> newFileConfig(File inputFile) {
+        var fileConfig = new HashMap<>(config);
+        fileConfig.put(ConfigOptions.getInputFile(), inputFile.getAbsolutePath());
+
+        return fileConfig;
+    }
+
+    private CompilationResult compileFile(File inputFile) {
+        var fileConfig = newFileConfig(inputFile);
+
+        var reports = new ArrayList<Report>();
+        var profiler = StageProfiler.current();
+
+        try {
+            if (cache == null) {
+                return compile(inputFile, fileConfig, reports);
+            }
+
+            var key = CompilationCache.key(inputFile, fileConfig);
+            var cached = profiler.time("cache lookup", () -> cache.get(key));
+            if (cached.isPresent()) {
+                return CompilationResult.fromCache(inputFile, key, cached.get(), fileConfig);
+            }
+
+            var result = compile(inputFile, fileConfig, reports);
+            result.setCacheKey(key);
+            if (result.isSuccess()) {
+                var jasminCode = result.getJasminResult().map(JasminResult::getJasminCode).orElse(null);
+                var entry = new CacheEntry(result.getClassName().orElseThrow(), result.getOllirCode().orElse(null), jasminCode);
+                result.getClassFile().ifPresent(bytes -> entry.setClassFile(Base64.getEncoder().encodeToString(bytes)));
+                profiler.time("cache store", () -> cache.put(key, entry));
+            }
+
+            return result;
+        } catch (Exception e) {
+            reports.add(Report.newError(Stage.OTHER, -1, -1, "Exception while compiling '" + inputFile + "'", e));
+            return new CompilationResult(inputFile, reports, null, null);
+        }
+    }
+
+    private CompilationResult compile(File inputFile, Map<String, String> fileConfig, List<Report> reports) {
+        var profiler = StageProfiler.current();
+
+        // Parsing stage, the file is read by the lexer and never kept as a String
+        JmmParserImpl parser = new JmmParserImpl();
+        JmmParserResult parserResult = profiler.time("parsing", () -> parser.parse(inputFile.toPath(), fileConfig));
+        reports.addAll(parserResult.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return new CompilationResult(inputFile, reports, null, null);
+        }
+
+        // Semantic Analysis stage
+        JmmAnalysisImpl sema = new JmmAnalysisImpl();
+        JmmSemanticsResult analysedResult = profiler.time("semantic analysis", () -> sema.semanticAnalysis(parserResult));
+        reports.addAll(analysedResult.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return new CompilationResult(inputFile, reports, null, null);
+        }
+
+        return generate(inputFile, analysedResult, reports);
+    }
+
+    /**
+     * Parses the file and builds its symbol table, without analysing it. Returns null if there are errors, which
+     * are added to the given reports. Used by {@link ProjectCompiler}, which needs the symbol table of every file
+     * of a project before it analyses any of them.
+     */
+    JmmSemanticsResult buildSymbolTable(File inputFile, Map<String, String> fileConfig, List<Report> reports) {
+        var profiler = StageProfiler.current();
+
+        JmmParserImpl parser = new JmmParserImpl();
+        JmmParserResult parserResult = profiler.time("parsing", () -> parser.parse(inputFile.toPath(), fileConfig));
+        reports.addAll(parserResult.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return null;
+        }
+
+        JmmAnalysisImpl sema = new JmmAnalysisImpl();
+        JmmSemanticsResult symbolsResult = profiler.time("semantic analysis", () -> sema.buildSymbolTable(parserResult));
+        addNewReports(reports, symbolsResult.getReports());
+
+        return ReportUtils.anyError(reports) ? null : symbolsResult;
+    }
+
+    /**
+     * Runs the rest of the pipeline over a file whose symbol table was built with {@link #buildSymbolTable}.
+     */
+    CompilationResult compile(File inputFile, JmmSemanticsResult symbolsResult, List<Report> reports) {
+        JmmAnalysisImpl sema = new JmmAnalysisImpl();
+        JmmSemanticsResult analysedResult = StageProfiler.current().time("semantic analysis", () -> sema.semanticAnalysis(symbolsResult));
+        addNewReports(reports, analysedResult.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return new CompilationResult(inputFile, reports, null, null);
+        }
+
+        return generate(inputFile, analysedResult, reports);
+    }
+
+    private CompilationResult generate(File inputFile, JmmSemanticsResult analysedResult, List<Report> reports) {
+        var profiler = StageProfiler.current();
+        var fileConfig = analysedResult.getConfig();
+
+        // Optimization stage
+        JmmOptimizationImpl ollirGen = new JmmOptimizationImpl();
+        JmmSemanticsResult semanticsResult = profiler.time("ast optimization", () -> ollirGen.optimize(analysedResult));
+        OllirResult generatedResult = profiler.time("ollir generation", () -> ollirGen.toOllir(semanticsResult));
+        OllirResult ollirResult = profiler.time("ollir optimization", () -> ollirGen.optimize(generatedResult));
+        addNewReports(reports, ollirResult.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return new CompilationResult(inputFile, reports, ollirResult, null);
+        }
+
+        // Code generation stage, either straight to a class file or through Jasmin
+        if (ConfigOptions.isClassFileBackend(fileConfig)) {
+            ClassFileBackendImpl classFileGen = new ClassFileBackendImpl();
+            ClassFileResult classFileResult = profiler.time("class file generation", () -> classFileGen.toClassFile(ollirResult));
+            addNewReports(reports, classFileResult.getReports());
+
+            return CompilationResult.fromClassFile(inputFile, reports, ollirResult, classFileResult.getClassName(), classFileResult.getClassFile());
+        }
+
+        JasminBackendImpl jasminGen = new JasminBackendImpl();
+        JasminResult jasminResult = profiler.time("jasmin generation", () -> jasminGen.toJasmin(ollirResult));
+        addNewReports(reports, jasminResult.getReports());
+
+        return new CompilationResult(inputFile, reports, ollirResult, jasminResult);
+    }
+
+    /**
+     * Later stage results also carry the reports of the previous stages, only add the ones we do not have yet.
+     */
+    private void addNewReports(List<Report> reports, List<Report> stageReports) {
+        for (var report : stageReports) {
+            if (!reports.contains(report)) {
+                reports.add(report);
+            }
+        }
+    }
+}
@@ -7,29 +7,61 @@ import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
 import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.cache.CompilationCache;
+import pt.up.fe.comp2025.daemon.CompileDaemon;
 import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
 import pt.up.fe.comp2025.parser.JmmParserImpl;
-import pt.up.fe.specs.util.SpecsIo;
+import pt.up.fe.comp2025.profile.StageProfiler;
 import pt.up.fe.specs.util.SpecsSystem;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
 
 public class Launcher {
 
+    private static final String PROFILE_FILE = "jmm-profile.json";
+
     public static void main(String[] args) {
         SpecsSystem.programStandardInit();
 
         Map<String, String> config = CompilerConfig.parseArgs(args);
 
+        if (CompilerConfig.isWarmUp(config)) {
+            JmmParserImpl.warmUp();
+        }
+
+        if (CompilerConfig.isServer(config)) {
+            runServer(config);
+            return;
+        }
+
+        if (CompilerConfig.isProject(config)) {
+            var sources = BatchCompiler.collectSources(CompilerConfig.getProjectInputs(config));
+            printResults(config, new ProjectCompiler(config).compile(sources), null);
+            return;
+        }
+
+        if (CompilerConfig.isBatch(config)) {
+            runBatch(config, BatchCompiler.collectSources(CompilerConfig.getBatchInputs(config)));
+            return;
+        }
+
         var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
         if (!inputFile.isFile()) {
             throw new RuntimeException("Option '-i' expects a path to an existing input file, got '" + args[0] + "'.");
         }
-        String code = SpecsIo.read(inputFile);
 
+        // Profiling needs every stage to run, compile the file as a batch of one
+        if (CompilerConfig.isProfile(config)) {
+            runBatch(config, List.of(inputFile));
+            return;
+        }
         // Parsing stage
         JmmParserImpl parser = new JmmParserImpl();
-        JmmParserResult parserResult = parser.parse(code, config);
+        JmmParserResult parserResult = parser.parse(inputFile.toPath(), config);
         TestUtils.noErrors(parserResult.getReports());
 
         // Print AST
@@ -60,4 +92,51 @@ public class Launcher {
         //System.out.println(jasminResult.getJasminCode());
     }
 
+    private static void runServer(Map<String, String> config) {
+        var port = CompilerConfig.getServerPort(config).orElseGet(CompileDaemon::getPort);
+
+        try {
+            var cache = CompilerConfig.getCacheDir(config).map(CompilationCache::new).orElse(null);
+            new CompileDaemon(port, cache).run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the jmm daemon on port " + port, e);
+        }
+    }
+
+    private static void runBatch(Map<String, String> config, List<File> sources) {
+        var batchCompiler = new BatchCompiler(config);
+        printResults(config, batchCompiler.compile(sources), batchCompiler.getCache().orElse(null));
+    }
+
+    private static void printResults(Map<String, String> config, List<CompilationResult> results, CompilationCache cache) {
+        CompilerConfig.getOutputDir(config).ifPresent(outputDir -> BatchCompiler.writeOutput(results, outputDir));
+
+        int failed = BatchCompiler.printSummary(results);
+        if (cache != null) {
+            System.out.println(cache);
+        }
+        if (CompilerConfig.isProfile(config)) {
+            printProfile(config, results);
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Prints the time spent in each stage over all files and saves it as JSON, by default to 'jmm-profile.json'
+     * in the output folder.
+     */
+    private static void printProfile(Map<String, String> config, List<CompilationResult> results) {
+        var profile = StageProfiler.newProfile();
+        for (var result : results) {
+            result.getProfile().ifPresent(profile::merge);
+        }
+
+        System.out.println(profile.toTable());
+
+        var jsonFile = CompilerConfig.getProfileFile(config)
+                .orElseGet(() -> new File(CompilerConfig.getOutputDir(config).orElse(new File(".")), PROFILE_FILE));
+        profile.writeJson(jsonFile);
+        System.out.println("Profile saved to " + jsonFile);
+    }
+
 }
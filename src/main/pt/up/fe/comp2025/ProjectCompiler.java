@@ -0,0 +1,298 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.classpath.MethodSignature;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.comp2025.profile.StageProfiler;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles the files of a project, whose classes can import each other, in a single JVM.
+ * <p>
+ * The symbol tables of every file are built first, in parallel. The methods they declare are added to the
+ * signatures of the classpath, so an import of another class of the project is resolved against its symbol table
+ * and the file it comes from is never parsed again. The files are then compiled in dependency order on a
+ * fork-join pool: a file starts once the files it imports are compiled, files that do not depend on each other
+ * run in parallel, and a file is not compiled if a file it imports has errors. Classes that import each other
+ * are compiled without waiting for one another.
+ * <p>
+ * The output of a file depends on the other files of the project, so the compilation cache is not used.
+ */
+public class ProjectCompiler {
+
+    private static final AtomicInteger PROJECTS = new AtomicInteger();
+
+    private final Map<String, String> config;
+    private final int parallelism;
+
+    public ProjectCompiler(Map<String, String> config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ProjectCompiler(Map<String, String> config, int parallelism) {
+        this.config = config;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Compiles every file, returning the results in the same order as the given files.
+     */
+    public List<CompilationResult> compile(List<File> sources) {
+        var projectKey = "project-" + PROJECTS.incrementAndGet();
+        var projectConfig = new HashMap<>(config);
+        projectConfig.put(ConfigOptions.getProjectIndex(), projectKey);
+
+        var compiler = new JmmCompiler(projectConfig);
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            // Symbol tables of every file
+            var units = new ArrayList<CompilationUnit>();
+            for (var source : sources) {
+                units.add(new CompilationUnit(source, compiler.newFileConfig(source)));
+            }
+
+            var tableFutures = units.stream()
+                    .map(unit -> CompletableFuture.runAsync(() -> unit.buildSymbolTable(compiler), pool))
+                    .toList();
+            CompletableFuture.allOf(tableFutures.toArray(CompletableFuture[]::new)).join();
+
+            // Every class of the project, shared by every file
+            var classes = indexClasses(units);
+            var signatures = newSignatures(classes);
+            SignatureIndex.register(projectKey, signatures);
+            try {
+                for (var unit : classes.values()) {
+                    unit.getTable().setSignatures(signatures);
+                }
+
+                return compileInOrder(units, classes, compiler, pool);
+            } finally {
+                SignatureIndex.unregister(projectKey);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Files with a symbol table, by class name. A class declared twice is an error in the files after the first.
+     */
+    private Map<String, CompilationUnit> indexClasses(List<CompilationUnit> units) {
+        var classes = new HashMap<String, CompilationUnit>();
+
+        for (var unit : units) {
+            if (unit.getTable() == null) {
+                continue;
+            }
+
+            var className = unit.getTable().getClassName();
+            var other = classes.putIfAbsent(className, unit);
+            if (other != null) {
+                unit.fail("Class '" + className + "' is already declared in '" + other.source + "'", null);
+            }
+        }
+
+        return classes;
+    }
+
+    private SignatureIndex newSignatures(Map<String, CompilationUnit> classes) {
+        var methods = new HashMap<String, List<MethodSignature>>();
+        var superNames = new HashMap<String, String>();
+
+        for (var entry : classes.entrySet()) {
+            var table = entry.getValue().getTable();
+            var types = new TypeUtils(table);
+            var className = entry.getKey();
+
+            var classMethods = new ArrayList<MethodSignature>();
+            for (var method : table.getMethods()) {
+                var descriptor = new StringBuilder("(");
+                for (var parameter : table.getParameters(method)) {
+                    descriptor.append(types.toDescriptor(parameter.getType()));
+                }
+                descriptor.append(")").append(types.toDescriptor(table.getReturnType(method)));
+
+                // 'main' is the only static method in jmm
+                classMethods.add(new MethodSignature(className, method, descriptor.toString(), method.equals("main")));
+            }
+
+            methods.put(className, classMethods);
+            if (table.getSuper() != null) {
+                superNames.put(className, types.getInternalName(table.getSuper()));
+            }
+        }
+
+        return SignatureIndex.of(config).withClasses(methods, superNames);
+    }
+
+    private List<CompilationResult> compileInOrder(List<CompilationUnit> units, Map<String, CompilationUnit> classes,
+                                                   JmmCompiler compiler, ForkJoinPool pool) {
+        var futures = new HashMap<CompilationUnit, CompletableFuture<CompilationResult>>();
+
+        for (var unit : sortByDependencies(units, classes)) {
+            // Dependencies that are not compiled yet are part of a cycle, do not wait for them
+            var dependencies = new LinkedHashMap<CompilationUnit, CompletableFuture<CompilationResult>>();
+            for (var dependency : unit.getDependencies(classes)) {
+                if (futures.containsKey(dependency)) {
+                    dependencies.put(dependency, futures.get(dependency));
+                }
+            }
+
+            var waitFor = dependencies.values().toArray(CompletableFuture[]::new);
+            futures.put(unit, CompletableFuture.allOf(waitFor)
+                    .thenApplyAsync(unused -> unit.compile(compiler, dependencies), pool));
+        }
+
+        var results = new ArrayList<CompilationResult>();
+        for (var unit : units) {
+            results.add(getResult(unit, futures.get(unit)));
+        }
+
+        return results;
+    }
+
+    /**
+     * Files in an order where each file comes after the files it imports, except for files in an import cycle,
+     * which come last in their original order.
+     */
+    private static List<CompilationUnit> sortByDependencies(List<CompilationUnit> units, Map<String, CompilationUnit> classes) {
+        var sorted = new LinkedHashSet<CompilationUnit>();
+
+        boolean added;
+        do {
+            added = false;
+            for (var unit : units) {
+                if (!sorted.contains(unit) && sorted.containsAll(unit.getDependencies(classes))) {
+                    sorted.add(unit);
+                    added = true;
+                }
+            }
+        } while (added);
+
+        sorted.addAll(units);
+
+        return new ArrayList<>(sorted);
+    }
+
+    private CompilationResult getResult(CompilationUnit unit, CompletableFuture<CompilationResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            var cause = e.getCause() instanceof Exception exception ? exception : e;
+            var report = Report.newError(Stage.OTHER, -1, -1, "Exception while compiling '" + unit.source + "'", cause);
+            return new CompilationResult(unit.source, List.of(report), null, null);
+        }
+    }
+
+    /**
+     * A file of the project, with its symbol table once it is built.
+     */
+    private static class CompilationUnit {
+
+        private final File source;
+        private final Map<String, String> fileConfig;
+        private final List<Report> reports = new ArrayList<>();
+        private final StageProfiler profiler;
+
+        private JmmSemanticsResult symbolsResult;
+
+        private CompilationUnit(File source, Map<String, String> fileConfig) {
+            this.source = source;
+            this.fileConfig = fileConfig;
+            // The stages of the file run on the pool, each of them resumes the profile
+            this.profiler = StageProfiler.start(CompilerConfig.isProfile(fileConfig));
+            profiler.stop();
+        }
+
+        private JmmSymbolTable getTable() {
+            return symbolsResult == null ? null : (JmmSymbolTable) symbolsResult.getSymbolTable();
+        }
+
+        private void fail(String message, Exception cause) {
+            reports.add(Report.newError(Stage.OTHER, -1, -1, message, cause));
+            symbolsResult = null;
+        }
+
+        private void buildSymbolTable(JmmCompiler compiler) {
+            profiler.resume();
+            try {
+                symbolsResult = compiler.buildSymbolTable(source, fileConfig, reports);
+            } catch (Exception e) {
+                fail("Exception while compiling '" + source + "'", e);
+            } finally {
+                profiler.stop();
+            }
+        }
+
+        /**
+         * Files of the project this file imports.
+         */
+        private Set<CompilationUnit> getDependencies(Map<String, CompilationUnit> classes) {
+            var dependencies = new LinkedHashSet<CompilationUnit>();
+            if (getTable() == null) {
+                return dependencies;
+            }
+
+            for (var imported : getTable().getImports()) {
+                var dependency = classes.get(SignatureIndex.toInternalName(imported));
+                if (dependency != null && dependency != this) {
+                    dependencies.add(dependency);
+                }
+            }
+
+            return dependencies;
+        }
+
+        /**
+         * Compiles the file, once the given dependencies are compiled.
+         */
+        private CompilationResult compile(JmmCompiler compiler,
+                                          Map<CompilationUnit, CompletableFuture<CompilationResult>> dependencies) {
+            if (symbolsResult == null) {
+                return newResult(new CompilationResult(source, reports, null, null));
+            }
+
+            for (var dependency : dependencies.keySet()) {
+                if (!dependencies.get(dependency).join().isSuccess()) {
+                    reports.add(Report.newError(Stage.OTHER, -1, -1, "Could not compile '" + source + "', it imports '"
+                            + dependency.getTable().getClassName() + "' from '" + dependency.source + "', which has errors", null));
+                    return newResult(new CompilationResult(source, reports, null, null));
+                }
+            }
+
+            profiler.resume();
+            try {
+                return newResult(compiler.compile(source, symbolsResult, reports));
+            } catch (Exception e) {
+                reports.add(Report.newError(Stage.OTHER, -1, -1, "Exception while compiling '" + source + "'", e));
+                return newResult(new CompilationResult(source, reports, null, null));
+            } finally {
+                profiler.stop();
+            }
+        }
+
+        private CompilationResult newResult(CompilationResult result) {
+            if (profiler.isEnabled()) {
+                result.setProfile(profiler);
+            }
+
+            return result;
+        }
+    }
+}
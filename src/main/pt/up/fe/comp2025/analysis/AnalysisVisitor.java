@@ -2,23 +2,29 @@ package pt.up.fe.comp2025.analysis;
 
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ast.PreorderKindVisitor;
+import pt.up.fe.comp2025.utils.Trace;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * Implementation of AnalysisPass that automatically visits nodes using preorder traversal.
  */
-public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Void> implements AnalysisPass {
+public abstract class AnalysisVisitor extends PreorderKindVisitor<SymbolTable, Void> implements AnalysisPass {
 
     private List<Report> reports;
+    private Trace trace = Trace.off();
+
+    // Visit of the nodes the pass has no method for, kept to tell them apart in getNodeVisit
+    private final BiFunction<JmmNode, SymbolTable, Void> defaultVisit = (node, table) -> null;
 
     public AnalysisVisitor() {
         reports = new ArrayList<>();
-        setDefaultValue(() -> null);
+        setDefaultVisit(defaultVisit);
     }
 
     protected void addReport(Report report) {
@@ -29,6 +35,23 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
         return reports;
     }
 
+    public void setTrace(Trace trace) {
+        this.trace = trace;
+    }
+
+    protected Trace getTrace() {
+        return trace;
+    }
+
+
+    /**
+     * The method this pass applies to the given node, or null if the pass does not visit nodes of its kind.
+     * Used by {@link FusedAnalysis} to visit the node without visiting its children.
+     */
+    BiFunction<JmmNode, SymbolTable, Void> getNodeVisit(JmmNode node) {
+        var visit = getVisit(node);
+        return visit == defaultVisit ? null : visit;
+    }
 
     @Override
     public List<Report> analyze(JmmNode root, SymbolTable table) {
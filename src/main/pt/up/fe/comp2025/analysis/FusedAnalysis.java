@@ -0,0 +1,116 @@
+package pt.up.fe.comp2025.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Runs several analysis passes in a single preorder traversal of the AST, instead of one traversal per pass.
+ * <p>
+ * Each node is given to the visit method of every pass that has one for its kind, in the order of the passes, so each
+ * pass sees the same nodes in the same order as in its own traversal. Passes must not change the AST.
+ * A pass that throws stops being visited and its reports are dropped, the other passes go on.
+ */
+public class FusedAnalysis {
+
+    private final List<AnalysisVisitor> passes;
+    private final Exception[] failures;
+
+    // The visit methods only depend on the kind hierarchy of the node, look them up once per Kind, or per
+    // hierarchy for nodes without one
+    private final List<List<PassVisit>> visitsByKind;
+    private final Map<List<String>, List<PassVisit>> visits = new HashMap<>();
+
+    public FusedAnalysis(List<AnalysisVisitor> passes) {
+        this.passes = passes;
+        this.failures = new Exception[passes.size()];
+        this.visitsByKind = new ArrayList<>(Collections.nCopies(Kind.values().length, null));
+    }
+
+    public void analyze(JmmNode root, SymbolTable table) {
+        visit(root, table);
+    }
+
+    private void visit(JmmNode node, SymbolTable table) {
+        for (var passVisit : getCachedVisits(node)) {
+            if (failures[passVisit.pass] != null) {
+                continue;
+            }
+
+            try {
+                passVisit.visit.apply(node, table);
+            } catch (Exception e) {
+                failures[passVisit.pass] = e;
+            }
+        }
+
+        for (var child : node.getChildren()) {
+            visit(child, table);
+        }
+    }
+
+    private List<PassVisit> getCachedVisits(JmmNode node) {
+        if (node instanceof CompactNode compactNode && compactNode.getNodeKind() != null) {
+            int kind = compactNode.getNodeKind().ordinal();
+            var kindVisits = visitsByKind.get(kind);
+            if (kindVisits == null) {
+                kindVisits = getVisits(node);
+                visitsByKind.set(kind, kindVisits);
+            }
+
+            return kindVisits;
+        }
+
+        return visits.computeIfAbsent(node.getHierarchy(), hierarchy -> getVisits(node));
+    }
+
+    private List<PassVisit> getVisits(JmmNode node) {
+        var nodeVisits = new ArrayList<PassVisit>();
+
+        for (int i = 0; i < passes.size(); i++) {
+            var visit = passes.get(i).getNodeVisit(node);
+            if (visit != null) {
+                nodeVisits.add(new PassVisit(i, visit));
+            }
+        }
+
+        return nodeVisits;
+    }
+
+    public AnalysisVisitor getPass(int index) {
+        return passes.get(index);
+    }
+
+    /**
+     * Reports of the given pass, empty if it failed.
+     */
+    public List<Report> getReports(int index) {
+        return failures[index] == null ? passes.get(index).getReports() : List.of();
+    }
+
+    /**
+     * The exception thrown by the given pass, or null if it ran to the end.
+     */
+    public Exception getFailure(int index) {
+        return failures[index];
+    }
+
+    private static class PassVisit {
+        private final int pass;
+        private final BiFunction<JmmNode, SymbolTable, Void> visit;
+
+        private PassVisit(int pass, BiFunction<JmmNode, SymbolTable, Void> visit) {
+            this.pass = pass;
+            this.visit = visit;
+        }
+    }
+}
@@ -9,7 +9,11 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.passes.*;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.comp2025.profile.StageProfiler;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.comp2025.symboltable.NameBinding;
+import pt.up.fe.comp2025.utils.Trace;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +43,15 @@ public class JmmAnalysisImpl implements JmmAnalysis {
         JmmNode rootNode = parserResult.getRootNode();
 
         var symbolTableBuilder = new JmmSymbolTableBuilder();
-        SymbolTable table = symbolTableBuilder.build(rootNode);
-        System.out.println("Created symbol table: " + table);
-        System.out.println("Superclass in table: " + table.getSuper());
+        var table = StageProfiler.current().time("symbol table", () -> symbolTableBuilder.build(rootNode));
+        table.setSignatures(StageProfiler.current().time("signature index", () -> SignatureIndex.of(parserResult.getConfig())));
+
+        // Every name is resolved here once, later stages read the binding from the node
+        StageProfiler.current().time("name resolution", () -> NameBinding.annotate(rootNode, table));
+
+        var trace = Trace.of(parserResult.getConfig(), Stage.SEMANTIC);
+        trace.debug(() -> "Created symbol table: " + table);
+        trace.info(() -> "Superclass in table: " + table.getSuper());
 
         List<Report> reports = symbolTableBuilder.getReports();
 
@@ -55,37 +65,46 @@ public class JmmAnalysisImpl implements JmmAnalysis {
 
         var analysisVisitors = buildPasses(table);
 
-        var rootNode = semanticsResult.getRootNode();
-
-        var reports = new ArrayList<Report>();
-
-        // This is a simple implementation that assumes all passes are implemented as visitors, each one making a full visit of the AST.
-        // There are other implementations that reduce the number of full AST visits, this is not required for the work, but a nice challenge if you want to try.
+        var trace = Trace.of(semanticsResult.getConfig(), Stage.SEMANTIC);
         for (var analysisVisitor : analysisVisitors) {
-            try {
-                var passReports = analysisVisitor.analyze(rootNode, table);
+            analysisVisitor.setTrace(trace);
+        }
 
-                var hasSymbolTableErrors = passReports.stream()
-                        .anyMatch(report -> report.getType() == ReportType.ERROR);
+        var rootNode = semanticsResult.getRootNode();
 
+        var reports = new ArrayList<Report>();
 
-                reports.addAll(passReports);
+        // Every pass is applied in the same traversal of the AST, then the reports are collected as if the passes
+        // had run one after the other, stopping at the first pass with errors
+        var analysis = new FusedAnalysis(analysisVisitors);
+        StageProfiler.current().time("analysis passes", () -> analysis.analyze(rootNode, table));
 
-                // Return early in case of error report
-                if (hasSymbolTableErrors) {
-                    return new JmmSemanticsResult(semanticsResult, reports);
-                }
+        for (int i = 0; i < analysisVisitors.size(); i++) {
+            var failure = analysis.getFailure(i);
 
-            } catch (Exception e) {
+            if (failure != null) {
                 reports.add(Report.newError(Stage.SEMANTIC,
                         -1,
                         -1,
-                        "Problem while executing analysis pass '" + analysisVisitor.getClass() + "'",
-                        e)
+                        "Problem while executing analysis pass '" + analysis.getPass(i).getClass() + "'",
+                        failure)
                 );
-                System.out.println("Exception: " + reports);
+                trace.info(() -> "Exception: " + reports);
+                continue;
             }
 
+            var passReports = analysis.getReports(i);
+
+            var hasSymbolTableErrors = passReports.stream()
+                    .anyMatch(report -> report.getType() == ReportType.ERROR);
+
+
+            reports.addAll(passReports);
+
+            // Return early in case of error report
+            if (hasSymbolTableErrors) {
+                return new JmmSemanticsResult(semanticsResult, reports);
+            }
         }
 
 
@@ -44,7 +44,7 @@ public class IdentifierAndDeclarationVerification extends AnalysisVisitor {
                     return null;
                 }
             }
-            System.out.println("Field: " + field.getName());
+            getTrace().debug(() -> "Field: " + field.getName());
             if (!fields.add(field.getName())) {
                 addReport(newError(classNode, "Duplicate field: " + field.getName()));
                 return null;
@@ -111,11 +111,8 @@ public class IdentifierAndDeclarationVerification extends AnalysisVisitor {
      * Checks if a variable is declared in the method's parameters, local variables, or fields.
      */
     private boolean isDeclared(String varName, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
-        return table.getLocalVariables(currentMethod).stream().anyMatch(var -> var.getName().equals(varName)) ||
-                table.getParameters(currentMethod).stream().anyMatch(var -> var.getName().equals(varName)) ||
-                table.getFields().stream().anyMatch(field -> field.getName().equals(varName)) ||
-                typeUtils.isImported(varName);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
+        return typeUtils.resolve(varName, currentMethod) != null || typeUtils.isImported(varName);
     }
 
 }
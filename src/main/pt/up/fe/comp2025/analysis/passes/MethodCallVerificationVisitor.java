@@ -9,6 +9,7 @@ import pt.up.fe.comp2025.ast.Kind;
 import pt.up.fe.comp2025.ast.TypeUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -43,7 +44,7 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
 
 
     private Void visitImportDecl(JmmNode methodNode, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         if(typeUtils.hasDoubleImports()){
             addReport(newError(methodNode, "Double import with same name detected."));
             return null;
@@ -84,7 +85,7 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
      * Handles method call expressions by verifying different types of method calls: simple method call, array access, and more complex scenarios.
      */
     private Void visitMethodCallExpr(JmmNode methodCallExpr, SymbolTable table) {
-        TypeUtils typeutils = new TypeUtils(table);
+        TypeUtils typeutils = new TypeUtils(table, getTrace());
         // Check for imported class methods
         if (methodCallExpr.getNumChildren() > 0) {
             JmmNode receiver = methodCallExpr.getChild(0);
@@ -92,7 +93,7 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
                 String classOrVar = receiver.get("name");
                 Type typeclassOrVar = typeutils.getExprType(receiver);;
                 boolean imported = typeutils.isImported(classOrVar) || typeutils.isImported(typeclassOrVar);
-                System.out.println("Imported: " + imported);
+                getTrace().debug(() -> "Imported: " + imported);
                 if (imported) {
                     return null;
                 }
@@ -253,7 +254,7 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
         JmmNode indexExpr = arrayAccessExpr.getChildren().get(1);
 
         // Check if index is of integer type
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         Type indexType = typeUtils.getExprType(indexExpr);
         if (!indexType.getName().equals("int")) {
             addReport(newError(arrayAccessExpr, "Array index must be of type 'int'"));
@@ -308,22 +309,26 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
      */
     private boolean isNotDeclaredMethod(String methodName, SymbolTable table) {
         // Check if the method exists in the current class
-        boolean methodDeclared = table.getMethods().stream()
-                .anyMatch(method -> method.equals(methodName));
-
-        if (methodDeclared) {
+        if (new TypeUtils(table, getTrace()).hasMethod(methodName)) {
             return false;
         }
 
+        // Could be a method of an imported class, called on a local of that class or inherited from it
+        var locals = table.getLocalVariables(currentMethod);
+        if (locals.isEmpty()) {
+            return true;
+        }
+
+        var localTypes = new HashSet<String>();
+        for (Symbol symbol : locals) {
+            localTypes.add(symbol.getType().getName());
+        }
+
         for (String importedClass : table.getImports()) {
             String className = importedClass.replace("[", "").replace("]", "");
 
-            for (Symbol symbol : table.getLocalVariables(currentMethod)) {
-                String variableType = symbol.getType().getName();
-
-                if (className.equals(variableType) || className.equals(table.getSuper())) {
-                    return false;
-                }
+            if (localTypes.contains(className) || className.equals(table.getSuper())) {
+                return false;
             }
         }
         return true;
@@ -333,10 +338,7 @@ public class MethodCallVerificationVisitor extends AnalysisVisitor {
      * This function checks if a given variable is declared in the current method’s scope (local variables), in the class (fields), or in any imported classes.
      */
     private boolean isDeclared(String varName, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
-        return table.getLocalVariables(currentMethod).stream().anyMatch(var -> var.getName().equals(varName)) ||
-                table.getParameters(currentMethod).stream().anyMatch(var -> var.getName().equals(varName)) ||
-                table.getFields().stream().anyMatch(field -> field.getName().equals(varName)) ||
-                typeUtils.isImported(varName);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
+        return typeUtils.resolve(varName, currentMethod) != null || typeUtils.isImported(varName);
     }
 }
@@ -13,7 +13,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class TypeCheckingVisitor extends AnalysisVisitor {
 
@@ -32,7 +31,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
      * This function checks and reports errors for binary expressions (arithmetic, comparison, etc.).
      */
     private Void visitBinaryExpr(JmmNode binaryExpr, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         String op = binaryExpr.get("op");
 
         // Ensure the variables involved in the binary expression are declared
@@ -98,7 +97,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
             return null;
         }
 
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         String stmtKind = stmt.getKind();
 
         // Check for assignment statements
@@ -119,20 +118,8 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
             JmmNode valueNode = stmt.getChild(0);
 
             // Retrieve the expected type of the variable
-            JmmNode methodNode = stmt.getAncestor(Kind.METHOD_DECL).orElse(null);
-            String methodName = (methodNode != null) ? methodNode.get("name") : null;
-
-            Type varType = Stream.concat(
-                            Stream.concat(
-                                    table.getLocalVariables(methodName).stream(),
-                                    table.getParameters(methodName).stream()
-                            ),
-                            table.getFields().stream()
-                    )
-                    .filter(var -> var.getName().equals(varName))
-                    .map(Symbol::getType)
-                    .findFirst()
-                    .orElse(null);
+            var binding = typeUtils.getBinding(stmt);
+            Type varType = binding.isVariable() ? binding.getSymbol().getType() : null;
 
 
             if (varType == null) {
@@ -298,29 +285,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
         }
 
         // 3) Otherwise it really is a variable—look in locals, then params, then fields
-        JmmNode methodNode = primaryExpr.getAncestor(Kind.METHOD_DECL).orElse(null);
-        String methodName = methodNode != null ? methodNode.get("name") : null;
-
-        Type varType = table.getLocalVariables(methodName).stream()
-                .filter(v -> v.getName().equals(id))
-                .map(Symbol::getType)
-                .findFirst().orElse(null);
-
-        if (varType == null) {
-            varType = table.getParameters(methodName).stream()
-                    .filter(p -> p.getName().equals(id))
-                    .map(Symbol::getType)
-                    .findFirst().orElse(null);
-        }
-
-        if (varType == null) {
-            varType = table.getFields().stream()
-                    .filter(f -> f.getName().equals(id))
-                    .map(Symbol::getType)
-                    .findFirst().orElse(null);
-        }
-
-        if (varType == null) {
+        if (!new TypeUtils(table, getTrace()).getBinding(primaryExpr).isVariable()) {
             addReport(newError(primaryExpr, "Variable '" + id + "' is not declared."));
             return null;
         }
@@ -334,7 +299,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
      */
     private Void visitMethodDecl(JmmNode methodDecl, SymbolTable table) {
 
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         String methodName = methodDecl.get("name");
         Type returnType = table.getReturnType(methodName);
         boolean isMain = methodDecl.getBoolean("isMain", false);
@@ -717,7 +682,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
      * Handles array literal expressions and checks if all elements are of the same type.
      */
     public Void visitArrayLiteral(JmmNode expr, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         Type firstElementType = typeUtils.getExprType(expr.getChild(0));
 
         if (firstElementType == null) {
@@ -741,7 +706,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
      * Handles unary expressions and validates the operand type (increment, decrement).
      */
     private Void visitUnaryExpr(JmmNode unaryExpr, SymbolTable table) {
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
 
         // Check if this is an increment/decrement expression
         if (unaryExpr.getKind().equals("Increment")) {
@@ -780,7 +745,7 @@ public class TypeCheckingVisitor extends AnalysisVisitor {
         }
 
         JmmNode targetExpr = lengthExpr.getChild(0);
-        TypeUtils typeUtils = new TypeUtils(table);
+        TypeUtils typeUtils = new TypeUtils(table, getTrace());
         Type targetType = typeUtils.getExprType(targetExpr);
 
         if (targetType == null) {
@@ -0,0 +1,536 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+import pt.up.fe.specs.util.SpecsCheck;
+import pt.up.fe.specs.util.SpecsSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AST node used by the parser, a smaller and faster {@link JmmNode} than the map-based node of the library.
+ * <p>
+ * The kind is shared by every node with the same hierarchy, and knows which {@link Kind}s the node is an instance
+ * of, so {@link Kind#check} does not compare strings. The position and the attributes most nodes have ('name', 'op'
+ * and 'value') are kept in fields, any other attribute in a small array of names and values. Children are kept in
+ * an array. Attributes are listed in the order a HashMap would give them, so {@link #toTree()} looks the same as
+ * for the library nodes.
+ */
+public class CompactNode implements JmmNode {
+
+    private static final String LINE_START = NodePosition.LINE_START.getKey();
+    private static final String COL_START = NodePosition.COL_START.getKey();
+    private static final String LINE_END = NodePosition.LINE_END.getKey();
+    private static final String COL_END = NodePosition.COL_END.getKey();
+
+    private static final String NAME = "name";
+    private static final String OP = "op";
+    private static final String VALUE = "value";
+
+    // Not shown by toString(), as in the library nodes
+    private static final Set<String> POSITIONS = Set.of(LINE_START, COL_START, LINE_END, COL_END);
+
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+
+    private static final JmmNode[] NO_CHILDREN = new JmmNode[0];
+    private static final Object[] NO_EXTRAS = new Object[0];
+
+    private final Hierarchy hierarchy;
+    private JmmNode parent;
+
+    private JmmNode[] children = NO_CHILDREN;
+    private int numChildren;
+
+    private int lineStart = NO_POSITION;
+    private int colStart = NO_POSITION;
+    private int lineEnd = NO_POSITION;
+    private int colEnd = NO_POSITION;
+
+    private String name;
+    private String op;
+    private String value;
+
+    // Other attributes, as pairs of name and value
+    private Object[] extras = NO_EXTRAS;
+    private int numExtras;
+
+    // Number of extras added before the first field, to list the attributes in the order they were added
+    private int extrasBeforeFields;
+
+    /**
+     * A node of the given kind, with no attributes and the same hierarchy as the nodes of that kind from the parser.
+     */
+    public CompactNode(Kind kind) {
+        this(Hierarchy.of(kind));
+    }
+
+    public CompactNode(List<String> hierarchy) {
+        this(Hierarchy.of(hierarchy));
+    }
+
+    public CompactNode(Hierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    public void setPosition(int lineStart, int colStart, int lineEnd, int colEnd) {
+        this.lineStart = lineStart;
+        this.colStart = colStart;
+        this.lineEnd = lineEnd;
+        this.colEnd = colEnd;
+    }
+
+    @Override
+    public String getKind() {
+        return hierarchy.kinds.getFirst();
+    }
+
+    /**
+     * The kind of this node if its hierarchy is the one the parser gives to that kind, otherwise null.
+     */
+    public Kind getNodeKind() {
+        return hierarchy.kind;
+    }
+
+    @Override
+    public List<String> getHierarchy() {
+        return hierarchy.kinds;
+    }
+
+    @Override
+    public boolean isInstance(String kindName) {
+        return hierarchy.kinds.contains(kindName);
+    }
+
+    @Override
+    public boolean isInstance(Object kindToTest) {
+        if (kindToTest instanceof Kind k) {
+            return (hierarchy.mask & (1L << k.ordinal())) != 0;
+        }
+
+        return isInstance(kindToTest.toString());
+    }
+
+    @Override
+    public JmmNode copy(List<String> kindHierarchy) {
+        var copy = new CompactNode(kindHierarchy);
+        copy.setPosition(lineStart, colStart, lineEnd, colEnd);
+        copy.name = name;
+        copy.op = op;
+        copy.value = value;
+        copy.extras = Arrays.copyOf(extras, extras.length);
+        copy.numExtras = numExtras;
+        copy.extrasBeforeFields = extrasBeforeFields;
+
+        return copy;
+    }
+
+    @Override
+    public int getLine() {
+        return lineStart != NO_POSITION ? lineStart : JmmNode.super.getLine();
+    }
+
+    @Override
+    public int getColumn() {
+        return colStart != NO_POSITION ? colStart : JmmNode.super.getColumn();
+    }
+
+    // Attributes
+
+    @Override
+    public Collection<String> getAttributes() {
+        var attributes = new HashSet<String>();
+        addPosition(attributes, LINE_START, lineStart);
+        addPosition(attributes, COL_START, colStart);
+        addPosition(attributes, LINE_END, lineEnd);
+        addPosition(attributes, COL_END, colEnd);
+        // Attributes in the same bucket of the set are listed in the order they are added
+        for (int i = 0; i < extrasBeforeFields; i++) {
+            attributes.add((String) extras[2 * i]);
+        }
+        if (name != null) {
+            attributes.add(NAME);
+        }
+        if (op != null) {
+            attributes.add(OP);
+        }
+        if (value != null) {
+            attributes.add(VALUE);
+        }
+        for (int i = extrasBeforeFields; i < numExtras; i++) {
+            attributes.add((String) extras[2 * i]);
+        }
+
+        return attributes;
+    }
+
+    private static void addPosition(Set<String> attributes, String attribute, int position) {
+        if (position != NO_POSITION) {
+            attributes.add(attribute);
+        }
+    }
+
+    @Override
+    public boolean hasAttribute(String attribute) {
+        return getField(attribute) != null || indexOfExtra(attribute) >= 0;
+    }
+
+    @Override
+    public Object getObject(String attribute) {
+        var field = getField(attribute);
+        if (field != null) {
+            return field;
+        }
+
+        int index = indexOfExtra(attribute);
+        var value = index >= 0 ? extras[2 * index + 1] : null;
+        SpecsCheck.checkNotNull(value, () -> "Node " + getKind() + " does not contain attribute '" + attribute + "'");
+
+        return value;
+    }
+
+    @Override
+    public Object putObject(String attribute, Object value) {
+        Object previous = getField(attribute);
+        if (previous == null) {
+            int index = indexOfExtra(attribute);
+            previous = index >= 0 ? extras[2 * index + 1] : null;
+        }
+
+        // Only strings go in the fields, anything else (e.g. the list of names of an import) is an extra
+        if (value instanceof String string && setField(attribute, string)) {
+            removeExtra(attribute);
+        } else {
+            setField(attribute, null);
+            putExtra(attribute, value);
+        }
+
+        return previous;
+    }
+
+    /**
+     * The value of an attribute kept in a field, or null if it has none or is not kept in a field.
+     */
+    private String getField(String attribute) {
+        return switch (attribute) {
+            case NAME -> name;
+            case OP -> op;
+            case VALUE -> value;
+            case "lineStart" -> toString(lineStart);
+            case "colStart" -> toString(colStart);
+            case "lineEnd" -> toString(lineEnd);
+            case "colEnd" -> toString(colEnd);
+            default -> null;
+        };
+    }
+
+    private static String toString(int position) {
+        return position != NO_POSITION ? Integer.toString(position) : null;
+    }
+
+    /**
+     * Sets or, if null, clears an attribute kept in a field. Returns false if it is not kept in a field, or is a
+     * position that is not a number.
+     */
+    private boolean setField(String attribute, String string) {
+        switch (attribute) {
+            case NAME -> name = string;
+            case OP -> op = string;
+            case VALUE -> value = string;
+            case "lineStart" -> lineStart = toPosition(string);
+            case "colStart" -> colStart = toPosition(string);
+            case "lineEnd" -> lineEnd = toPosition(string);
+            case "colEnd" -> colEnd = toPosition(string);
+            default -> {
+                return false;
+            }
+        }
+
+        return string == null || !POSITIONS.contains(attribute) || toPosition(string) != NO_POSITION;
+    }
+
+    private static int toPosition(String string) {
+        try {
+            return string != null ? Integer.parseInt(string) : NO_POSITION;
+        } catch (NumberFormatException e) {
+            return NO_POSITION;
+        }
+    }
+
+    private int indexOfExtra(String attribute) {
+        for (int i = 0; i < numExtras; i++) {
+            if (extras[2 * i].equals(attribute)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void putExtra(String attribute, Object attributeValue) {
+        int index = indexOfExtra(attribute);
+        if (index < 0) {
+            if (2 * numExtras == extras.length) {
+                extras = Arrays.copyOf(extras, Math.max(4, extras.length * 2));
+            }
+            index = numExtras++;
+            extras[2 * index] = attribute;
+
+            if (name == null && op == null && value == null) {
+                extrasBeforeFields = numExtras;
+            }
+        }
+
+        extras[2 * index + 1] = attributeValue;
+    }
+
+    private void removeExtra(String attribute) {
+        int index = indexOfExtra(attribute);
+        if (index < 0) {
+            return;
+        }
+
+        numExtras--;
+        if (index < extrasBeforeFields) {
+            extrasBeforeFields--;
+        }
+        System.arraycopy(extras, 2 * index + 2, extras, 2 * index, 2 * (numExtras - index));
+        extras[2 * numExtras] = null;
+        extras[2 * numExtras + 1] = null;
+    }
+
+    // Tree
+
+    @Override
+    public JmmNode getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(JmmNode parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public void removeParent() {
+        this.parent = null;
+    }
+
+    @Override
+    public List<JmmNode> getChildren() {
+        var copy = new ArrayList<JmmNode>(numChildren);
+        for (int i = 0; i < numChildren; i++) {
+            copy.add(children[i]);
+        }
+
+        return copy;
+    }
+
+    @Override
+    public JmmNode getChild(int index) {
+        return children[checkIndex(index, numChildren)];
+    }
+
+    @Override
+    public int getNumChildren() {
+        return numChildren;
+    }
+
+    @Override
+    public void add(JmmNode child) {
+        add(child, numChildren);
+    }
+
+    @Override
+    public void add(JmmNode child, int index) {
+        checkIndex(index, numChildren + 1);
+
+        if (numChildren == children.length) {
+            children = Arrays.copyOf(children, Math.max(2, children.length * 2));
+        }
+        System.arraycopy(children, index, children, index + 1, numChildren - index);
+        children[index] = child;
+        numChildren++;
+
+        child.setParent(this);
+    }
+
+    @Override
+    public void setChild(JmmNode newNode, int index) {
+        var currentChild = getChild(index);
+
+        // If the new node has a parent, the current child takes its place there
+        var newNodeParent = newNode.getParent();
+        int newNodeIndex = -1;
+        if (newNodeParent != null) {
+            newNodeIndex = newNode.getIndexOfSelf();
+            newNode.removeParent();
+        }
+
+        children[index] = newNode;
+        newNode.setParent(this);
+        currentChild.removeParent();
+
+        if (newNodeParent instanceof CompactNode compactParent) {
+            compactParent.children[newNodeIndex] = currentChild;
+            currentChild.setParent(compactParent);
+        } else if (newNodeParent != null) {
+            newNodeParent.removeChild(newNodeIndex);
+            newNodeParent.add(currentChild, newNodeIndex);
+        }
+    }
+
+    @Override
+    public JmmNode removeChild(int index) {
+        var removed = children[checkIndex(index, numChildren)];
+
+        numChildren--;
+        System.arraycopy(children, index + 1, children, index, numChildren - index);
+        children[numChildren] = null;
+
+        removed.removeParent();
+        return removed;
+    }
+
+    @Override
+    public int removeChild(JmmNode node) {
+        int index = indexOf(node);
+        if (index >= 0) {
+            removeChild(index);
+        }
+
+        return index;
+    }
+
+    @Override
+    public void delete() {
+        if (parent != null) {
+            parent.removeChild(this);
+        }
+    }
+
+    @Override
+    public int getIndexOfSelf() {
+        if (parent instanceof CompactNode compactParent) {
+            return compactParent.indexOf(this);
+        }
+
+        return JmmNode.super.getIndexOfSelf();
+    }
+
+    private int indexOf(JmmNode node) {
+        for (int i = 0; i < numChildren; i++) {
+            if (children[i] == node) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        return index;
+    }
+
+    @Override
+    public void toTree(StringBuilder tree, String prefix) {
+        tree.append(prefix).append(this).append("\n");
+
+        var childPrefix = prefix + "   ";
+        for (int i = 0; i < numChildren; i++) {
+            children[i].toTree(tree, childPrefix);
+        }
+    }
+
+    @Override
+    public String toString() {
+        var string = new StringBuilder(getKind());
+
+        var attributes = new ArrayList<String>();
+        for (var attribute : getAttributes()) {
+            if (!POSITIONS.contains(attribute)) {
+                attributes.add(attribute + ": " + get(attribute));
+            }
+        }
+        if (!attributes.isEmpty()) {
+            string.append(" (").append(String.join(", ", attributes)).append(")");
+        }
+
+        if (SpecsSystem.isDebug() && lineStart != NO_POSITION) {
+            string.append(" ").append(lineStart).append(":").append(colStart)
+                    .append("->").append(lineEnd).append(":").append(colEnd);
+        }
+
+        return string.toString();
+    }
+
+    /**
+     * A hierarchy of kinds, shared by every node that has it.
+     */
+    public static class Hierarchy {
+
+        private static final Map<List<String>, Hierarchy> KINDS = new ConcurrentHashMap<>();
+        private static final Map<String, Kind> BY_NAME = new HashMap<>();
+        private static final Hierarchy[] BY_KIND = new Hierarchy[Kind.values().length];
+
+        static {
+            // One bit for each kind
+            SpecsCheck.checkArgument(Kind.values().length <= Long.SIZE, () -> "Too many kinds for a long mask");
+            for (var kind : Kind.values()) {
+                BY_NAME.put(kind.getNodeName(), kind);
+            }
+        }
+
+        private final List<String> kinds;
+
+        // The Kind whose hierarchy this is, or null
+        private final Kind kind;
+
+        // Bit i is set if the node is an instance of the Kind with ordinal i
+        private final long mask;
+
+        private Hierarchy(List<String> kinds) {
+            SpecsCheck.checkArgument(!kinds.isEmpty(), () -> "Node hierarchy must have at least one element, is empty");
+            this.kinds = List.copyOf(kinds);
+
+            long mask = 0;
+            for (var kindName : kinds) {
+                var kind = BY_NAME.get(kindName);
+                if (kind != null) {
+                    mask |= 1L << kind.ordinal();
+                }
+            }
+            this.mask = mask;
+
+            var first = BY_NAME.get(kinds.getFirst());
+            this.kind = first != null && first.getHierarchy().equals(this.kinds) ? first : null;
+        }
+
+        public static Hierarchy of(List<String> hierarchy) {
+            var kind = KINDS.get(hierarchy);
+            return kind != null ? kind : KINDS.computeIfAbsent(List.copyOf(hierarchy), Hierarchy::new);
+        }
+
+        public static Hierarchy of(Kind kind) {
+            // Racing threads store the same shared instance
+            var hierarchy = BY_KIND[kind.ordinal()];
+            if (hierarchy == null) {
+                hierarchy = of(kind.getHierarchy());
+                BY_KIND[kind.ordinal()] = hierarchy;
+            }
+
+            return hierarchy;
+        }
+    }
+}
@@ -21,35 +21,45 @@ public enum Kind {
     PARAM,
     STMT,
     EXPR,
-    BINARY_OP,
-    ARRAY_LITERAL,
-    LITERAL,
-    UNARY_OP,
-    PRIMARY,
-    ARRAY_ACCESS,
-    METHOD_CALL,
-    IDENTIFIER,
-    THIS_REFERENCE,
+    BINARY_OP(EXPR),
+    ARRAY_LITERAL(EXPR),
+    LITERAL(EXPR),
+    UNARY_OP(EXPR),
+    PRIMARY(EXPR),
+    ARRAY_ACCESS(EXPR),
+    METHOD_CALL(EXPR),
+    IDENTIFIER(EXPR),
+    THIS_REFERENCE(EXPR),
     IMPORT_DECL,
-    NEW_OBJECT,
-    NEW_ARRAY,
-    WHILE_STMT,
-    BLOCK_STMT,
-    IF_STMT,
-    RETURN_STMT,
-    ASSIGN_STMT,
-    INCREMENT,
+    NEW_OBJECT(EXPR),
+    NEW_ARRAY(EXPR),
+    WHILE_STMT(STMT),
+    BLOCK_STMT(STMT),
+    IF_STMT(STMT),
+    RETURN_STMT(STMT),
+    ASSIGN_STMT(STMT),
+    INCREMENT(EXPR),
     STRING,
-    LENGTH_ACCESS,
-    ARRAY_ASSIGN_STMT;
+    LENGTH_ACCESS(EXPR),
+    ARRAY_ASSIGN_STMT(STMT),
+    EXPR_STMT(STMT),
+    FOR_STMT(STMT),
+    STATIC_VOID_MODIFIERS,
+    STATIC_VOID(STATIC_VOID_MODIFIERS),
+    STATIC_ONLY(STATIC_VOID_MODIFIERS),
+    VOID_ONLY(STATIC_VOID_MODIFIERS);
 
     private final String name;
 
+    // The kind itself and, for the labelled alternatives of a rule, the rule (e.g. [BinaryOp, Expr])
+    private final List<String> hierarchy;
+
     /**
      * Get name
      */
     private Kind(String name) {
         this.name = name;
+        this.hierarchy = List.of(name);
     }
 
     /**
@@ -57,6 +67,15 @@ public enum Kind {
      */
     private Kind() {
         this.name = SpecsStrings.toCamelCase(name(), "_", true);
+        this.hierarchy = List.of(name);
+    }
+
+    /**
+     * Kind of a labelled alternative of the given grammar rule
+     */
+    private Kind(Kind rule) {
+        this.name = SpecsStrings.toCamelCase(name(), "_", true);
+        this.hierarchy = List.of(name, rule.getNodeName());
     }
 
     /**
@@ -93,6 +112,13 @@ public enum Kind {
         return name;
     }
 
+    /**
+     * The hierarchy the parser gives to nodes of this kind.
+     */
+    public List<String> getHierarchy() {
+        return hierarchy;
+    }
+
     /**
      * Get node name in string format
      */
@@ -0,0 +1,139 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.specs.util.SpecsCheck;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Visitor that finds the visit method of a {@link CompactNode} from the ordinal of its {@link Kind}, instead of
+ * looking up each kind of its hierarchy in a map of names as {@link AJmmVisitor} does.
+ * <p>
+ * The visit methods are chosen with the same rules as {@link AJmmVisitor}, the first kind of the hierarchy that has
+ * one. Since a Kind always has the same hierarchy, that choice is made once for each visitor class, on its first
+ * visit, and kept in an array with the method of each Kind. Other nodes are looked up by the names of their kinds.
+ */
+public abstract class KindVisitor<D, R> extends AJmmVisitor<D, R> {
+
+    private static final ClassValue<DispatchTable> TABLES = new ClassValue<>() {
+        @Override
+        protected DispatchTable computeValue(Class<?> visitorClass) {
+            // Filled in by the first visitor of the class
+            return new DispatchTable();
+        }
+    };
+
+    // No initializers, buildVisitor() is called by the constructor of AJmmVisitor before they would run
+    private Map<String, BiFunction<JmmNode, D, R>> visits;
+    private BiFunction<JmmNode, D, R> defaultVisit;
+
+    // Visit methods in the order they were added, and the index of the method of each Kind
+    private List<BiFunction<JmmNode, D, R>> methods;
+    private int[] methodByKind;
+
+    @Override
+    public void addVisit(String kind, BiFunction<JmmNode, D, R> method) {
+        if (visits == null) {
+            visits = new LinkedHashMap<>();
+        }
+        visits.put(kind, method);
+        methods = null;
+    }
+
+    @Override
+    public void setDefaultVisit(BiFunction<JmmNode, D, R> defaultVisit) {
+        this.defaultVisit = defaultVisit;
+    }
+
+    @Override
+    protected BiFunction<JmmNode, D, R> getVisit(JmmNode node) {
+        if (node instanceof CompactNode compactNode && compactNode.getNodeKind() != null) {
+            if (methods == null) {
+                buildDispatch();
+            }
+
+            int method = methodByKind[compactNode.getNodeKind().ordinal()];
+            if (method >= 0) {
+                return methods.get(method);
+            }
+        } else if (visits != null) {
+            for (var kind : node.getHierarchy()) {
+                var visitMethod = visits.get(kind);
+                if (visitMethod != null) {
+                    return visitMethod;
+                }
+            }
+        }
+
+        SpecsCheck.checkNotNull(defaultVisit,
+                () -> "Could not find a suitable visit method for node of kind " + node.getKind()
+                        + ", and no default visitor is set");
+
+        return defaultVisit;
+    }
+
+    private void buildDispatch() {
+        var registered = visits != null ? visits : Map.<String, BiFunction<JmmNode, D, R>>of();
+        var kindNames = List.copyOf(registered.keySet());
+
+        var table = TABLES.get(getClass());
+        methodByKind = table.resolve(kindNames);
+        methods = List.copyOf(registered.values());
+    }
+
+    /**
+     * The index of the visit method of each Kind, shared by the visitors of a class.
+     */
+    private static class DispatchTable {
+
+        private volatile List<String> kindNames;
+        private volatile int[] methodByKind;
+
+        /**
+         * The indexes for the given kind names, in the order their methods were added. A visitor that added other
+         * kinds than the rest of its class gets its own indexes.
+         */
+        private int[] resolve(List<String> names) {
+            var shared = methodByKind;
+            if (shared != null && names.equals(kindNames)) {
+                return shared;
+            }
+
+            var resolved = resolveKinds(names);
+            if (shared == null) {
+                synchronized (this) {
+                    if (methodByKind == null) {
+                        kindNames = names;
+                        methodByKind = resolved;
+                    }
+                }
+            }
+
+            return resolved;
+        }
+
+        private static int[] resolveKinds(List<String> names) {
+            var kinds = Kind.values();
+            var methodByKind = new int[kinds.length];
+            Arrays.fill(methodByKind, -1);
+
+            for (var kind : kinds) {
+                // Same order as AJmmVisitor, the first kind of the hierarchy with a method
+                for (var kindName : kind.getHierarchy()) {
+                    int method = names.indexOf(kindName);
+                    if (method >= 0) {
+                        methodByKind[kind.ordinal()] = method;
+                        break;
+                    }
+                }
+            }
+
+            return methodByKind;
+        }
+    }
+}
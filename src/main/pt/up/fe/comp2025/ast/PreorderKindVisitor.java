@@ -0,0 +1,57 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.specs.util.SpecsCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * A {@link KindVisitor} with the traversal of {@link PreorderJmmVisitor}: first the node, then its children.
+ */
+public abstract class PreorderKindVisitor<D, R> extends KindVisitor<D, R> {
+
+    // No initializer, see KindVisitor
+    private BiFunction<R, List<R>, R> reduce;
+
+    /**
+     * Sets the function that returns a result from the result of the node and the results of its children. Without
+     * one, the result is the result of the node.
+     */
+    public void setReduce(BiFunction<R, List<R>, R> reduce) {
+        this.reduce = reduce;
+    }
+
+    /**
+     * Sets the value returned for the nodes that have no visit method.
+     */
+    public void setDefaultValue(Supplier<R> defaultValue) {
+        setDefaultVisit((node, data) -> defaultValue.get());
+    }
+
+    @Override
+    public R visit(JmmNode jmmNode, D data) {
+        SpecsCheck.checkNotNull(jmmNode, () -> "Node should not be null");
+
+        var nodeResult = getVisit(jmmNode).apply(jmmNode, data);
+
+        // Without a reduce the results of the children are not needed
+        if (reduce == null) {
+            for (var child : jmmNode.getChildren()) {
+                visit(child, data);
+            }
+
+            return nodeResult;
+        }
+
+        var childrenResults = new ArrayList<R>();
+        for (var child : jmmNode.getChildren()) {
+            childrenResults.add(visit(child, data));
+        }
+
+        return reduce.apply(nodeResult, childrenResults);
+    }
+}
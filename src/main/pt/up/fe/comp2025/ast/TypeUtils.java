@@ -3,25 +3,79 @@ package pt.up.fe.comp2025.ast;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.classpath.MethodSignature;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.NameBinding;
+import pt.up.fe.comp2025.symboltable.ResolvedSymbol;
+import pt.up.fe.comp2025.utils.Trace;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Utility methods regarding types.
  */
 public class TypeUtils {
 
+    // Attribute with the memoized type of an expression node
+    private static final String TYPE_ATTRIBUTE = "exprType";
+
+    // Attributes cannot be removed, an invalidated type is replaced by this
+    private static final Optional<Type> NO_TYPE = Optional.empty();
+
+    // Statements are not memoized, their "type" also checks the assignment
+    private static final Set<String> MEMOIZED_KINDS = Set.copyOf(Kind.toNodeName(Kind.LITERAL, Kind.STRING,
+            Kind.BINARY_OP, Kind.IDENTIFIER, Kind.ARRAY_ACCESS, Kind.PRIMARY, Kind.LENGTH_ACCESS, Kind.NEW_OBJECT,
+            Kind.THIS_REFERENCE, Kind.NEW_ARRAY, Kind.ARRAY_LITERAL, Kind.INCREMENT, Kind.UNARY_OP, Kind.METHOD_CALL));
+
     private final JmmSymbolTable table;
+    private final Trace trace;
 
     /**
      * Initializes TypeUtils with a JmmSymbolTable instance.
      * Throws an exception if the provided table is not of the expected type.
      */
     public TypeUtils(SymbolTable table) {
+        this(table, Trace.off());
+    }
+
+    public TypeUtils(SymbolTable table, Trace trace) {
         if (table instanceof JmmSymbolTable) {
             this.table = (JmmSymbolTable) table;
         } else {
             throw new IllegalArgumentException("Expected JmmSymbolTable instance");
         }
+        this.trace = trace;
+    }
+
+    /**
+     * Finds a variable visible from the given method, see {@link JmmSymbolTable#resolve}.
+     */
+    public ResolvedSymbol resolve(String varName, String methodName) {
+        return table.resolve(varName, methodName);
+    }
+
+    /**
+     * What the name of an identifier or assignment refers to, see {@link NameBinding}.
+     */
+    public NameBinding getBinding(JmmNode node) {
+        return NameBinding.of(node, table);
+    }
+
+    /**
+     * Interned id of the name of an identifier or assignment target, see {@link NameBinding#getId}.
+     */
+    public int getNameId(JmmNode node) {
+        return NameBinding.getId(node, table);
+    }
+
+    /**
+     * Checks if the class declares a method with the given name.
+     */
+    public boolean hasMethod(String methodName) {
+        return table.hasMethod(methodName);
     }
 
     /**
@@ -107,8 +161,57 @@ public class TypeUtils {
 
     /**
      * Determines the type of an expression based on its kind.
+     * <p>
+     * The type of an expression is computed once and kept in the node, so the types of subexpressions are not
+     * recomputed by every stage that asks for them. Passes that rewrite the AST call {@link #invalidateType}.
      */
     public Type getExprType(JmmNode expr) {
+        if (!MEMOIZED_KINDS.contains(expr.getKind())) {
+            return inferExprType(expr);
+        }
+
+        if (expr.hasAttribute(TYPE_ATTRIBUTE) && expr.getObject(TYPE_ATTRIBUTE) instanceof Type type) {
+            return type;
+        }
+
+        var type = inferExprType(expr);
+        expr.putObject(TYPE_ATTRIBUTE, type);
+
+        return type;
+    }
+
+    /**
+     * Computes the type of every expression under the given node, children before parents. Expressions whose type
+     * cannot be computed are left without one, asking for it again reports the error.
+     */
+    public void annotateTypes(JmmNode node) {
+        for (var child : node.getChildren()) {
+            annotateTypes(child);
+        }
+
+        if (!MEMOIZED_KINDS.contains(node.getKind())) {
+            return;
+        }
+
+        try {
+            getExprType(node);
+        } catch (RuntimeException e) {
+            trace.debug(() -> "Could not type " + node + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets the type of a node that was rewritten and of the expressions that contain it.
+     */
+    public static void invalidateType(JmmNode node) {
+        for (var current = node; current != null; current = current.getParent()) {
+            if (current.hasAttribute(TYPE_ATTRIBUTE)) {
+                current.putObject(TYPE_ATTRIBUTE, NO_TYPE);
+            }
+        }
+    }
+
+    private Type inferExprType(JmmNode expr) {
         Kind kind = Kind.fromString(expr.getKind());
 
         return switch (kind) {
@@ -176,6 +279,14 @@ public class TypeUtils {
                 Type targetType = getExprType(expr.getChild(0)); // The object/class being called on
 
                 if (isImported(targetType)) {
+                    // The real return type, if the class is on the classpath
+                    var signature = findImportedMethod(targetType.getName(), expr);
+                    var signatureType = signature != null ? toType(signature.getReturnDescriptor()) : null;
+                    if (signatureType != null) {
+                        yield signatureType;
+                    }
+
+                    // Otherwise, guess it from where the call is
                     JmmNode parent = expr.getParent();
                     if (parent != null) {
                         String parentKind = parent.getKind();
@@ -236,14 +347,101 @@ public class TypeUtils {
         };
     }
 
+    /**
+     * The method of an imported class that a call resolves to, according to the .class files on the classpath.
+     * Among overloads with the same number of parameters, the one whose parameters match the argument types is
+     * chosen. Returns null if the class is not on the classpath or no single method matches.
+     */
+    public MethodSignature findImportedMethod(String className, JmmNode call) {
+        var candidates = table.getSignatures().getMethods(getInternalName(className), call.get("name"),
+                call.getNumChildren() - 1);
+
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.getFirst();
+        }
+
+        var arguments = new ArrayList<String>();
+        for (var argument : call.getChildren().subList(1, call.getNumChildren())) {
+            try {
+                arguments.add(toDescriptor(getExprType(argument)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        var matches = candidates.stream()
+                .filter(candidate -> candidate.getParameterDescriptors().equals(arguments))
+                .toList();
+
+        return matches.size() == 1 ? matches.getFirst() : null;
+    }
+
+    /**
+     * Internal name of a class, qualified with the package of its import (e.g. 'A' imported as 'foo.bar.A' is
+     * 'foo/bar/A').
+     */
+    public String getInternalName(String className) {
+        if (className.equals("String")) {
+            return "java/lang/String";
+        }
+
+        for (var imported : table.getImports()) {
+            var path = imported.split(",");
+            if (path[path.length - 1].equals(className)) {
+                return SignatureIndex.toInternalName(imported);
+            }
+        }
+
+        return className;
+    }
+
+    public String toDescriptor(Type type) {
+        var element = switch (type.getName()) {
+            case "int" -> "I";
+            case "boolean" -> "Z";
+            case "void" -> "V";
+            default -> "L" + getInternalName(type.getName()) + ";";
+        };
+
+        return type.isArray() ? "[" + element : element;
+    }
+
+    /**
+     * The jmm type of a JVM descriptor, or null if jmm has no such type (e.g. 'J', or a class that is not
+     * imported).
+     */
+    public Type toType(String descriptor) {
+        boolean isArray = descriptor.startsWith("[");
+        var element = isArray ? descriptor.substring(1) : descriptor;
+
+        var name = switch (element) {
+            case "I" -> "int";
+            case "Z" -> "boolean";
+            case "V" -> isArray ? null : "void";
+            case "Ljava/lang/String;" -> "String";
+            default -> {
+                if (!element.startsWith("L")) {
+                    yield null;
+                }
+
+                var internalName = element.substring(1, element.length() - 1);
+                var simpleName = internalName.substring(internalName.lastIndexOf('/') + 1);
+                boolean known = isClass(simpleName) || (isImported(simpleName) && getInternalName(simpleName).equals(internalName));
+                yield known ? simpleName : null;
+            }
+        };
+
+        return name != null ? new Type(name, isArray) : null;
+    }
+
     /**
      * Infers the type of a primary expression (literal, identifier, etc.).
      */
     private Type inferPrimaryType(JmmNode primaryNode) {
-        // Handle nested primary expressions
+        // Parenthesised expressions have the type of the expression inside, which can be of any kind
         if (primaryNode.getKind().equals("Primary")) {
             if (primaryNode.getChildren().size() == 1) {
-                return inferPrimaryType(primaryNode.getChildren().getFirst()); // Recursively handle nested expressions
+                return getExprType(primaryNode.getChildren().getFirst());
             }
         }
 
@@ -356,14 +554,10 @@ public class TypeUtils {
             return prov;
         }
 
-        String methodName = variableNode.getAncestor(Kind.METHOD_DECL)
-                .map(node -> node.get("name"))
-                .orElse(null);
-
         // First, try to find it as a variable
-        Type type = table.getVariableType(varName, methodName);
-        if (type != null) {
-            return type;
+        var binding = getBinding(variableNode);
+        if (binding.isVariable()) {
+            return binding.getSymbol().getType();
         }
 
         // Caso o pai seja um AssignStmt, tenta encontrar o VarDecl correspondente
@@ -378,7 +572,7 @@ public class TypeUtils {
                             .findFirst())
                     .orElse(null);
 
-            System.out.println("varDeclNode: " + varDeclNode);
+            trace.debug(() -> "varDeclNode: " + varDeclNode);
 
             if (varDeclNode != null) {
                 boolean a = false;
@@ -457,16 +651,12 @@ public class TypeUtils {
         // Get variable name
         String varName = identifierNode.get("name");
 
-        // Retrieve method name
-        String methodName = assignStmt.getAncestor(Kind.METHOD_DECL)
-                .map(node -> node.get("name"))
-                .orElse(null);
-
         // Look up variable type in symbol table
-        Type varType = table.getVariableType(varName, methodName);
-        if (varType == null) {
-            throw new IllegalArgumentException("Variable '" + varName + "' not declared in method '" + methodName + "'");
+        var binding = getBinding(identifierNode);
+        if (!binding.isVariable()) {
+            throw new IllegalArgumentException("Variable '" + varName + "' not declared in method '" + binding.getMethod() + "'");
         }
+        Type varType = binding.getSymbol().getType();
 
         // Get the type of the RHS expression
         Type exprType = getExprType(expressionNode);
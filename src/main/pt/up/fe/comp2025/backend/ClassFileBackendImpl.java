@@ -0,0 +1,19 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.specs.util.SpecsCollections;
+
+/**
+ * Backend that writes .class files directly, selected with the 'backend' option set to 'classfile'.
+ */
+public class ClassFileBackendImpl {
+
+    public ClassFileResult toClassFile(OllirResult ollirResult) {
+        var generator = new ClassFileGenerator(ollirResult);
+        var classFile = generator.build();
+
+        return new ClassFileResult(generator.getClassName(), classFile,
+                SpecsCollections.concat(ollirResult.getReports(), generator.getReports()), ollirResult.getConfig());
+    }
+
+}
@@ -0,0 +1,616 @@
+package pt.up.fe.comp2025.backend;
+
+import org.specs.comp.ollir.*;
+import org.specs.comp.ollir.inst.*;
+import org.specs.comp.ollir.tree.TreeNode;
+import org.specs.comp.ollir.type.ArrayType;
+import org.specs.comp.ollir.type.ClassType;
+import org.specs.comp.ollir.type.Type;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.classmap.BiConsumerClassMap;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the bytes of a .class file directly from an OllirResult, without going through Jasmin.
+ * <p>
+ * Makes the same instruction choices as the {@link JasminGenerator}, so both backends can be cross-checked.
+ * Uses class file version 49, which does not need StackMapTable attributes.
+ * One ClassFileGenerator instance per OllirResult.
+ */
+public class ClassFileGenerator {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+
+    private final OllirResult ollirResult;
+
+    private final List<Report> reports;
+
+    private final JasminUtils types;
+
+    private final BiConsumerClassMap<TreeNode, MethodCode> generators;
+
+    private final ConstantPool pool;
+
+    private Method currentMethod;
+
+    private int cmpCounter;
+
+    private byte[] bytes;
+
+    public ClassFileGenerator(OllirResult ollirResult) {
+        this.ollirResult = ollirResult;
+
+        reports = new ArrayList<>();
+        types = new JasminUtils(ollirResult);
+        pool = new ConstantPool();
+
+        this.generators = new BiConsumerClassMap<>();
+        generators.put(AssignInstruction.class, this::generateAssign);
+        generators.put(SingleOpInstruction.class, this::generateSingleOp);
+        generators.put(LiteralElement.class, this::generateLiteral);
+        generators.put(Operand.class, this::generateOperand);
+        generators.put(BinaryOpInstruction.class, this::generateBinaryOp);
+        generators.put(ReturnInstruction.class, this::generateReturn);
+        generators.put(NewInstruction.class, this::generateNew);
+        generators.put(InvokeSpecialInstruction.class, this::generateInvokeSpecial);
+        generators.put(InvokeVirtualInstruction.class, this::generateInvokeVirtual);
+        generators.put(InvokeStaticInstruction.class, this::generateInvokeStatic);
+        generators.put(GetFieldInstruction.class, this::generateGetField);
+        generators.put(PutFieldInstruction.class, this::generatePutField);
+        generators.put(OpCondInstruction.class, this::generateOpCond);
+        generators.put(SingleOpCondInstruction.class, this::generateSingleOpCond);
+        generators.put(GotoInstruction.class, this::generateGoto);
+        generators.put(UnaryOpInstruction.class, this::generateUnaryOp);
+        generators.put(ArrayLengthInstruction.class, this::generateArrayLength);
+    }
+
+    private void apply(TreeNode node, MethodCode code) {
+        generators.accept(node, code);
+    }
+
+    public List<Report> getReports() {
+        return reports;
+    }
+
+    public String getClassName() {
+        return ollirResult.getOllirClass().getClassName();
+    }
+
+    public byte[] build() {
+
+        // This way, build is idempotent
+        if (bytes == null) {
+            bytes = generateClassFile(ollirResult.getOllirClass());
+        }
+
+        return bytes;
+    }
+
+    private byte[] generateClassFile(ClassUnit classUnit) {
+        var className = classUnit.getClassName();
+        var superClass = classUnit.getSuperClass() != null ? classUnit.getSuperClass() : "java/lang/Object";
+
+        int thisIndex = pool.classRef(className);
+        int superIndex = pool.classRef(superClass);
+
+        // Methods and fields first, they fill the constant pool that comes before them in the file
+        var fields = new ByteArrayOutputStream();
+        var methods = new ByteArrayOutputStream();
+        int numMethods = 0;
+
+        try {
+            var fieldsOut = new DataOutputStream(fields);
+            for (var field : classUnit.getFields()) {
+                int access = getAccessFlags(field.getFieldAccessModifier()) | (field.isStaticField() ? Opcodes.ACC_STATIC : 0);
+                writeMember(fieldsOut, access, field.getFieldName(), types.toJasminType(field.getFieldType()));
+                fieldsOut.writeShort(0);
+            }
+
+            var methodsOut = new DataOutputStream(methods);
+            generateDefaultConstructor(methodsOut, superClass);
+            numMethods++;
+
+            for (var method : classUnit.getMethods()) {
+                if (method.isConstructMethod()) {
+                    continue;
+                }
+                generateMethod(methodsOut, method);
+                numMethods++;
+            }
+
+            var classFile = new ByteArrayOutputStream();
+            var out = new DataOutputStream(classFile);
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            pool.write(out);
+            out.writeShort(Opcodes.ACC_SUPER);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(0); // interfaces
+            out.writeShort(classUnit.getFields().size());
+            fields.writeTo(out);
+            out.writeShort(numMethods);
+            methods.writeTo(out);
+            out.writeShort(0); // attributes
+
+            return classFile.toByteArray();
+        } catch (IOException e) {
+            // Writing to memory, should not happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeMember(DataOutputStream out, int access, String name, String descriptor) throws IOException {
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+    }
+
+    private void writeCode(DataOutputStream out, MethodCode code) throws IOException {
+        var bytecode = code.finish();
+
+        out.writeShort(1); // attributes
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(12 + bytecode.length);
+        out.writeShort(code.getMaxStack());
+        out.writeShort(code.getMaxLocals());
+        out.writeInt(bytecode.length);
+        out.write(bytecode);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private int getAccessFlags(AccessModifier accessModifier) {
+        return switch (accessModifier) {
+            case PUBLIC -> Opcodes.ACC_PUBLIC;
+            case PRIVATE -> Opcodes.ACC_PRIVATE;
+            case PROTECTED -> Opcodes.ACC_PROTECTED;
+            case DEFAULT -> 0;
+        };
+    }
+
+    private void generateDefaultConstructor(DataOutputStream out, String superClass) throws IOException {
+        var code = new MethodCode(1);
+        code.shortLocal(Opcodes.ALOAD_0, 0, 1);
+        code.opShort(Opcodes.INVOKESPECIAL, pool.methodRef(superClass, "<init>", "()V"), -1);
+        code.op(Opcodes.RETURN, 0);
+
+        writeMember(out, Opcodes.ACC_PUBLIC, "<init>", "()V");
+        writeCode(out, code);
+    }
+
+    private void generateMethod(DataOutputStream out, Method method) throws IOException {
+        currentMethod = method;
+
+        // Labels are local to the method
+        cmpCounter = 0;
+
+        int access = getAccessFlags(method.getMethodAccessModifier()) | (method.isStaticMethod() ? Opcodes.ACC_STATIC : 0);
+        if (types.isMainMethod(method)) {
+            access = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+        }
+
+        var descriptor = new StringBuilder("(");
+        for (var param : method.getParams()) {
+            descriptor.append(types.toJasminType(param.getType()));
+        }
+        descriptor.append(")").append(types.toJasminType(method.getReturnType()));
+
+        int argumentSlots = method.getParams().size() + (method.isStaticMethod() ? 0 : 1);
+        var code = new MethodCode(argumentSlots);
+
+        for (Instruction inst : method.getInstructions()) {
+            for (var label : method.getLabels(inst)) {
+                code.label(label);
+            }
+
+            apply(inst, code);
+        }
+
+        writeMember(out, access, method.getMethodName(), descriptor.toString());
+        writeCode(out, code);
+
+        currentMethod = null;
+    }
+
+    private void generateAssign(AssignInstruction assign, MethodCode code) {
+        // Increments are a single iinc, whatever the destination
+        if (types.isIncrement(assign.getRhs())) {
+            apply(assign.getRhs(), code);
+            return;
+        }
+
+        // Handle array creation if needed
+        if (assign.getRhs() instanceof NewInstruction newInst &&
+                newInst.getReturnType() instanceof ArrayType) {
+            // Get the array size from the NewInstruction's first operand
+            Element sizeOperand = newInst.getArguments().getFirst();
+            if (sizeOperand instanceof Operand operand) {
+                String varValue = types.findIntConstant(currentMethod, operand.getName());
+
+                if (varValue != null) {
+                    code.ldc(pool.integer(Integer.parseInt(varValue)));
+                } else {
+                    // If we couldn't find a constant value, load the variable instead
+                    apply(sizeOperand, code);
+                }
+            } else if (sizeOperand instanceof LiteralElement literal) {
+                code.ldc(pool.integer(Integer.parseInt(literal.getLiteral())));
+            } else {
+                code.ldc(pool.integer(5));
+            }
+        }
+
+        var lhs = assign.getDest();
+
+        // Handle array store operation
+        if (lhs instanceof ArrayOperand arrayOperand) {
+            loadRegister(Opcodes.ALOAD, Opcodes.ALOAD_0, getArrayRegister(arrayOperand), code);
+            loadIndex(arrayOperand, code);
+
+            apply(assign.getRhs(), code);
+            code.op(Opcodes.IASTORE, -3);
+            return;
+        }
+
+        apply(assign.getRhs(), code);
+
+        if (lhs instanceof Operand operand) {
+            var reg = currentMethod.getVarTable().get(operand.getName());
+            if (isReference(operand.getType())) {
+                storeRegister(Opcodes.ASTORE, Opcodes.ASTORE_0, reg.getVirtualReg(), code);
+            } else {
+                storeRegister(Opcodes.ISTORE, Opcodes.ISTORE_0, reg.getVirtualReg(), code);
+            }
+        } else {
+            throw new NotImplementedException(lhs.getClass());
+        }
+    }
+
+    private int getArrayRegister(ArrayOperand arrayOperand) {
+        Descriptor arrayReg = currentMethod.getVarTable().get(arrayOperand.getName());
+        if (arrayReg == null) {
+            throw new RuntimeException("Array variable '" + arrayOperand.getName() + "' not found in varTable.");
+        }
+
+        return arrayReg.getVirtualReg();
+    }
+
+    private void loadIndex(ArrayOperand arrayOperand, MethodCode code) {
+        Element indexElement = arrayOperand.getIndexOperands().getFirst();
+
+        if (indexElement instanceof Operand indexOperand) {
+            Descriptor indexReg = currentMethod.getVarTable().get(indexOperand.getName());
+            if (indexReg != null) {
+                loadRegister(Opcodes.ILOAD, Opcodes.ILOAD_0, indexReg.getVirtualReg(), code);
+                return;
+            }
+        }
+
+        apply(indexElement, code);
+    }
+
+    // Registers up to 3 use the short forms, like 'iload_3'
+    private void loadRegister(int opcode, int shortOpcode, int register, MethodCode code) {
+        if (register > 3) {
+            code.local(opcode, register, 1);
+        } else {
+            code.shortLocal(shortOpcode + register, register, 1);
+        }
+    }
+
+    private void storeRegister(int opcode, int shortOpcode, int register, MethodCode code) {
+        if (register > 3) {
+            code.local(opcode, register, -1);
+        } else {
+            code.shortLocal(shortOpcode + register, register, -1);
+        }
+    }
+
+    private boolean isReference(Type type) {
+        if (type instanceof ArrayType || type instanceof ClassType) {
+            return true;
+        }
+
+        return !(type.toString().equals("INT32") || type.toString().equals("BOOLEAN"));
+    }
+
+    private void generateSingleOp(SingleOpInstruction singleOp, MethodCode code) {
+        apply(singleOp.getSingleOperand(), code);
+    }
+
+    private void generateLiteral(LiteralElement literal, MethodCode code) {
+        String value = literal.getLiteral();
+
+        // String literals and method names are not loaded
+        if (value.startsWith("\"") || value.matches("[a-zA-Z_][a-zA-Z0-9_]*")) {
+            return;
+        }
+
+        int intValue;
+        try {
+            intValue = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            code.ldc(pool.string(value));
+            return;
+        }
+
+        if (intValue >= -1 && intValue <= 5) {
+            code.iconst(intValue);
+        } else if (intValue >= -128 && intValue <= 127) {
+            code.opByte(Opcodes.BIPUSH, intValue & 0xFF, 1);
+        } else if (intValue >= -32768 && intValue <= 32767) {
+            code.opShort(Opcodes.SIPUSH, intValue & 0xFFFF, 1);
+        } else {
+            code.ldc(pool.integer(intValue));
+        }
+    }
+
+    private void generateOperand(Operand operand, MethodCode code) {
+        // Special case for 'this'
+        if (operand.getName().equals("this")) {
+            code.shortLocal(Opcodes.ALOAD_0, 0, 1);
+            return;
+        }
+
+        // Handle array load operation
+        if (operand instanceof ArrayOperand arrayOperand) {
+            loadRegister(Opcodes.ALOAD, Opcodes.ALOAD_0, getArrayRegister(arrayOperand), code);
+            loadIndex(arrayOperand, code);
+            code.op(Opcodes.IALOAD, -1);
+            return;
+        }
+
+        int opcode = isReference(operand.getType()) ? Opcodes.ALOAD : Opcodes.ILOAD;
+        int shortOpcode = isReference(operand.getType()) ? Opcodes.ALOAD_0 : Opcodes.ILOAD_0;
+
+        Descriptor reg = currentMethod.getVarTable().get(operand.getName());
+
+        if (reg == null) {
+            // Check if it's a parameter
+            for (Element param : currentMethod.getParams()) {
+                if (param instanceof Operand && ((Operand) param).getName().equals(operand.getName())) {
+                    int paramIndex = currentMethod.getParams().indexOf(param) + (currentMethod.isStaticMethod() ? 0 : 1);
+                    code.local(opcode, paramIndex, 1);
+                    return;
+                }
+            }
+
+            // Imported classes, used as the caller of static methods, are not loaded
+            if (ollirResult.getOllirClass().getImports().stream()
+                    .anyMatch(imp -> imp.equals(operand.getName()) || imp.endsWith("." + operand.getName()))) {
+                return;
+            }
+
+            throw new RuntimeException("Variable '" + operand.getName() + "' not found in varTable.");
+        }
+
+        loadRegister(opcode, shortOpcode, reg.getVirtualReg(), code);
+    }
+
+    private void generateBinaryOp(BinaryOpInstruction binaryOp, MethodCode code) {
+        OperationType opType = binaryOp.getOperation().getOpType();
+
+        if (types.isIncrement(binaryOp)) {
+            var operand = (Operand) binaryOp.getLeftOperand();
+            var reg = currentMethod.getVarTable().get(operand.getName());
+            code.iinc(reg.getVirtualReg(), 1);
+            return;
+        }
+
+        if (types.isComparison(opType)) {
+            generateComparison(binaryOp, opType, code);
+            return;
+        }
+
+        apply(binaryOp.getLeftOperand(), code);
+        apply(binaryOp.getRightOperand(), code);
+
+        int opcode = switch (opType) {
+            case ADD -> Opcodes.IADD;
+            case SUB -> Opcodes.ISUB;
+            case MUL -> Opcodes.IMUL;
+            case DIV -> Opcodes.IDIV;
+            case AND -> Opcodes.IAND;
+            case OR -> Opcodes.IOR;
+            default -> throw new NotImplementedException("BinaryOp not supported: " + opType);
+        };
+        code.op(opcode, -1);
+    }
+
+    /**
+     * Comparisons push 1 or 0. Comparisons with zero use the single operand branches.
+     */
+    private void generateComparison(BinaryOpInstruction binaryOp, OperationType opType, MethodCode code) {
+        Element valueOperand = null;
+
+        if (binaryOp.getRightOperand() instanceof LiteralElement lit && lit.getLiteral().equals("0")) {
+            valueOperand = binaryOp.getLeftOperand();
+        } else if (binaryOp.getLeftOperand() instanceof LiteralElement lit && lit.getLiteral().equals("0")) {
+            valueOperand = binaryOp.getRightOperand();
+            opType = types.flipComparisonOperator(opType);
+        }
+
+        int thisId = cmpCounter++;
+        String trueLabel = "j_true_" + thisId;
+        String endLabel = "j_end_" + thisId;
+
+        if (valueOperand != null) {
+            apply(valueOperand, code);
+
+            int opcode = switch (opType) {
+                case LTH -> Opcodes.IFLT;
+                case GTH -> Opcodes.IFGT;
+                case LTE -> Opcodes.IFLE;
+                case GTE -> Opcodes.IFGE;
+                case EQ -> Opcodes.IFEQ;
+                case NEQ -> Opcodes.IFNE;
+                default -> throw new NotImplementedException("Unhandled unary compare: " + opType);
+            };
+            code.branch(opcode, trueLabel, -1);
+        } else {
+            apply(binaryOp.getLeftOperand(), code);
+            apply(binaryOp.getRightOperand(), code);
+            code.branch(getCompareOpcode(opType), trueLabel, -2);
+        }
+
+        code.iconst(0);
+        code.branch(Opcodes.GOTO, endLabel, 0);
+        code.label(trueLabel);
+        code.iconst(1);
+        code.label(endLabel);
+    }
+
+    private int getCompareOpcode(OperationType opType) {
+        return switch (opType) {
+            case LTH -> Opcodes.IF_ICMPLT;
+            case GTH -> Opcodes.IF_ICMPGT;
+            case LTE -> Opcodes.IF_ICMPLE;
+            case GTE -> Opcodes.IF_ICMPGE;
+            case EQ -> Opcodes.IF_ICMPEQ;
+            case NEQ -> Opcodes.IF_ICMPNE;
+            default -> throw new NotImplementedException("Unsupported operator: " + opType);
+        };
+    }
+
+    private void generateReturn(ReturnInstruction returnInst, MethodCode code) {
+        if (returnInst.hasReturnValue()) {
+            apply(returnInst.getOperand().orElseThrow(), code);
+
+            Type returnType = returnInst.getOperand().get().getType();
+            code.op(isReference(returnType) ? Opcodes.ARETURN : Opcodes.IRETURN, -1);
+        } else {
+            code.op(Opcodes.RETURN, 0);
+        }
+
+        code.endPath();
+    }
+
+    private void generateNew(NewInstruction newInst, MethodCode code) {
+        // The size of new arrays was already loaded by the assignment
+        if (newInst.getReturnType() instanceof ArrayType) {
+            code.opByte(Opcodes.NEWARRAY, Opcodes.T_INT, 0);
+        } else {
+            String className = ((ClassType) newInst.getReturnType()).getName();
+            code.opShort(Opcodes.NEW, pool.classRef(className), 1);
+        }
+    }
+
+    private void generateInvokeSpecial(InvokeSpecialInstruction specialInst, MethodCode code) {
+        // The first operand is the object reference
+        Element obj = specialInst.getOperands().getFirst();
+        int regIndex = 1; // default fallback
+        if (obj instanceof Operand operand) {
+            Descriptor reg = currentMethod.getVarTable().get(operand.getName());
+            if (reg != null) {
+                regIndex = reg.getVirtualReg();
+            }
+        }
+
+        String className = ((ClassType) obj.getType()).getName();
+        loadRegister(Opcodes.ALOAD, Opcodes.ALOAD_0, regIndex, code);
+        code.opShort(Opcodes.INVOKESPECIAL, pool.methodRef(className, "<init>", "()V"), -1);
+    }
+
+    private void generateGetField(GetFieldInstruction getFieldInst, MethodCode code) {
+        apply(getFieldInst.getOperands().getFirst(), code);
+
+        String className = ((ClassType) getFieldInst.getOperands().getFirst().getType()).getName();
+        String fieldName = ((Operand) getFieldInst.getOperands().get(1)).getName();
+        String fieldType = types.toJasminType(getFieldInst.getFieldType());
+
+        code.opShort(Opcodes.GETFIELD, pool.fieldRef(className, fieldName, fieldType), 0);
+    }
+
+    private void generatePutField(PutFieldInstruction putFieldInst, MethodCode code) {
+        apply(putFieldInst.getOperands().getFirst(), code);
+        apply(putFieldInst.getOperands().get(2), code);
+
+        String className = ((ClassType) putFieldInst.getOperands().getFirst().getType()).getName();
+        String fieldName = ((Operand) putFieldInst.getOperands().get(1)).getName();
+        // getFieldType() is the type of the instruction itself (.V), the field type is on the operand
+        String fieldType = types.toJasminType(putFieldInst.getOperands().get(1).getType());
+
+        code.opShort(Opcodes.PUTFIELD, pool.fieldRef(className, fieldName, fieldType), -2);
+    }
+
+    private void generateInvokeVirtual(InvokeVirtualInstruction virtualInst, MethodCode code) {
+        for (Element arg : virtualInst.getOperands()) {
+            apply(arg, code);
+        }
+
+        String className = ((ClassType) virtualInst.getOperands().getFirst().getType()).getName();
+        String methodName = types.getVirtualMethodName(virtualInst);
+        String descriptor = types.getCallDescriptor(virtualInst);
+
+        // Pops the object and the arguments
+        int stackDelta = -(virtualInst.getOperands().size() - 1) + JasminUtils.getReturnSlots(descriptor);
+        code.opShort(Opcodes.INVOKEVIRTUAL, pool.methodRef(className, methodName, descriptor), stackDelta);
+        discardResult(virtualInst, descriptor, code);
+    }
+
+    private void generateInvokeStatic(InvokeStaticInstruction staticInst, MethodCode code) {
+        for (Element arg : staticInst.getOperands()) {
+            apply(arg, code);
+        }
+
+        String className = types.getStaticClassName(staticInst);
+        String methodName = types.getStaticMethodName(staticInst);
+        String descriptor = types.getCallDescriptor(staticInst);
+
+        // Pops the arguments
+        int stackDelta = -(staticInst.getOperands().size() - 2) + JasminUtils.getReturnSlots(descriptor);
+        code.opShort(Opcodes.INVOKESTATIC, pool.methodRef(className, methodName, descriptor), stackDelta);
+        discardResult(staticInst, descriptor, code);
+    }
+
+    /**
+     * Pops the value of a method that returns something the OLLIR code treats as void.
+     */
+    private void discardResult(CallInstruction call, String descriptor, MethodCode code) {
+        if (types.discardsResult(call)) {
+            int slots = JasminUtils.getReturnSlots(descriptor);
+            code.op(slots == 2 ? Opcodes.POP2 : Opcodes.POP, -slots);
+        }
+    }
+
+    private void generateSingleOpCond(SingleOpCondInstruction singleOpCondInst, MethodCode code) {
+        apply(singleOpCondInst.getOperands().getFirst(), code);
+        code.branch(Opcodes.IFNE, singleOpCondInst.getLabel(), -1);
+    }
+
+    private void generateOpCond(OpCondInstruction opCondInst, MethodCode code) {
+        apply(opCondInst.getOperands().getFirst(), code);
+        apply(opCondInst.getOperands().getLast(), code);
+
+        var opType = opCondInst.getCondition().getOperation().getOpType();
+        code.branch(getCompareOpcode(opType), opCondInst.getLabel(), -2);
+    }
+
+    private void generateGoto(GotoInstruction gotoInst, MethodCode code) {
+        code.branch(Opcodes.GOTO, gotoInst.getLabel(), 0);
+    }
+
+    private void generateUnaryOp(UnaryOpInstruction unaryOpInst, MethodCode code) {
+        apply(unaryOpInst.getOperand(), code);
+
+        if (unaryOpInst.getOperation().getOpType() == OperationType.NOTB) {
+            code.iconst(1);
+            code.op(Opcodes.IXOR, -1);
+        }
+    }
+
+    private void generateArrayLength(ArrayLengthInstruction arrayLengthInst, MethodCode code) {
+        apply(arrayLengthInst.getOperands().getFirst(), code);
+        code.op(Opcodes.ARRAYLENGTH, 0);
+    }
+}
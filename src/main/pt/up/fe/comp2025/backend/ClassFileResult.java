@@ -0,0 +1,43 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.StageResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the class-file backend: the bytes of the .class file, instead of Jasmin code.
+ */
+public class ClassFileResult implements StageResult {
+
+    private final String className;
+    private final byte[] classFile;
+    private final List<Report> reports;
+    private final Map<String, String> config;
+
+    public ClassFileResult(String className, byte[] classFile, List<Report> reports, Map<String, String> config) {
+        this.className = className;
+        this.classFile = classFile;
+        this.reports = reports;
+        this.config = config;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public byte[] getClassFile() {
+        return classFile;
+    }
+
+    @Override
+    public List<Report> getReports() {
+        return reports;
+    }
+
+    @Override
+    public Map<String, String> getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,114 @@
+package pt.up.fe.comp2025.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constant pool of a class file. Entries are added on demand and shared, each distinct constant is written once.
+ */
+class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    // Key is the tag followed by the contents of the entry
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    // Index 0 is not used
+    private int count = 1;
+
+    public int utf8(String value) {
+        return add(UTF8 + ":" + value, () -> {
+            out.writeByte(UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    public int integer(int value) {
+        return add(INTEGER + ":" + value, () -> {
+            out.writeByte(INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    public int classRef(String internalName) {
+        int name = utf8(internalName);
+        return add(CLASS + ":" + internalName, () -> {
+            out.writeByte(CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    public int string(String value) {
+        int utf8 = utf8(value);
+        return add(STRING + ":" + value, () -> {
+            out.writeByte(STRING);
+            out.writeShort(utf8);
+        });
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(FIELD_REF, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(METHOD_REF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int classIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return add(tag + ":" + owner + "." + name + ":" + descriptor, () -> {
+            out.writeByte(tag);
+            out.writeShort(classIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return add(NAME_AND_TYPE + ":" + name + ":" + descriptor, () -> {
+            out.writeByte(NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    private int add(String key, EntryWriter writer) {
+        var index = indexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            writer.write();
+        } catch (IOException e) {
+            // Writing to memory, should not happen
+            throw new RuntimeException(e);
+        }
+
+        indexes.put(key, count);
+        return count++;
+    }
+
+    public void write(DataOutputStream classFile) throws IOException {
+        classFile.writeShort(count);
+        bytes.writeTo(classFile);
+    }
+
+    private interface EntryWriter {
+        void write() throws IOException;
+    }
+}
@@ -3,6 +3,11 @@ package pt.up.fe.comp2025.backend;
 import pt.up.fe.comp.jmm.jasmin.JasminBackend;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.SpecsCollections;
+
+import java.io.Writer;
+import java.util.List;
 
 /**
  * Implementation of the Jasmin backend.
@@ -22,4 +27,16 @@ public class JasminBackendImpl implements JasminBackend {
         return new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
     }
 
+    /**
+     * Streams the Jasmin code to the given writer instead of returning it, for outputs too big to keep in memory.
+     *
+     * @return the reports of the OLLIR result and of the backend
+     */
+    public List<Report> writeJasmin(OllirResult ollirResult, Writer out) {
+        var jasminGenerator = new JasminGenerator(ollirResult);
+        jasminGenerator.build(out);
+
+        return SpecsCollections.concat(ollirResult.getReports(), jasminGenerator.getReports());
+    }
+
 }
@@ -8,28 +8,29 @@ import org.specs.comp.ollir.type.ClassType;
 import org.specs.comp.ollir.type.Type;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
-import pt.up.fe.specs.util.classmap.FunctionClassMap;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.incremental.MethodCache;
+import pt.up.fe.comp2025.utils.Trace;
+import pt.up.fe.specs.util.classmap.BiConsumerClassMap;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
-import pt.up.fe.specs.util.utilities.StringLines;
 
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * Generates Jasmin code from an OllirResult.
  * <p>
+ * The generators write straight into a {@link JasminWriter}, so the code can be streamed to a file with
+ * {@link #build(Writer)} without ever holding the whole class in memory.
  * One JasminGenerator instance per OllirResult.
  */
 public class JasminGenerator {
 
-    private static final String NL = "\n";
-    private static final String TAB = "   ";
-
     private final OllirResult ollirResult;
 
     List<Report> reports;
@@ -40,13 +41,15 @@ public class JasminGenerator {
 
     private final JasminUtils types;
 
-    private final FunctionClassMap<TreeNode, String> generators;
+    private final Trace trace;
+
+    private final BiConsumerClassMap<TreeNode, JasminWriter> generators;
 
     private Map<String, Instruction> labelTargets = new HashMap<>();
 
     private int labelCounter = 0;
 
-    private static int cmpCounter = 0;
+    private int cmpCounter = 0;
 
     public JasminGenerator(OllirResult ollirResult) {
         this.ollirResult = ollirResult;
@@ -56,8 +59,9 @@ public class JasminGenerator {
         currentMethod = null;
 
         types = new JasminUtils(ollirResult);
+        trace = Trace.of(ollirResult.getConfig(), Stage.GENERATION);
 
-        this.generators = new FunctionClassMap<>();
+        this.generators = new BiConsumerClassMap<>();
         generators.put(ClassUnit.class, this::generateClassUnit);
         generators.put(Method.class, this::generateMethod);
         generators.put(AssignInstruction.class, this::generateAssign);
@@ -79,12 +83,12 @@ public class JasminGenerator {
         generators.put(ArrayLengthInstruction.class, this::generateArrayLength);
     }
 
-    private String apply(TreeNode node) {
+    private void apply(TreeNode node, JasminWriter out) {
 
         // Print the corresponding OLLIR code as a comment
-        //code.append("; ").append(node).append(NL);
+        //out.line("; " + node);
 
-        return generators.apply(node);
+        generators.accept(node, out);
     }
 
     public List<Report> getReports() {
@@ -95,13 +99,28 @@ public class JasminGenerator {
 
         // This way, build is idempotent
         if (code == null) {
-            System.out.println("Ollir code:\n" + ollirResult.getOllirCode());
-            code = apply(ollirResult.getOllirClass());
+            var writer = new StringWriter();
+            build(writer);
+            code = writer.toString();
+            trace.debug(() -> "Jasmin code:\n" + code);
         }
 
         return code;
     }
 
+    /**
+     * Writes the Jasmin code of the class to the given writer as it is generated. The writer is flushed, not closed.
+     * <p>
+     * Unlike {@link #build()}, the code is not kept, each call generates it again.
+     */
+    public void build(Writer writer) {
+        trace.debug(() -> "Ollir code:\n" + ollirResult.getOllirCode());
+
+        var out = new JasminWriter(writer);
+        apply(ollirResult.getOllirClass(), out);
+        out.flush();
+    }
+
     private void preprocessLabels(Method method) {
         labelTargets.clear();
 
@@ -131,17 +150,28 @@ public class JasminGenerator {
         }
     }
 
-    private String generateClassUnit(ClassUnit classUnit) {
-        var code = new StringBuilder();
-
+    private void generateClassUnit(ClassUnit classUnit, JasminWriter out) {
         // Generate class name
         var className = ollirResult.getOllirClass().getClassName();
-        code.append(".class ").append(className).append(NL);
+        out.line(".class " + className);
 
         // Generate superclass
         var superClass = classUnit.getSuperClass();
         var fullSuperClass = superClass != null ? superClass : "java/lang/Object";
-        code.append(".super ").append(fullSuperClass).append(NL).append(NL);
+        out.line(".super " + fullSuperClass);
+        out.line("");
+
+        // Generate fields
+        for (var field : classUnit.getFields()) {
+            var modifier = types.getModifier(field.getFieldAccessModifier());
+            if (field.isStaticField()) {
+                modifier += "static ";
+            }
+            out.line(".field " + modifier + field.getFieldName() + " " + toJasminType(field.getFieldType()));
+        }
+        if (!classUnit.getFields().isEmpty()) {
+            out.line("");
+        }
 
         // Generate default constructor
         var defaultConstructor = """
@@ -152,22 +182,38 @@ public class JasminGenerator {
                 return
             .end method
             """.formatted(fullSuperClass);
-        code.append(defaultConstructor);
+        out.write(defaultConstructor);
 
-        // Generate methods
+        // Generate methods, reusing the code of the methods that did not change (incremental compilation)
+        var methodKeys = MethodCache.getMethodKeys(ollirResult.getConfig());
         for (var method : ollirResult.getOllirClass().getMethods()) {
             if (method.isConstructMethod()) {
                 continue;
             }
-            code.append(apply(method));
+
+            var methodKey = methodKeys.get(method.getMethodName());
+            if (methodKey == null) {
+                apply(method, out);
+                continue;
+            }
+
+            // Only methods that go to the cache are generated into a string of their own
+            var methodCode = MethodCache.get().getJasminCode(methodKey);
+            if (methodCode == null) {
+                var methodWriter = new StringWriter();
+                apply(method, new JasminWriter(methodWriter));
+                methodCode = methodWriter.toString();
+                MethodCache.get().putJasminCode(methodKey, methodCode);
+            }
+            out.write(methodCode);
         }
-        System.out.println("GenerateClassUnit -> Jasmin code:\n" + code);
-        return code.toString();
     }
 
-    private String generateMethod(Method method) {
+    private void generateMethod(Method method, JasminWriter out) {
         currentMethod = method;
-        var code = new StringBuilder();
+
+        // Labels are local to the method, numbering them per method makes its code independent of the others
+        cmpCounter = 0;
 
         // Build labels
         preprocessLabels(method);
@@ -180,9 +226,7 @@ public class JasminGenerator {
         var methodName = method.getMethodName();
 
         // Special handling for main method
-        if (methodName.equals("main") && method.isStaticMethod() &&
-                method.getParams().size() == 1 &&
-                method.getParams().getFirst().getType().toString().equals("STRING")) {
+        if (types.isMainMethod(method)) {
             modifier = "public static ";
         }
 
@@ -191,37 +235,26 @@ public class JasminGenerator {
                 .collect(Collectors.joining());
         var returnType = toJasminType(method.getReturnType());
 
-        code.append("\n.method ")
-                .append(modifier)
-                .append(methodName)
-                .append("(").append(params).append(")")
-                .append(returnType)
-                .append(NL);
+        out.line("");
+        out.line(".method " + modifier + methodName + "(" + params + ")" + returnType);
 
         int stackLimit = calculateStackLimit(method);
         int localsLimit = calculateLocalsLimit(method);
-        code.append(TAB).append(".limit stack ").append(stackLimit).append(NL);
-        code.append(TAB).append(".limit locals ").append(localsLimit).append(NL);
+        out.inst(".limit stack " + stackLimit);
+        out.inst(".limit locals " + localsLimit);
 
         // Generate instructions
         List<Instruction> instructions = method.getInstructions();
         for (Instruction inst : instructions) {
             if (isLabelTarget(inst)) {
-                String label = getLabelForInstruction(inst);
-                code.append(label).append(":").append(NL);
+                out.label(getLabelForInstruction(inst));
             }
 
-            String instCode = StringLines
-                    .getLines(apply(inst))
-                    .stream()
-                    .collect(Collectors.joining(NL + TAB, TAB, NL));
-
-            code.append(instCode);
+            apply(inst, out);
         }
 
-        code.append(".end method\n");
+        out.line(".end method");
         currentMethod = null;
-        return code.toString();
     }
 
     private boolean isLabelTarget(Instruction inst) {
@@ -315,24 +348,16 @@ public class JasminGenerator {
 
     // Auxiliary method: Convert Ollir type to Jasmin type
     private String toJasminType(Type type) {
-        if (type instanceof ArrayType) {
-            return "[" + toJasminType(((ArrayType) type).getElementType());
-        }
-        if (type instanceof ClassType) {
-            return "L" + ((ClassType) type).getName() + ";";
-        }
-
-        return switch (type.toString()) {
-            case "INT32" -> "I";
-            case "BOOLEAN" -> "Z";
-            case "VOID" -> "V";
-            case "STRING" -> "Ljava/lang/String;";
-            default -> throw new NotImplementedException("Tipo não suportado: " + type);
-        };
+        return types.toJasminType(type);
     }
 
-    private String generateAssign(AssignInstruction assign) {
-        var code = new StringBuilder();
+
+    private void generateAssign(AssignInstruction assign, JasminWriter out) {
+        // Increments update the variable in place, there is nothing to store
+        if (types.isIncrement(assign.getRhs())) {
+            apply(assign.getRhs(), out);
+            return;
+        }
 
         // Handle array creation if needed
         if (assign.getRhs() instanceof NewInstruction newInst &&
@@ -341,42 +366,22 @@ public class JasminGenerator {
             Element sizeOperand = newInst.getArguments().getFirst();
             if (sizeOperand instanceof Operand) {
                 String varName = ((Operand) sizeOperand).getName();
-                String varValue = null;
-
-                // Search through all descriptors in the variable table
-                for (Instruction inst : currentMethod.getInstructions()) {
-                    if (inst instanceof AssignInstruction assignInst) {
-                        String destStr = assignInst.getDest().toString();  // e.g., "Operand: temp0.INT32"
-
-                        Matcher matcher = Pattern.compile("Operand:\\s*(\\w+)\\.").matcher(destStr);
-                        if (matcher.find()) {
-                            String destName = matcher.group(1);
-
-                            if (destName.equals(varName)) {
-                                String rhsStr = assignInst.getRhs().toString();
-
-                                Matcher matcher2 = Pattern.compile("LiteralElement:\\s*(\\d+)\\.").matcher(rhsStr);
-                                if (matcher2.find()) {
-                                    varValue = matcher2.group(1);
-                                }
-                                break;
-                            }
-                        }
-                    }
-                }
+
+                // Search for a constant assigned to the size variable
+                String varValue = types.findIntConstant(currentMethod, varName);
 
                 if (varValue != null) {
-                    code.append("ldc ").append(varValue).append(NL);
+                    out.inst("ldc " + varValue);
                 } else {
                     // If we couldn't find a constant value, load the variable instead
-                    code.append(apply(sizeOperand));
+                    apply(sizeOperand, out);
                 }
             } else if (sizeOperand instanceof LiteralElement) {
                 // Handle literal values directly
-                code.append("ldc ").append(((LiteralElement) sizeOperand).getLiteral()).append(NL);
+                out.inst("ldc " + ((LiteralElement) sizeOperand).getLiteral());
             } else {
                 // Default fallback if we can't determine the size
-                code.append("ldc ").append(5).append(NL);
+                out.inst("ldc " + 5);
             }
         }
 
@@ -393,9 +398,9 @@ public class JasminGenerator {
             int arrayRegNum = arrayReg.getVirtualReg();
             // Always use aload for array references
             if (arrayRegNum > 3) {
-                code.append("aload ").append(arrayRegNum).append(NL);
+                out.inst("aload " + arrayRegNum);
             } else {
-                code.append("aload_").append(arrayRegNum).append(NL);
+                out.inst("aload_" + arrayRegNum);
             }
 
             // Then load the index (properly handle both literals and variables)
@@ -405,34 +410,26 @@ public class JasminGenerator {
                 if (indexReg != null) {
                     int indexRegNum = indexReg.getVirtualReg();
                     if (indexRegNum > 3) {
-                        code.append("iload ").append(indexRegNum).append(NL);
+                        out.inst("iload " + indexRegNum);
                     } else {
-                        code.append("iload_").append(indexRegNum).append(NL);
+                        out.inst("iload_" + indexRegNum);
                     }
                 } else {
-                    code.append(apply(indexElement));
+                    apply(indexElement, out);
                 }
             } else {
-                code.append(apply(indexElement));
+                apply(indexElement, out);
             }
 
             // Now push the value to store (RHS)
-            String rhsCode = apply(assign.getRhs());
-            if (rhsCode.startsWith("iinc")) {
-                return rhsCode;
-            }
-            code.append(rhsCode);
+            apply(assign.getRhs(), out);
 
             // Finally do the store
-            code.append("iastore").append(NL);
-            return code.toString();
+            out.inst("iastore");
+            return;
         }
         // Generate right-hand side
-        String rhsCode = apply(assign.getRhs());
-        if (rhsCode.startsWith("iinc")) {
-            return rhsCode;
-        }
-        code.append(rhsCode);
+        apply(assign.getRhs(), out);
 
         // Handle regular operand
         if (lhs instanceof Operand operand) {
@@ -441,56 +438,56 @@ public class JasminGenerator {
             int localIndex = reg.getVirtualReg();
 
             if (localIndex > 3) {
-                code.append(storePrefix).append(" ").append(localIndex).append(NL);
+                out.inst(storePrefix + " " + localIndex);
             } else {
-                code.append(storePrefix).append("_").append(localIndex).append(NL);
+                out.inst(storePrefix + "_" + localIndex);
             }
         }
         else {
             throw new NotImplementedException(lhs.getClass());
         }
-
-        return code.toString();
     }
 
     private boolean isTemporary(String name) {
         return name.startsWith("temp") || name.equals("j"); // adapt to your naming
     }
 
-    private String generateSingleOp(SingleOpInstruction singleOp) {
-        return apply(singleOp.getSingleOperand());
+    private void generateSingleOp(SingleOpInstruction singleOp, JasminWriter out) {
+        apply(singleOp.getSingleOperand(), out);
     }
 
-    private String generateLiteral(LiteralElement literal) {
+    private void generateLiteral(LiteralElement literal, JasminWriter out) {
         String value = literal.getLiteral();
 
         // Handle string literals
         if (value.startsWith("\"") || isMethodName(value)) {
-            return "";
+            return;
         }
 
         // Handle boolean literals
         if (value.equals("true")) {
-            return "iconst_1" + NL;
+            out.inst("iconst_1");
+            return;
         } else if (value.equals("false")) {
-            return "iconst_0" + NL;
+            out.inst("iconst_0");
+            return;
         }
 
         // Handle integer literals
         try {
             int intValue = Integer.parseInt(value);
             if (intValue >= -1 && intValue <= 5) {
-                return "iconst_" + (intValue == -1 ? "m1" : intValue) + NL;
+                out.inst("iconst_" + (intValue == -1 ? "m1" : intValue));
             } else if (intValue >= -128 && intValue <= 127) {
-                return "bipush " + intValue + NL;
+                out.inst("bipush " + intValue);
             } else if (intValue >= -32768 && intValue <= 32767) {
-                return "sipush " + intValue + NL;
+                out.inst("sipush " + intValue);
             } else {
-                return "ldc " + intValue + NL;
+                out.inst("ldc " + intValue);
             }
         } catch (NumberFormatException e) {
             // For method names and other literals
-            return "ldc \"" + value + "\"" + NL;
+            out.inst("ldc \"" + value + "\"");
         }
     }
 
@@ -499,15 +496,15 @@ public class JasminGenerator {
         return value.matches("[a-zA-Z_][a-zA-Z0-9_]*");
     }
 
-    private String generateOperand(Operand operand) {
+    private void generateOperand(Operand operand, JasminWriter out) {
         // Special case for 'this'
         if (operand.getName().equals("this")) {
-            return "aload_0" + NL;
+            out.inst("aload_0");
+            return;
         }
 
         // Handle array load operation
         if (operand instanceof ArrayOperand arrayOperand) {
-            var code = new StringBuilder();
             // Load array reference (the base array variable)
             String arrayVarName = arrayOperand.getName();
             Descriptor arrayReg = currentMethod.getVarTable().get(arrayVarName);
@@ -517,9 +514,9 @@ public class JasminGenerator {
 
             int arrayRegNum = arrayReg.getVirtualReg();
             if (arrayRegNum > 3) {
-                code.append("aload ").append(arrayRegNum).append(NL);
+                out.inst("aload " + arrayRegNum);
             } else {
-                code.append("aload_").append(arrayRegNum).append(NL);
+                out.inst("aload_" + arrayRegNum);
             }
 
             // Load index
@@ -529,20 +526,20 @@ public class JasminGenerator {
                 if (indexReg != null) {
                     int indexRegNum = indexReg.getVirtualReg();
                     if (indexRegNum > 3) {
-                        code.append("iload ").append(indexRegNum).append(NL);
+                        out.inst("iload " + indexRegNum);
                     } else {
-                        code.append("iload_").append(indexRegNum).append(NL);
+                        out.inst("iload_" + indexRegNum);
                     }
                 } else {
-                    code.append(apply(indexElement));
+                    apply(indexElement, out);
                 }
             } else {
-                code.append(apply(indexElement));
+                apply(indexElement, out);
             }
 
             // Load value from array
-            code.append("iaload").append(NL);
-            return code.toString();
+            out.inst("iaload");
+            return;
         }
 
         // Rest of the method with temporary variable handling
@@ -555,14 +552,15 @@ public class JasminGenerator {
                     int paramIndex = currentMethod.isStaticMethod() ?
                             currentMethod.getParams().indexOf(param) :
                             currentMethod.getParams().indexOf(param) + 1;
-                    return getLoadPrefix(operand.getType()) + " " + paramIndex + NL;
+                    out.inst(getLoadPrefix(operand.getType()) + " " + paramIndex);
+                    return;
                 }
             }
 
             // Check if it's a static field
             if (ollirResult.getOllirClass().getImports().stream()
                     .anyMatch(imp -> imp.equals(operand.getName()) || imp.endsWith("." + operand.getName()))) {
-                return "";
+                return;
             }
 
             throw new RuntimeException("Variable '" + operand.getName() + "' not found in varTable.");
@@ -571,9 +569,9 @@ public class JasminGenerator {
         int localIndex = reg.getVirtualReg();
 
         if (localIndex > 3) {
-            return getLoadPrefix(operand.getType()) + " " + localIndex + NL;
+            out.inst(getLoadPrefix(operand.getType()) + " " + localIndex);
         } else {
-            return getLoadPrefix(operand.getType()) + "_" + localIndex + NL;
+            out.inst(getLoadPrefix(operand.getType()) + "_" + localIndex);
         }
     }
 
@@ -601,28 +599,19 @@ public class JasminGenerator {
         return "astore"; // Other types
     }
 
-    private String generateBinaryOp(BinaryOpInstruction binaryOp) {
-        var code = new StringBuilder();
-
+    private void generateBinaryOp(BinaryOpInstruction binaryOp, JasminWriter out) {
         OperationType opType = binaryOp.getOperation().getOpType();
 
         // Handle increment optimization
-        if (opType == OperationType.ADD &&
-                binaryOp.getRightOperand() instanceof LiteralElement lit &&
-                lit.getLiteral().equals("1") &&
-                binaryOp.getLeftOperand() instanceof Operand operand) {
-
+        if (types.isIncrement(binaryOp)) {
+            var operand = (Operand) binaryOp.getLeftOperand();
             var reg = currentMethod.getVarTable().get(operand.getName());
-            return "iinc " + reg.getVirtualReg() + " 1" + NL;
+            out.inst("iinc " + reg.getVirtualReg() + " 1");
+            return;
         }
 
         // Handle comparison operations
-        if (opType == OperationType.LTH
-                || opType == OperationType.GTH
-                || opType == OperationType.LTE
-                || opType == OperationType.GTE
-                || opType == OperationType.EQ
-                || opType == OperationType.NEQ) {
+        if (types.isComparison(opType)) {
 
             // Check for unary comparison case (compare with zero)
             boolean isUnaryComparison = false;
@@ -635,14 +624,15 @@ public class JasminGenerator {
                 isUnaryComparison = true;
                 valueOperand = binaryOp.getRightOperand();
                 // Need to flip the comparison operator
-                opType = flipComparisonOperator(opType);
+                opType = types.flipComparisonOperator(opType);
             }
 
+            String compareInsn;
             if (isUnaryComparison) {
                 // Unary comparison case (compare with zero)
-                code.append(apply(valueOperand));
+                apply(valueOperand, out);
 
-                String compareInsn = switch (opType) {
+                compareInsn = switch (opType) {
                     case LTH  -> "iflt";
                     case GTH  -> "ifgt";
                     case LTE  -> "ifle";
@@ -651,34 +641,12 @@ public class JasminGenerator {
                     case NEQ  -> "ifne";
                     default   -> throw new NotImplementedException("Unhandled unary compare: " + opType);
                 };
-
-                // Generate two unique labels
-                int thisId = cmpCounter++;
-                String trueLabel = "j_true_" + thisId;
-                String endLabel  = "j_end_" + thisId;
-
-                // Emit compare → ifXxx trueLabel
-                code.append(compareInsn)
-                        .append(" ")
-                        .append(trueLabel)
-                        .append(NL);
-
-                // False‐path: push 0, then jump to endLabel
-                code.append("iconst_0").append(NL);
-                code.append("goto ").append(endLabel).append(NL);
-
-                // True‐path label and push 1
-                code.append(trueLabel).append(":").append(NL);
-                code.append("iconst_1").append(NL);
-
-                // End label
-                code.append(endLabel).append(":").append(NL);
             } else {
                 // Binary comparison case (compare two values)
-                code.append(apply(binaryOp.getLeftOperand()));
-                code.append(apply(binaryOp.getRightOperand()));
+                apply(binaryOp.getLeftOperand(), out);
+                apply(binaryOp.getRightOperand(), out);
 
-                String compareInsn = switch (opType) {
+                compareInsn = switch (opType) {
                     case LTH  -> "if_icmplt";
                     case GTH  -> "if_icmpgt";
                     case LTE  -> "if_icmple";
@@ -687,109 +655,78 @@ public class JasminGenerator {
                     case NEQ  -> "if_icmpne";
                     default   -> throw new NotImplementedException("Unhandled binary compare: " + opType);
                 };
+            }
 
-                // Generate two unique labels
-                int thisId = cmpCounter++;
-                String trueLabel = "j_true_" + thisId;
-                String endLabel  = "j_end_" + thisId;
-
-                // Emit compare → if_icmpXxx trueLabel
-                code.append(compareInsn)
-                        .append(" ")
-                        .append(trueLabel)
-                        .append(NL);
+            // Generate two unique labels
+            int thisId = cmpCounter++;
+            String trueLabel = "j_true_" + thisId;
+            String endLabel  = "j_end_" + thisId;
 
-                // False‐path: push 0, then jump to endLabel
-                code.append("iconst_0").append(NL);
-                code.append("goto ").append(endLabel).append(NL);
+            // Emit compare → ifXxx trueLabel
+            out.inst(compareInsn + " " + trueLabel);
 
-                // True‐path label and push 1
-                code.append(trueLabel).append(":").append(NL);
-                code.append("iconst_1").append(NL);
+            // False‐path: push 0, then jump to endLabel
+            out.inst("iconst_0");
+            out.inst("goto " + endLabel);
 
-                // End label
-                code.append(endLabel).append(":").append(NL);
-            }
+            // True‐path label and push 1
+            out.innerLabel(trueLabel);
+            out.inst("iconst_1");
 
-            System.out.println("generateBinaryOp (compare) → Jasmin:\n" + code);
-            return code.toString();
+            // End label
+            out.innerLabel(endLabel);
+            return;
         }
 
         // Standard arithmetic or bitwise operations:
-        code.append(apply(binaryOp.getLeftOperand()));
-        code.append(apply(binaryOp.getRightOperand()));
+        apply(binaryOp.getLeftOperand(), out);
+        apply(binaryOp.getRightOperand(), out);
 
         switch (opType) {
-            case ADD -> code.append("iadd");
-            case SUB -> code.append("isub");
-            case MUL -> code.append("imul");
-            case DIV -> code.append("idiv");
-            case AND -> code.append("iand");
-            case OR  -> code.append("ior");
+            case ADD -> out.inst("iadd");
+            case SUB -> out.inst("isub");
+            case MUL -> out.inst("imul");
+            case DIV -> out.inst("idiv");
+            case AND -> out.inst("iand");
+            case OR  -> out.inst("ior");
             default  -> throw new NotImplementedException("BinaryOp not supported: " + opType);
         }
-
-        code.append(NL);
-        System.out.println("generateBinaryOp (arith) → Jasmin:\n" + code);
-        return code.toString();
-    }
-
-    // Helper method to flip comparison operators when operands are swapped
-    private OperationType flipComparisonOperator(OperationType opType) {
-        return switch (opType) {
-            case LTH -> OperationType.GTH;
-            case GTH -> OperationType.LTH;
-            case LTE -> OperationType.GTE;
-            case GTE -> OperationType.LTE;
-            default -> opType; // EQ and NEQ don't need to be flipped
-        };
     }
 
-    private String generateReturn(ReturnInstruction returnInst) {
-        var code = new StringBuilder();
-
+    private void generateReturn(ReturnInstruction returnInst, JasminWriter out) {
         // Handle return value
         if (returnInst.hasReturnValue()) {
-            code.append(apply(returnInst.getOperand().orElseThrow()));
+            apply(returnInst.getOperand().orElseThrow(), out);
 
             Type returnType = returnInst.getOperand().get().getType();
             if (returnType instanceof ArrayType || returnType instanceof ClassType) {
-                code.append("areturn");
+                out.inst("areturn");
             } else if (returnType.toString().equals("INT32") ||
                     returnType.toString().equals("BOOLEAN")) {
-                code.append("ireturn");
+                out.inst("ireturn");
             } else {
-                code.append("areturn");
+                out.inst("areturn");
             }
         } else {
-            code.append("return");
+            out.inst("return");
         }
-
-        code.append(NL);
-        System.out.println("generateReturn -> Jasmin code:\n" + code);
-        return code.toString();
     }
 
-    private String generateNew(NewInstruction newInst) {
-        var code = new StringBuilder();
-
+    private void generateNew(NewInstruction newInst, JasminWriter out) {
         // New array
         if (newInst.getReturnType() instanceof ArrayType) {
             // O tamanho do array deve ter sido carregado antes na pilha
-            code.append("newarray int").append(NL);
+            out.inst("newarray int");
         }
         // New object
         else {
             String className = ((ClassType) newInst.getReturnType()).getName();
             // Only emit 'new', let assignment handle storage
-            code.append("new ").append(className).append(NL);
+            out.inst("new " + className);
         }
-        System.out.println("generateNew -> Jasmin code:\n" + code);
-        return code.toString();
     }
 
-    private String generateInvokeSpecial(InvokeSpecialInstruction specialInst) {
-        var code = new StringBuilder();
+    private void generateInvokeSpecial(InvokeSpecialInstruction specialInst, JasminWriter out) {
         // Find the correct local variable index for the object
         // The first operand is the object reference
         Element obj = specialInst.getOperands().getFirst();
@@ -802,199 +739,98 @@ public class JasminGenerator {
         }
         String className = ((ClassType) specialInst.getOperands().getFirst().getType()).getName();
         if (regIndex > 3) {
-            code.append("aload ").append(regIndex).append(NL);
+            out.inst("aload " + regIndex);
         } else {
-            code.append("aload_").append(regIndex).append(NL);
+            out.inst("aload_" + regIndex);
         }
-        code.append("invokespecial ")
-                .append(className)
-                .append("/<init>()V")
-                .append(NL);
-        return code.toString();
+        out.inst("invokespecial " + className + "/<init>()V");
     }
 
-    private String generateGetField(GetFieldInstruction getFieldInst) {
-        var code = new StringBuilder();
-
+    private void generateGetField(GetFieldInstruction getFieldInst, JasminWriter out) {
         // Load object reference
-        code.append(apply(getFieldInst.getOperands().getFirst()));
+        apply(getFieldInst.getOperands().getFirst(), out);
 
         // Generate instruction
         String className = ((ClassType) getFieldInst.getOperands().getFirst().getType()).getName();
         String fieldName = ((Operand) getFieldInst.getOperands().get(1)).getName();
         String fieldType = toJasminType(getFieldInst.getFieldType());
 
-        code.append("getfield ")
-                .append(className)
-                .append("/")
-                .append(fieldName)
-                .append(" ")
-                .append(fieldType)
-                .append(NL);
-
-        System.out.println("generateGetField -> Jasmin code:\n" + code);
-        return code.toString();
+        out.inst("getfield " + className + "/" + fieldName + " " + fieldType);
     }
 
-    private String generatePutField(PutFieldInstruction putFieldInst) {
-        var code = new StringBuilder();
-
+    private void generatePutField(PutFieldInstruction putFieldInst, JasminWriter out) {
         // Load object reference
-        code.append(apply(putFieldInst.getOperands().getFirst()));
+        apply(putFieldInst.getOperands().getFirst(), out);
 
         // Load value to be assigned
-        code.append(apply(putFieldInst.getOperands().get(2)));
+        apply(putFieldInst.getOperands().get(2), out);
 
         // Generate instruction
         String className = ((ClassType) putFieldInst.getOperands().getFirst().getType()).getName();
         String fieldName = ((Operand) putFieldInst.getOperands().get(1)).getName();
-        String fieldType = toJasminType(putFieldInst.getFieldType());
-
-        code.append("putfield ")
-                .append(className)
-                .append("/")
-                .append(fieldName)
-                .append(" ")
-                .append(fieldType)
-                .append(NL);
-
-        System.out.println("generatePutField -> Jasmin code:\n" + code);
-        return code.toString();
-    }
+        // getFieldType() is the type of the instruction itself (.V), the field type is on the operand
+        String fieldType = toJasminType(putFieldInst.getOperands().get(1).getType());
 
-    private String generateInvokeVirtual(InvokeVirtualInstruction virtualInst) {
-        var code = new StringBuilder();
+        out.inst("putfield " + className + "/" + fieldName + " " + fieldType);
+    }
 
+    private void generateInvokeVirtual(InvokeVirtualInstruction virtualInst, JasminWriter out) {
         // Load object reference and arguments
         for (Element arg : virtualInst.getOperands()) {
-            code.append(apply(arg));
+            apply(arg, out);
         }
 
         // Get method name
-        String methodName = virtualInst.getOperands().get(1).toString();
-        int dotIndex = methodName.indexOf('.');
-        int pointsIndex = methodName.lastIndexOf(':');
-        if (dotIndex != -1) {
-            methodName = methodName.substring(pointsIndex + 2, dotIndex);
-        }
+        String methodName = types.getVirtualMethodName(virtualInst);
 
         // Determine the class name
         String className = ((ClassType) virtualInst.getOperands().getFirst().getType()).getName();
 
-        // Build parameter signature
-        StringBuilder signature = new StringBuilder("(");
-
-        // Skip first operand (the caller object)
-        for (int i = 2; i < virtualInst.getOperands().size(); i++) {
-            Element operand = virtualInst.getOperands().get(i);
-            String jasminType = toJasminType(operand.getType());
-            // Split on semicolon and take second part if it exists for array types
-            if (jasminType.contains(";")) {
-                String[] parts = jasminType.split(";");
-                if (parts.length > 1) {
-                    jasminType = parts[1];
-                }
-            }
-            signature.append(jasminType);
-        }
-        signature.append(")");
-
-        // Add return type
-        signature.append(toJasminType(virtualInst.getReturnType()));
+        // Build signature, skipping the caller object and the method name
+        String signature = types.getCallDescriptor(virtualInst);
 
         // Generate invokevirtual instruction
-        code.append("invokevirtual ")
-                .append(className)
-                .append("/")
-                .append(methodName)
-                .append(signature)
-                .append(NL);
-
-        System.out.println("generateInvokeVirtual -> Jasmin code:\n" + code);
-        return code.toString();
+        out.inst("invokevirtual " + className + "/" + methodName + signature);
+        discardResult(virtualInst, signature, out);
     }
 
-    private String generateInvokeStatic(InvokeStaticInstruction staticInst) {
-        var code = new StringBuilder();
-
+    private void generateInvokeStatic(InvokeStaticInstruction staticInst, JasminWriter out) {
         // Load method arguments
         for (Element arg : staticInst.getOperands()) {
-            code.append(apply(arg));
+            apply(arg, out);
         }
 
-        String instStr = staticInst.toString();
-
-        // Extract class name
-        String className = null;
-        int classIndex = instStr.indexOf(".CLASS");
-        if (classIndex != -1) {
-            int startIdx = instStr.lastIndexOf(' ', classIndex);
-            if (startIdx == -1) startIdx = 0; else startIdx += 1;
-            className = instStr.substring(startIdx, classIndex);
-        }
-
-        // Extract method name
-        String methodName = null;
-        int idx = instStr.indexOf("methodName");
-        if (idx != -1) {
-            int start = instStr.indexOf(":", idx);
-            int end = instStr.indexOf(".", start);
-            if (start != -1 && end != -1) {
-                methodName = instStr.substring(start + 1, end).trim();
-            }
-        }
-
-        if (methodName == null || className == null) {
-            throw new RuntimeException("Could not extract class or method name from InvokeStaticInstruction");
-        }
+        String className = types.getStaticClassName(staticInst);
+        String methodName = types.getStaticMethodName(staticInst);
 
         // Generate method signature
-        StringBuilder signature = new StringBuilder("(");
-        for (int i = 2; i < staticInst.getOperands().size(); i++) {
-            Element operand = staticInst.getOperands().get(i);
-            String jasminType = toJasminType(operand.getType());
-            // Split on semicolon and take second part if it exists for array types
-            if (jasminType.contains(";")) {
-                String[] parts = jasminType.split(";");
-                if (parts.length > 1) {
-                    jasminType = parts[1];
-                }
-            }
-            signature.append(jasminType);
-        }
-        signature.append(")").append(toJasminType(staticInst.getReturnType()));
+        String signature = types.getCallDescriptor(staticInst);
 
         // Emit Jasmin instruction
-        code.append("invokestatic ")
-                .append(className.replace('.', '/'))
-                .append("/")
-                .append(methodName)
-                .append(signature)
-                .append(NL);
-
-        System.out.println("generateInvokeStatic -> Jasmin code:\n" + code);
-        return code.toString();
+        out.inst("invokestatic " + className + "/" + methodName + signature);
+        discardResult(staticInst, signature, out);
     }
 
-    private String generateSingleOpCond(SingleOpCondInstruction singleOpCondInst) {
-        var code = new StringBuilder();
+    /**
+     * Pops the value of a method that returns something the OLLIR code treats as void.
+     */
+    private void discardResult(CallInstruction call, String descriptor, JasminWriter out) {
+        if (types.discardsResult(call)) {
+            out.inst(JasminUtils.getReturnSlots(descriptor) == 2 ? "pop2" : "pop");
+        }
+    }
 
+    private void generateSingleOpCond(SingleOpCondInstruction singleOpCondInst, JasminWriter out) {
         // Load operands
-        code.append(apply(singleOpCondInst.getOperands().getFirst()));
+        apply(singleOpCondInst.getOperands().getFirst(), out);
 
-        String label = singleOpCondInst.getLabel();
-        code.append("ifne ").append(label).append(NL);
-
-        System.out.println("generateSingleOpCond -> Jasmin code:\n" + code);
-        return code.toString();
+        out.inst("ifne " + singleOpCondInst.getLabel());
     }
 
-    private String generateOpCond(OpCondInstruction opCondInst) {
-        var code = new StringBuilder();
-
+    private void generateOpCond(OpCondInstruction opCondInst, JasminWriter out) {
         // Load operands
-        code.append(apply(opCondInst.getOperands().getFirst()));
-        code.append(apply(opCondInst.getOperands().getLast()));
+        apply(opCondInst.getOperands().getFirst(), out);
+        apply(opCondInst.getOperands().getLast(), out);
 
         // Determine the instruction based on the operation type
         String instruction = switch (opCondInst.getCondition().getOperation().getOpType()) {
@@ -1008,39 +844,27 @@ public class JasminGenerator {
                     opCondInst.getCondition().getOperation().getOpType());
         };
 
-        code.append(instruction).append(" ").append(opCondInst.getLabel()).append(NL);
-
-        System.out.println("generateOpCond -> Jasmin code:\n" + code);
-        return code.toString();
+        out.inst(instruction + " " + opCondInst.getLabel());
     }
 
-    private String generateGoto(GotoInstruction gotoInst) {
-        return "goto " + gotoInst.getLabel() + NL;
+    private void generateGoto(GotoInstruction gotoInst, JasminWriter out) {
+        out.inst("goto " + gotoInst.getLabel());
     }
 
-    private String generateUnaryOp(UnaryOpInstruction unaryOpInst) {
-        var code = new StringBuilder();
-
+    private void generateUnaryOp(UnaryOpInstruction unaryOpInst, JasminWriter out) {
         // Load operand
-        code.append(apply(unaryOpInst.getOperand()));
+        apply(unaryOpInst.getOperand(), out);
 
         // Apply unary operation
         if (unaryOpInst.getOperation().getOpType() == OperationType.NOTB) {
-            code.append("iconst_1").append(NL);
-            code.append("ixor").append(NL);
+            out.inst("iconst_1");
+            out.inst("ixor");
         }
-        System.out.println("generateUnaryOp -> Jasmin code:\n" + code);
-        return code.toString();
     }
 
-    private String generateArrayLength(ArrayLengthInstruction arrayLengthInst) {
-        var code = new StringBuilder();
-
+    private void generateArrayLength(ArrayLengthInstruction arrayLengthInst, JasminWriter out) {
         // Load the array reference first
-        code.append(apply(arrayLengthInst.getOperands().getFirst()));
-        code.append("arraylength").append(NL);
-
-        System.out.println("generateArrayLength -> Jasmin code:\n" + code);
-        return code.toString();
+        apply(arrayLengthInst.getOperands().getFirst(), out);
+        out.inst("arraylength");
     }
 }
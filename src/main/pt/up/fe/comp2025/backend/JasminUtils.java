@@ -1,21 +1,34 @@
 package pt.up.fe.comp2025.backend;
 
 import org.specs.comp.ollir.*;
+import org.specs.comp.ollir.inst.*;
 import org.specs.comp.ollir.type.*;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.classpath.MethodSignature;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
 import pt.up.fe.specs.util.SpecsCheck;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Helpers shared by the Jasmin generator and the class-file generator, so that both backends make the same choices.
+ */
 public class JasminUtils {
 
+    private static final Pattern ASSIGN_DEST = Pattern.compile("Operand:\\s*(\\w+)\\.");
+    private static final Pattern INT_LITERAL = Pattern.compile("LiteralElement:\\s*(\\d+)\\.");
+
     private final OllirResult ollirResult;
+    private final SignatureIndex signatures;
 
     public JasminUtils(OllirResult ollirResult) {
         // Can be useful to have if you expand this class with more methods
         this.ollirResult = ollirResult;
+        this.signatures = SignatureIndex.of(ollirResult.getConfig());
     }
 
 
@@ -24,4 +37,241 @@ public class JasminUtils {
                 accessModifier.name().toLowerCase() + " " :
                 "";
     }
+
+    // Convert Ollir type to Jasmin type
+    public String toJasminType(Type type) {
+        if (type instanceof ArrayType) {
+            return "[" + toJasminType(((ArrayType) type).getElementType());
+        }
+        if (type instanceof ClassType) {
+            return "L" + ((ClassType) type).getName() + ";";
+        }
+
+        return switch (type.toString()) {
+            case "INT32" -> "I";
+            case "BOOLEAN" -> "Z";
+            case "VOID" -> "V";
+            case "STRING" -> "Ljava/lang/String;";
+            default -> throw new NotImplementedException("Tipo não suportado: " + type);
+        };
+    }
+
+    /**
+     * True for the main method, which is always emitted as 'public static'.
+     */
+    public boolean isMainMethod(Method method) {
+        return method.getMethodName().equals("main") && method.isStaticMethod() &&
+                method.getParams().size() == 1 &&
+                method.getParams().getFirst().getType().toString().equals("STRING");
+    }
+
+    /**
+     * Looks for a constant assigned to the given variable, used as the size of new arrays.
+     */
+    public String findIntConstant(Method method, String varName) {
+        for (Instruction inst : method.getInstructions()) {
+            if (inst instanceof AssignInstruction assignInst) {
+                String destStr = assignInst.getDest().toString();  // e.g., "Operand: temp0.INT32"
+
+                Matcher matcher = ASSIGN_DEST.matcher(destStr);
+                if (matcher.find()) {
+                    String destName = matcher.group(1);
+
+                    if (destName.equals(varName)) {
+                        Matcher literal = INT_LITERAL.matcher(assignInst.getRhs().toString());
+                        return literal.find() ? literal.group(1) : null;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 'a := a + 1' style instructions, emitted as a single iinc.
+     */
+    public boolean isIncrement(Instruction inst) {
+        return inst instanceof BinaryOpInstruction binaryOp
+                && binaryOp.getOperation().getOpType() == OperationType.ADD
+                && binaryOp.getRightOperand() instanceof LiteralElement lit
+                && lit.getLiteral().equals("1")
+                && binaryOp.getLeftOperand() instanceof Operand;
+    }
+
+    public boolean isComparison(OperationType opType) {
+        return opType == OperationType.LTH
+                || opType == OperationType.GTH
+                || opType == OperationType.LTE
+                || opType == OperationType.GTE
+                || opType == OperationType.EQ
+                || opType == OperationType.NEQ;
+    }
+
+    // Flips comparison operators when operands are swapped
+    public OperationType flipComparisonOperator(OperationType opType) {
+        return switch (opType) {
+            case LTH -> OperationType.GTH;
+            case GTH -> OperationType.LTH;
+            case LTE -> OperationType.GTE;
+            case GTE -> OperationType.LTE;
+            default -> opType; // EQ and NEQ don't need to be flipped
+        };
+    }
+
+    public String getVirtualMethodName(InvokeVirtualInstruction virtualInst) {
+        String methodName = virtualInst.getOperands().get(1).toString();
+        int dotIndex = methodName.indexOf('.');
+        int pointsIndex = methodName.lastIndexOf(':');
+        if (dotIndex != -1) {
+            methodName = methodName.substring(pointsIndex + 2, dotIndex);
+        }
+
+        return methodName;
+    }
+
+    public String getStaticClassName(InvokeStaticInstruction staticInst) {
+        String instStr = staticInst.toString();
+
+        int classIndex = instStr.indexOf(".CLASS");
+        if (classIndex == -1) {
+            throw new RuntimeException("Could not extract class or method name from InvokeStaticInstruction");
+        }
+
+        int startIdx = instStr.lastIndexOf(' ', classIndex);
+        if (startIdx == -1) startIdx = 0; else startIdx += 1;
+        return instStr.substring(startIdx, classIndex).replace('.', '/');
+    }
+
+    public String getStaticMethodName(InvokeStaticInstruction staticInst) {
+        String instStr = staticInst.toString();
+
+        int idx = instStr.indexOf("methodName");
+        if (idx != -1) {
+            int start = instStr.indexOf(":", idx);
+            int end = instStr.indexOf(".", start);
+            if (start != -1 && end != -1) {
+                return instStr.substring(start + 1, end).trim();
+            }
+        }
+
+        throw new RuntimeException("Could not extract class or method name from InvokeStaticInstruction");
+    }
+
+    /**
+     * Descriptor of a call. Calls on classes of the classpath use the descriptor of the method in the .class file,
+     * otherwise it is built from the types of the arguments (operands after the caller and the method name).
+     */
+    public String getCallDescriptor(CallInstruction call) {
+        var descriptor = getOllirDescriptor(call);
+        var signature = findSignature(call, descriptor);
+
+        return signature != null ? signature.getDescriptor() : descriptor;
+    }
+
+    /**
+     * True if the called method returns a value that the OLLIR code does not expect, which must be popped.
+     */
+    public boolean discardsResult(CallInstruction call) {
+        var descriptor = getOllirDescriptor(call);
+        var signature = findSignature(call, descriptor);
+
+        return signature != null && descriptor.endsWith(")V") && !signature.getReturnDescriptor().equals("V");
+    }
+
+    /**
+     * Number of stack slots of the value returned by the method with the given descriptor.
+     */
+    public static int getReturnSlots(String descriptor) {
+        var returnType = descriptor.substring(descriptor.indexOf(')') + 1);
+
+        return switch (returnType) {
+            case "V" -> 0;
+            case "J", "D" -> 2;
+            default -> 1;
+        };
+    }
+
+    private String getOllirDescriptor(CallInstruction call) {
+        StringBuilder signature = new StringBuilder("(");
+
+        for (int i = 2; i < call.getOperands().size(); i++) {
+            Element operand = call.getOperands().get(i);
+            String jasminType = toJasminType(operand.getType());
+            // Split on semicolon and take second part if it exists for array types
+            if (jasminType.contains(";")) {
+                String[] parts = jasminType.split(";");
+                if (parts.length > 1) {
+                    jasminType = parts[1];
+                }
+            }
+            signature.append(jasminType);
+        }
+        signature.append(")");
+
+        // Add return type
+        signature.append(toJasminType(call.getReturnType()));
+
+        return signature.toString();
+    }
+
+    /**
+     * The method of a class on the classpath that a call resolves to, or null to keep the descriptor of the OLLIR
+     * code. Overloads are told apart by their parameters, and a method that returns something else than the OLLIR
+     * code expects is only used when the OLLIR code discards the value.
+     */
+    private MethodSignature findSignature(CallInstruction call, String ollirDescriptor) {
+        String className;
+        String methodName;
+        if (call instanceof InvokeStaticInstruction staticInst) {
+            className = getStaticClassName(staticInst);
+            methodName = getStaticMethodName(staticInst);
+        } else if (call instanceof InvokeVirtualInstruction virtualInst
+                && virtualInst.getOperands().getFirst().getType() instanceof ClassType classType) {
+            className = classType.getName();
+            methodName = getVirtualMethodName(virtualInst);
+        } else {
+            return null;
+        }
+
+        if (className.equals(ollirResult.getOllirClass().getClassName())) {
+            return null;
+        }
+
+        var candidates = signatures.getMethods(getInternalName(className), methodName, call.getOperands().size() - 2);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        var parameters = ollirDescriptor.substring(0, ollirDescriptor.indexOf(')') + 1);
+        var signature = candidates.stream()
+                .filter(candidate -> candidate.getDescriptor().startsWith(parameters))
+                .findFirst()
+                .orElse(candidates.size() == 1 ? candidates.getFirst() : null);
+
+        if (signature == null) {
+            return null;
+        }
+
+        var ollirReturn = ollirDescriptor.substring(parameters.length());
+        var returnType = signature.getReturnDescriptor();
+        return returnType.equals(ollirReturn) || ollirReturn.equals("V") ? signature : null;
+    }
+
+    /**
+     * Internal name of an imported class, with the package of its import.
+     */
+    private String getInternalName(String className) {
+        if (className.contains("/")) {
+            return className;
+        }
+
+        for (var imported : ollirResult.getOllirClass().getImports()) {
+            if (imported.equals(className) || imported.endsWith("." + className)) {
+                return SignatureIndex.toInternalName(imported);
+            }
+        }
+
+        return className;
+    }
 }
@@ -0,0 +1,70 @@
+package pt.up.fe.comp2025.backend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Sink for the Jasmin code of a class. Every generator writes its lines here as it goes, so the code of the class
+ * is never concatenated from the code of its parts.
+ */
+class JasminWriter {
+
+    private static final String NL = "\n";
+    private static final String TAB = "   ";
+
+    private final Writer out;
+
+    JasminWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes an instruction, indented.
+     */
+    public void inst(String instruction) {
+        write(TAB);
+        write(instruction);
+        write(NL);
+    }
+
+    /**
+     * Writes a label inside an instruction, indented like the instructions around it.
+     */
+    public void innerLabel(String label) {
+        inst(label + ":");
+    }
+
+    /**
+     * Writes a label that is the target of an OLLIR branch.
+     */
+    public void label(String label) {
+        write(label);
+        write(":");
+        write(NL);
+    }
+
+    /**
+     * Writes a line as is, for directives.
+     */
+    public void line(String line) {
+        write(line);
+        write(NL);
+    }
+
+    public void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+    }
+}
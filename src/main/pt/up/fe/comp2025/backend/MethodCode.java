@@ -0,0 +1,224 @@
+package pt.up.fe.comp2025.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytecode of a single method, built in one pass.
+ * <p>
+ * Tracks the stack depth of every instruction to get the exact max stack, and the highest local slot used.
+ * Branches to labels that are not placed yet get a placeholder offset, filled in by {@link #finish()}.
+ */
+class MethodCode {
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    private final Map<String, Integer> labels = new HashMap<>();
+    private final List<Fixup> fixups = new ArrayList<>();
+
+    // Stack depth expected at labels that were the target of a branch
+    private final Map<String, Integer> labelDepths = new HashMap<>();
+
+    private int stack;
+    private int maxStack;
+    private int maxLocals;
+
+    // False after an unconditional jump or a return, until the next label
+    private boolean reachable = true;
+
+    MethodCode(int argumentSlots) {
+        this.maxLocals = argumentSlots;
+    }
+
+    public int position() {
+        return code.size();
+    }
+
+    /**
+     * Emits an instruction without operands that changes the stack depth by the given amount.
+     */
+    public void op(int opcode, int stackDelta) {
+        code.write(opcode);
+        adjustStack(stackDelta);
+    }
+
+    public void opByte(int opcode, int operand, int stackDelta) {
+        code.write(opcode);
+        code.write(operand);
+        adjustStack(stackDelta);
+    }
+
+    public void opShort(int opcode, int operand, int stackDelta) {
+        code.write(opcode);
+        writeShort(operand);
+        adjustStack(stackDelta);
+    }
+
+    /**
+     * Load or store of a local variable, using the one byte form unless the index needs the wide prefix.
+     */
+    public void local(int opcode, int index, int stackDelta) {
+        useLocal(index);
+
+        if (index > 255) {
+            code.write(Opcodes.WIDE);
+            opShort(opcode, index, stackDelta);
+        } else {
+            opByte(opcode, index, stackDelta);
+        }
+    }
+
+    /**
+     * The short forms of loads and stores (e.g., iload_0) take the index from the opcode.
+     */
+    public void shortLocal(int opcode, int index, int stackDelta) {
+        useLocal(index);
+        op(opcode, stackDelta);
+    }
+
+    public void iinc(int index, int increment) {
+        useLocal(index);
+
+        if (index > 255 || increment < Byte.MIN_VALUE || increment > Byte.MAX_VALUE) {
+            code.write(Opcodes.WIDE);
+            code.write(Opcodes.IINC);
+            writeShort(index);
+            writeShort(increment);
+        } else {
+            code.write(Opcodes.IINC);
+            code.write(index);
+            code.write(increment);
+        }
+    }
+
+    /**
+     * Pushes an int from -1 to 5 with its iconst instruction (e.g., iconst_m1).
+     */
+    public void iconst(int value) {
+        int opcode = switch (value) {
+            case -1 -> Opcodes.ICONST_M1;
+            case 0 -> Opcodes.ICONST_0;
+            case 1 -> Opcodes.ICONST_1;
+            case 2 -> Opcodes.ICONST_2;
+            case 3 -> Opcodes.ICONST_3;
+            case 4 -> Opcodes.ICONST_4;
+            case 5 -> Opcodes.ICONST_5;
+            default -> throw new RuntimeException("No iconst instruction for " + value);
+        };
+
+        op(opcode, 1);
+    }
+
+    public void ldc(int constantIndex) {
+        if (constantIndex > 255) {
+            opShort(Opcodes.LDC_W, constantIndex, 1);
+        } else {
+            opByte(Opcodes.LDC, constantIndex, 1);
+        }
+    }
+
+    /**
+     * Emits a branch to the given label. Offsets are relative to the branch instruction.
+     */
+    public void branch(int opcode, String label, int stackDelta) {
+        int branchPosition = position();
+
+        code.write(opcode);
+        adjustStack(stackDelta);
+        labelDepths.putIfAbsent(label, stack);
+
+        var target = labels.get(label);
+        if (target != null) {
+            writeShort(target - branchPosition);
+        } else {
+            fixups.add(new Fixup(branchPosition, position(), label));
+            writeShort(0);
+        }
+
+        if (opcode == Opcodes.GOTO) {
+            reachable = false;
+        }
+    }
+
+    public void label(String label) {
+        if (labels.containsKey(label)) {
+            throw new RuntimeException("Label '" + label + "' is defined twice");
+        }
+
+        labels.put(label, position());
+
+        // Code after a jump is only reached through the label
+        if (!reachable) {
+            stack = labelDepths.getOrDefault(label, 0);
+            reachable = true;
+        }
+    }
+
+    /**
+     * Marks the end of a path, e.g. after a return.
+     */
+    public void endPath() {
+        reachable = false;
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    /**
+     * Fills in the offsets of the forward branches and returns the bytecode.
+     */
+    public byte[] finish() {
+        var bytes = code.toByteArray();
+
+        for (var fixup : fixups) {
+            var target = labels.get(fixup.label);
+            if (target == null) {
+                throw new RuntimeException("Label '" + fixup.label + "' is never defined");
+            }
+
+            int offset = target - fixup.branchPosition;
+            if (offset > Short.MAX_VALUE) {
+                throw new RuntimeException("Branch to label '" + fixup.label + "' is too far");
+            }
+
+            bytes[fixup.offsetPosition] = (byte) (offset >> 8);
+            bytes[fixup.offsetPosition + 1] = (byte) offset;
+        }
+
+        return bytes;
+    }
+
+    private void useLocal(int index) {
+        maxLocals = Math.max(maxLocals, index + 1);
+    }
+
+    private void adjustStack(int delta) {
+        stack += delta;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void writeShort(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private static class Fixup {
+        private final int branchPosition;
+        private final int offsetPosition;
+        private final String label;
+
+        Fixup(int branchPosition, int offsetPosition, String label) {
+            this.branchPosition = branchPosition;
+            this.offsetPosition = offsetPosition;
+            this.label = label;
+        }
+    }
+}
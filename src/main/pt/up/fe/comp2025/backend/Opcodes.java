@@ -0,0 +1,82 @@
+package pt.up.fe.comp2025.backend;
+
+/**
+ * JVM opcodes used by the {@link ClassFileGenerator}, and the access flags of the class file format.
+ */
+final class Opcodes {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int T_INT = 10;
+
+    static final int ICONST_M1 = 0x02;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int ICONST_2 = 0x05;
+    static final int ICONST_3 = 0x06;
+    static final int ICONST_4 = 0x07;
+    static final int ICONST_5 = 0x08;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int ILOAD_0 = 0x1a;
+    static final int ALOAD_0 = 0x2a;
+    static final int IALOAD = 0x2e;
+
+    static final int ISTORE = 0x36;
+    static final int ASTORE = 0x3a;
+    static final int ISTORE_0 = 0x3b;
+    static final int ASTORE_0 = 0x4b;
+    static final int IASTORE = 0x4f;
+
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6c;
+    static final int IAND = 0x7e;
+    static final int IOR = 0x80;
+    static final int IXOR = 0x82;
+    static final int IINC = 0x84;
+
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int IF_ICMPLT = 0xa1;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3;
+    static final int IF_ICMPLE = 0xa4;
+    static final int GOTO = 0xa7;
+
+    static final int IRETURN = 0xac;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int NEW = 0xbb;
+    static final int NEWARRAY = 0xbc;
+    static final int ARRAYLENGTH = 0xbe;
+    static final int WIDE = 0xc4;
+
+    private Opcodes() {
+    }
+}
@@ -0,0 +1,43 @@
+package pt.up.fe.comp2025.cache;
+
+/**
+ * What the {@link CompilationCache} stores for a successful compilation, saved on disk as JSON.
+ * <p>
+ * The class file is Base64 encoded, and only present after someone assembled the Jasmin code.
+ */
+public class CacheEntry {
+
+    private String className;
+    private String ollirCode;
+    private String jasminCode;
+    private String classFile;
+
+    public CacheEntry() {
+    }
+
+    public CacheEntry(String className, String ollirCode, String jasminCode) {
+        this.className = className;
+        this.ollirCode = ollirCode;
+        this.jasminCode = jasminCode;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getOllirCode() {
+        return ollirCode;
+    }
+
+    public String getJasminCode() {
+        return jasminCode;
+    }
+
+    public String getClassFile() {
+        return classFile;
+    }
+
+    public void setClassFile(String classFile) {
+        this.classFile = classFile;
+    }
+}
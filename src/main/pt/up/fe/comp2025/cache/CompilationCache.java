@@ -0,0 +1,267 @@
+package pt.up.fe.comp2025.cache;
+
+import com.google.gson.Gson;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.JmmCompiler;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of compilation results, kept in a folder on disk.
+ * <p>
+ * Entries are keyed by the SHA-256 of the compiler version, the options that change the generated code
+ * (optimize, deadCodeElimination, registerAllocation, extra and backend), the signatures of the classpath (see
+ * {@link SignatureIndex#getFingerprint}) and the source text, so a hit can skip every stage.
+ * Once the folder grows past the maximum size, the least recently used entries are deleted.
+ * The access time of an entry is its last modified time, so the order survives between runs.
+ */
+public class CompilationCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final Gson GSON = new Gson();
+
+    private static String compilerVersion;
+
+    private final File folder;
+    private final long maxBytes;
+
+    // Size of each entry, in access order (least recently used first)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CompilationCache(File folder) {
+        this(folder, DEFAULT_MAX_BYTES);
+    }
+
+    public CompilationCache(File folder, long maxBytes) {
+        this.folder = SpecsIo.mkdir(folder);
+        this.maxBytes = maxBytes;
+
+        loadEntries();
+    }
+
+    private void loadEntries() {
+        var files = folder.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (var file : files) {
+            var key = file.getName().substring(0, file.getName().length() - ENTRY_EXTENSION.length());
+            entries.put(key, file.length());
+            totalBytes += file.length();
+        }
+    }
+
+    /**
+     * Key of the given source compiled with the given config.
+     */
+    public static String key(String code, Map<String, String> config) {
+        var digest = newDigest(config);
+        digest.update(code.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Key of the given source file, the same as the key of its text. The file is digested from a memory mapping,
+     * so it is not read into the heap.
+     */
+    public static String key(File source, Map<String, String> config) throws IOException {
+        var digest = newDigest(config);
+        try (var channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest(Map<String, String> config) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+
+            var header = getCompilerVersion() + "\n"
+                    + ConfigOptions.getOptimize(config) + "\n"
+                    + ConfigOptions.getDeadCodeElimination(config) + "\n"
+                    + ConfigOptions.getRegisterAllocation(config) + "\n"
+                    + ConfigOptions.getExtra(config) + "\n"
+                    + ConfigOptions.getBackend(config) + "\n"
+                    + SignatureIndex.getFingerprint(config);
+
+            digest.update(header.getBytes(StandardCharsets.UTF_8));
+
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Identifies the build of the compiler, using the size and date of the jar (or of the newest class file,
+     * when running from a classes folder).
+     */
+    private static synchronized String getCompilerVersion() {
+        if (compilerVersion != null) {
+            return compilerVersion;
+        }
+
+        File location;
+        try {
+            location = new File(JmmCompiler.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException | SecurityException e) {
+            location = null;
+        }
+
+        if (location == null || !location.exists()) {
+            compilerVersion = "unknown";
+        } else if (location.isFile()) {
+            compilerVersion = location.length() + "-" + location.lastModified();
+        } else {
+            compilerVersion = "classes-" + SpecsIo.getFilesRecursive(location).stream()
+                    .mapToLong(File::lastModified)
+                    .max()
+                    .orElse(0);
+        }
+
+        return compilerVersion;
+    }
+
+    public synchronized Optional<CacheEntry> get(String key) {
+        var file = getFile(key);
+
+        if (!entries.containsKey(key)) {
+            // Another process sharing the folder may have added it
+            if (!file.isFile()) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+
+            entries.put(key, file.length());
+            totalBytes += file.length();
+        }
+
+        try {
+            var entry = GSON.fromJson(Files.readString(file.toPath()), CacheEntry.class);
+            file.setLastModified(System.currentTimeMillis());
+            // Marks the entry as the most recently used one
+            entries.get(key);
+            hits.incrementAndGet();
+            return Optional.of(entry);
+        } catch (Exception e) {
+            // Deleted or corrupted by someone else, treat as a miss
+            remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void put(String key, CacheEntry entry) {
+        var file = getFile(key);
+
+        try {
+            // Write to a temporary file first, so that other processes never read half an entry
+            var temp = File.createTempFile("entry-", ".tmp", folder);
+            Files.writeString(temp.toPath(), GSON.toJson(entry));
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write cache entry '" + file + "'", e);
+        }
+
+        var previous = entries.put(key, file.length());
+        totalBytes += file.length() - (previous == null ? 0 : previous);
+
+        evict();
+    }
+
+    /**
+     * Adds the assembled class file to an existing entry. Does nothing if the entry is gone.
+     */
+    public synchronized void putClassFile(String key, byte[] classFile) {
+        var file = getFile(key);
+        if (!entries.containsKey(key) || !file.isFile()) {
+            return;
+        }
+
+        CacheEntry entry;
+        try {
+            entry = GSON.fromJson(Files.readString(file.toPath()), CacheEntry.class);
+        } catch (Exception e) {
+            remove(key);
+            return;
+        }
+
+        entry.setClassFile(Base64.getEncoder().encodeToString(classFile));
+        put(key, entry);
+    }
+
+    private void evict() {
+        var iterator = entries.entrySet().iterator();
+
+        // Always keep the entry that was just added
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            var eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            getFile(eldest.getKey()).delete();
+        }
+    }
+
+    private void remove(String key) {
+        var size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        getFile(key).delete();
+    }
+
+    private File getFile(String key) {
+        return new File(folder, key + ENTRY_EXTENSION);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "Cache: " + getHits() + " hits, " + getMisses() + " misses, " + size() + " entries";
+    }
+}
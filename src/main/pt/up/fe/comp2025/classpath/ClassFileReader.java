@@ -0,0 +1,127 @@
+package pt.up.fe.comp2025.classpath;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the name, the superclass and the method signatures of a .class file. Everything else is skipped.
+ */
+class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+
+    private final String name;
+    private final String superName;
+    private final List<MethodSignature> methods;
+
+    private ClassFileReader(String name, String superName, List<MethodSignature> methods) {
+        this.name = name;
+        this.superName = superName;
+        this.methods = methods;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Internal name of the superclass, or null for java/lang/Object.
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<MethodSignature> getMethods() {
+        return methods;
+    }
+
+    public static ClassFileReader read(byte[] bytes) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        // Only the UTF-8 entries and the class entries that point to them are needed
+        int poolSize = in.readUnsignedShort();
+        var utf8 = new String[poolSize];
+        var classNames = new int[poolSize];
+
+        for (int i = 1; i < poolSize; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_UTF8 -> utf8[i] = in.readUTF();
+                case CONSTANT_CLASS -> classNames[i] = in.readUnsignedShort();
+                case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    in.skipNBytes(8);
+                    // Takes two entries of the pool
+                    i++;
+                }
+                // String, MethodType, Module, Package
+                case 8, 16, 19, 20 -> in.skipNBytes(2);
+                // MethodHandle
+                case 15 -> in.skipNBytes(3);
+                // Integer, Float, field and method refs, NameAndType, Dynamic, InvokeDynamic
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        in.readUnsignedShort(); // access flags
+        var name = utf8[classNames[in.readUnsignedShort()]];
+        int superIndex = in.readUnsignedShort();
+        var superName = superIndex == 0 ? null : utf8[classNames[superIndex]];
+        if ("java/lang/Object".equals(superName)) {
+            superName = null;
+        }
+
+        in.skipNBytes(2L * in.readUnsignedShort()); // interfaces
+
+        // Fields
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.skipNBytes(6);
+            skipAttributes(in);
+        }
+
+        var methods = new ArrayList<MethodSignature>();
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            int access = in.readUnsignedShort();
+            var methodName = utf8[in.readUnsignedShort()];
+            var descriptor = utf8[in.readUnsignedShort()];
+            skipAttributes(in);
+
+            // Constructors are always called with '()V' and private or synthetic methods cannot be called from jmm
+            if (methodName.startsWith("<") || (access & (ACC_PRIVATE | ACC_SYNTHETIC)) != 0) {
+                continue;
+            }
+
+            methods.add(new MethodSignature(name, methodName, descriptor, (access & ACC_STATIC) != 0));
+        }
+
+        return new ClassFileReader(name, superName, methods);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipNBytes(2);
+            in.skipNBytes(Integer.toUnsignedLong(in.readInt()));
+        }
+    }
+}
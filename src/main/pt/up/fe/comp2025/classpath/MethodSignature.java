@@ -0,0 +1,72 @@
+package pt.up.fe.comp2025.classpath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A method of a class on the classpath, as declared in its .class file.
+ */
+public class MethodSignature {
+
+    private final String owner;
+    private final String name;
+    private final String descriptor;
+    private final boolean isStatic;
+
+    public MethodSignature(String owner, String name, String descriptor, boolean isStatic) {
+        this.owner = owner;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.isStatic = isStatic;
+    }
+
+    /**
+     * Internal name of the class that declares the method (e.g. 'foo/bar/A').
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * JVM descriptor of the method (e.g. '(II)I').
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public String getReturnDescriptor() {
+        return descriptor.substring(descriptor.indexOf(')') + 1);
+    }
+
+    /**
+     * Descriptors of each parameter, in order.
+     */
+    public List<String> getParameterDescriptors() {
+        var parameters = new ArrayList<String>();
+
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            int start = i;
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            i = descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+            parameters.add(descriptor.substring(start, i));
+        }
+
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return (isStatic ? "static " : "") + owner + "." + name + descriptor;
+    }
+}
@@ -0,0 +1,462 @@
+package pt.up.fe.comp2025.classpath;
+
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.ConfigOptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+
+/**
+ * Signatures of the methods of the classes on the classpath, read from their .class files.
+ * <p>
+ * Reading every .class file for every compilation would cost more than compiling a small file, so the signatures
+ * are written to an index file the first time and memory-mapped afterwards. Only the table with the position of
+ * each class is read when the index is opened, the methods of a class are decoded the first time it is looked up.
+ * The index is rebuilt when a .class file is added, removed or modified.
+ * <p>
+ * When several files are compiled as a project, the classes of the project are added on top of the classpath with
+ * {@link #withClasses} and the index is registered under the 'projectIndex' option, so every stage of every file
+ * of the project sees the same signatures.
+ * <p>
+ * Index layout: header (magic, version, classpath stamp, table position), then the methods of each class
+ * (superclass, count, then name, descriptor and flags of each method), then the table (name and position of
+ * each class). Strings are written as a length followed by UTF-8 bytes.
+ */
+public class SignatureIndex {
+
+    private static final int MAGIC = 0x4A4D4D53; // "JMMS"
+    private static final int VERSION = 1;
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private static final SignatureIndex EMPTY = new SignatureIndex("", Stamp.NONE, ByteBuffer.allocate(0), Map.of(), Map.of());
+
+    // Indexes already opened by this JVM, by classpath
+    private static final Map<String, SignatureIndex> OPENED = new ConcurrentHashMap<>();
+
+    // Indexes of the projects being compiled, by the key in their 'projectIndex' option
+    private static final Map<String, SignatureIndex> PROJECTS = new ConcurrentHashMap<>();
+
+    // Absolute paths of the classpath entries, separated by the platform path separator
+    private final String classpath;
+    private final Stamp stamp;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> positions;
+    private final Map<String, ClassEntry> classes = new ConcurrentHashMap<>();
+
+    // Classes that are not in the index file, they take precedence over the ones that are
+    private final Map<String, ClassEntry> sources;
+
+    private SignatureIndex(String classpath, Stamp stamp, ByteBuffer buffer, Map<String, Integer> positions,
+                           Map<String, ClassEntry> sources) {
+        this.classpath = classpath;
+        this.stamp = stamp;
+        this.buffer = buffer;
+        this.positions = positions;
+        this.sources = sources;
+    }
+
+    public static SignatureIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Index of the classpath given in the config, see {@link ConfigOptions#getClasspath}. The index file is kept in
+     * the cache folder, if there is one, or in the temporary folder.
+     */
+    public static SignatureIndex of(Map<String, String> config) {
+        var project = ConfigOptions.getProjectIndex(config);
+        if (project != null && PROJECTS.containsKey(project)) {
+            return PROJECTS.get(project);
+        }
+
+        var classpath = ConfigOptions.getClasspath(config);
+        if (classpath.isEmpty()) {
+            return EMPTY;
+        }
+
+        var key = toKey(classpath);
+        var folder = CompilerConfig.getCacheDir(config).orElse(new File(System.getProperty("java.io.tmpdir")));
+        var indexFile = new File(folder, "jmm-signatures-" + Integer.toHexString(key.hashCode()) + ".idx");
+
+        var stamp = Stamp.of(classpath);
+        return OPENED.compute(key, (unused, opened) ->
+                opened != null && opened.stamp.equals(stamp) ? opened : open(classpath, indexFile, stamp));
+    }
+
+    /**
+     * Identifies the signatures {@link #of} gives for the config: the classpath, the stamp of its classes and the
+     * classes added on top of it. Results that depend on the signatures must be cached under keys that include it,
+     * so they are not reused after an imported class changes.
+     */
+    public static String getFingerprint(Map<String, String> config) {
+        var project = ConfigOptions.getProjectIndex(config);
+        if (project != null && PROJECTS.containsKey(project)) {
+            return PROJECTS.get(project).getFingerprint();
+        }
+
+        // Only the stamp is needed, the index is not opened
+        var classpath = ConfigOptions.getClasspath(config);
+        return toKey(classpath) + "\n" + Stamp.of(classpath) + "\n";
+    }
+
+    public String getFingerprint() {
+        var fingerprint = new StringBuilder(classpath).append('\n').append(stamp).append('\n');
+
+        // Sorted, the map has no order
+        sources.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    fingerprint.append(entry.getKey()).append(" extends ").append(entry.getValue().superName);
+                    for (var method : entry.getValue().methods) {
+                        fingerprint.append(' ').append(method.isStatic() ? "static " : "")
+                                .append(method.getName()).append(method.getDescriptor());
+                    }
+                    fingerprint.append('\n');
+                });
+
+        return fingerprint.toString();
+    }
+
+    private static String toKey(List<File> classpath) {
+        return classpath.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    /**
+     * Makes {@link #of} return the given index for configs whose 'projectIndex' option is the given key, until it
+     * is unregistered.
+     */
+    public static void register(String key, SignatureIndex index) {
+        PROJECTS.put(key, index);
+    }
+
+    public static void unregister(String key) {
+        PROJECTS.remove(key);
+    }
+
+    /**
+     * Maps the given index file, first rebuilding it if it is missing or older than the classpath.
+     */
+    public static SignatureIndex open(List<File> classpath, File indexFile) {
+        return open(classpath, indexFile, Stamp.of(classpath));
+    }
+
+    private static SignatureIndex open(List<File> classpath, File indexFile, Stamp stamp) {
+        var key = toKey(classpath);
+
+        try {
+            if (indexFile.isFile()) {
+                var index = map(key, indexFile);
+                if (index != null && index.stamp.equals(stamp)) {
+                    return index;
+                }
+            }
+
+            var bytes = build(classpath, stamp);
+            if (write(indexFile, bytes)) {
+                var index = map(key, indexFile);
+                if (index != null) {
+                    return index;
+                }
+            }
+
+            // The index could not be saved, use it from memory for this run
+            return load(key, ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index the classpath " + classpath, e);
+        }
+    }
+
+    private static SignatureIndex map(String classpath, File indexFile) throws IOException {
+        try (var channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            return load(classpath, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the header and the class table, or returns null if the buffer is not an index of this version.
+     */
+    private static SignatureIndex load(String classpath, ByteBuffer buffer) {
+        if (buffer.limit() < 28 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+
+        var stamp = new Stamp(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20));
+
+        var table = buffer.duplicate().position(buffer.getInt(24));
+        int classCount = table.getInt();
+        var positions = new HashMap<String, Integer>(classCount * 2);
+        for (int i = 0; i < classCount; i++) {
+            positions.put(readString(table), table.getInt());
+        }
+
+        return new SignatureIndex(classpath, stamp, buffer, positions, Map.of());
+    }
+
+    private static byte[] build(List<File> classpath, Stamp stamp) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(stamp.lastModified);
+        out.writeInt(stamp.files);
+        out.writeInt(stamp.names);
+        out.writeInt(0); // position of the table, patched below
+
+        var positions = new HashMap<String, Integer>();
+        for (var classFile : readClasses(classpath)) {
+            // The first class found wins, as in the JVM
+            if (positions.containsKey(classFile.getName())) {
+                continue;
+            }
+
+            positions.put(classFile.getName(), out.size());
+            writeString(out, classFile.getSuperName() != null ? classFile.getSuperName() : "");
+            out.writeInt(classFile.getMethods().size());
+            for (var method : classFile.getMethods()) {
+                writeString(out, method.getName());
+                writeString(out, method.getDescriptor());
+                out.writeByte(method.isStatic() ? 1 : 0);
+            }
+        }
+
+        int tablePosition = out.size();
+        out.writeInt(positions.size());
+        for (var entry : positions.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.flush();
+
+        var index = bytes.toByteArray();
+        ByteBuffer.wrap(index).putInt(24, tablePosition);
+
+        return index;
+    }
+
+    private static List<ClassFileReader> readClasses(List<File> classpath) throws IOException {
+        var classes = new ArrayList<ClassFileReader>();
+
+        for (var entry : classpath) {
+            if (entry.isDirectory()) {
+                for (var classFile : findClassFiles(entry)) {
+                    classes.add(ClassFileReader.read(Files.readAllBytes(classFile.toPath())));
+                }
+            } else if (entry.isFile()) {
+                try (var jar = new ZipFile(entry)) {
+                    for (var jarEntry : jar.stream().filter(e -> e.getName().endsWith(CLASS_EXTENSION)).toList()) {
+                        classes.add(ClassFileReader.read(jar.getInputStream(jarEntry).readAllBytes()));
+                    }
+                }
+            }
+        }
+
+        return classes;
+    }
+
+    private static List<File> findClassFiles(File folder) throws IOException {
+        try (var files = Files.walk(folder.toPath())) {
+            return files.filter(path -> path.toString().endsWith(CLASS_EXTENSION))
+                    .sorted()
+                    .map(java.nio.file.Path::toFile)
+                    .toList();
+        }
+    }
+
+    /**
+     * Writes the index next to its final location and moves it there, so that concurrent compilations never see
+     * a partial index. Returns false if the index could not be written.
+     */
+    private static boolean write(File indexFile, byte[] bytes) {
+        try {
+            Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+            var temp = Files.createTempFile(indexFile.getAbsoluteFile().getParentFile().toPath(), "jmm-signatures", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts a class name as written in an import ('foo.bar.A' or 'foo,bar,A') to an internal name ('foo/bar/A').
+     */
+    public static String toInternalName(String className) {
+        return className.replace('.', '/').replace(',', '/');
+    }
+
+    public boolean hasClass(String internalName) {
+        return sources.containsKey(internalName) || positions.containsKey(internalName);
+    }
+
+    /**
+     * This index plus the given classes, e.g. the classes of a project that are compiled together. Each class is
+     * given by its internal name, with its methods and the internal name of its superclass (null if none).
+     */
+    public SignatureIndex withClasses(Map<String, List<MethodSignature>> methods, Map<String, String> superNames) {
+        var withSources = new HashMap<>(sources);
+        for (var entry : methods.entrySet()) {
+            withSources.put(entry.getKey(), new ClassEntry(superNames.get(entry.getKey()), List.copyOf(entry.getValue())));
+        }
+
+        return new SignatureIndex(classpath, stamp, buffer, positions, withSources);
+    }
+
+    /**
+     * Methods with the given name of a class and of its superclasses, or an empty list if the class is unknown.
+     */
+    public List<MethodSignature> getMethods(String internalName, String methodName) {
+        var methods = new ArrayList<MethodSignature>();
+
+        for (var entry = getClass(internalName); entry != null; entry = getClass(entry.superName)) {
+            for (var method : entry.methods) {
+                if (method.getName().equals(methodName)) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        return methods;
+    }
+
+    /**
+     * Methods with the given name and number of parameters, see {@link #getMethods(String, String)}.
+     */
+    public List<MethodSignature> getMethods(String internalName, String methodName, int parameterCount) {
+        return getMethods(internalName, methodName).stream()
+                .filter(method -> method.getParameterDescriptors().size() == parameterCount)
+                .toList();
+    }
+
+    private ClassEntry getClass(String internalName) {
+        if (internalName == null) {
+            return null;
+        }
+
+        var source = sources.get(internalName);
+        if (source != null) {
+            return source;
+        }
+
+        var position = positions.get(internalName);
+        if (position == null) {
+            return null;
+        }
+
+        return classes.computeIfAbsent(internalName, name -> decode(name, position));
+    }
+
+    private ClassEntry decode(String internalName, int position) {
+        // Absolute reads on a private view, the index is shared between threads
+        var in = buffer.duplicate().position(position);
+
+        var superName = readString(in);
+        int methodCount = in.getInt();
+        var methods = new ArrayList<MethodSignature>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            var name = readString(in);
+            var descriptor = readString(in);
+            methods.add(new MethodSignature(internalName, name, descriptor, in.get() == 1));
+        }
+
+        return new ClassEntry(superName.isEmpty() ? null : superName, methods);
+    }
+
+    private static class ClassEntry {
+        private final String superName;
+        private final List<MethodSignature> methods;
+
+        private ClassEntry(String superName, List<MethodSignature> methods) {
+            this.superName = superName;
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * What the index was built from: the latest modification time and the number of .class files (or jars), and a
+     * hash of their paths. Any change to the classpath changes at least one of them.
+     */
+    private static class Stamp {
+
+        private static final Stamp NONE = new Stamp(0, 0, 0);
+
+        private final long lastModified;
+        private final int files;
+        private final int names;
+
+        private Stamp(long lastModified, int files, int names) {
+            this.lastModified = lastModified;
+            this.files = files;
+            this.names = names;
+        }
+
+        private static Stamp of(List<File> classpath) {
+            long lastModified = 0;
+            int files = 0;
+            int names = 1;
+
+            for (var entry : classpath) {
+                List<File> entryFiles;
+                try {
+                    entryFiles = entry.isDirectory() ? findClassFiles(entry) : entry.isFile() ? List.of(entry) : List.of();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read the classpath entry " + entry, e);
+                }
+
+                for (var file : entryFiles) {
+                    lastModified = Math.max(lastModified, file.lastModified());
+                    files++;
+                    names = 31 * names + file.getPath().hashCode();
+                }
+            }
+
+            return new Stamp(lastModified, files, names);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Stamp stamp && lastModified == stamp.lastModified && files == stamp.files
+                    && names == stamp.names;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 + files * 17 + names;
+        }
+
+        @Override
+        public String toString() {
+            return lastModified + "-" + files + "-" + Integer.toHexString(names);
+        }
+    }
+}
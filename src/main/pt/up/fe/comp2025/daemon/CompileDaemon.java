@@ -0,0 +1,199 @@
+package pt.up.fe.comp2025.daemon;
+
+import com.google.gson.Gson;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.jasmin.JasminUtils;
+import pt.up.fe.comp2025.CompilationResult;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.JmmCompiler;
+import pt.up.fe.comp2025.cache.CompilationCache;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running compiler that listens on a loopback port, so that ANTLR, the parser DFA cache and the JIT-compiled
+ * visitors stay warm between compilations.
+ * <p>
+ * Each connection carries a single {@link CompileRequest} and gets back a single {@link CompileResponse},
+ * both as one line of JSON. Requests are compiled in parallel by a fixed pool of workers.
+ * If the daemon has a {@link CompilationCache}, it is shared by every request and also keeps the class files.
+ */
+public class CompileDaemon {
+
+    public static final int DEFAULT_PORT = 4373;
+
+    /**
+     * Environment variable used by {@link JmmClient} and the jmm script to find the daemon.
+     */
+    public static final String PORT_ENV = "JMM_DAEMON_PORT";
+
+    private static final Gson GSON = new Gson();
+
+    // Jasmin keeps static state while assembling, do not let two requests assemble at the same time
+    private static final Object ASSEMBLE_LOCK = new Object();
+
+    private final int port;
+    private final ExecutorService workers;
+    private final CompilationCache cache;
+    private ServerSocket serverSocket;
+
+    public CompileDaemon(int port) {
+        this(port, null);
+    }
+
+    public CompileDaemon(int port, CompilationCache cache) {
+        this(port, cache, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CompileDaemon(int port, CompilationCache cache, int threads) {
+        this.port = port;
+        this.cache = cache;
+        this.workers = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Port given by the environment variable {@link #PORT_ENV}, or the default port.
+     */
+    public static int getPort() {
+        var port = System.getenv(PORT_ENV);
+        return port == null || port.isBlank() ? DEFAULT_PORT : Integer.parseInt(port.strip());
+    }
+
+    /**
+     * Accepts connections until a shutdown request arrives.
+     */
+    public void run() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        System.out.println("jmm daemon listening on " + serverSocket.getLocalSocketAddress());
+
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    // Socket was closed by a shutdown request
+                    if (serverSocket.isClosed()) {
+                        break;
+                    }
+                    throw e;
+                }
+
+                workers.submit(() -> serve(socket));
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            var line = in.readLine();
+            if (line == null) {
+                return;
+            }
+
+            var request = GSON.fromJson(line, CompileRequest.class);
+
+            CompileResponse response;
+            if (CompileRequest.SHUTDOWN.equals(request.getCommand())) {
+                response = new CompileResponse();
+                response.setSuccess(true);
+            } else {
+                response = handle(request);
+            }
+
+            out.println(GSON.toJson(response));
+            out.flush();
+
+            if (CompileRequest.SHUTDOWN.equals(request.getCommand())) {
+                stop();
+            }
+        } catch (Exception e) {
+            // A broken connection only affects its own client
+            System.err.println("jmm daemon: could not serve request: " + e.getMessage());
+        }
+    }
+
+    private CompileResponse handle(CompileRequest request) {
+        var config = CompilerConfig.getDefault();
+        if (request.getConfig() != null) {
+            config.putAll(request.getConfig());
+        }
+
+        CompilationResult result = new JmmCompiler(config, cache).compile(new File(request.getSource()));
+
+        var response = new CompileResponse();
+        response.setSuccess(result.isSuccess());
+        response.setReports(result.getReports().stream().map(Object::toString).toList());
+        result.getOllirCode().ifPresent(response::setOllirCode);
+
+        result.getClassName().ifPresent(response::setClassName);
+        result.getClassFile().filter(bytes -> request.isAssemble() || result.getJasminResult().isEmpty())
+                .ifPresent(bytes -> response.setClassFile(Base64.getEncoder().encodeToString(bytes)));
+
+        result.getJasminResult().ifPresent(jasmin -> {
+            response.setJasminCode(jasmin.getJasminCode());
+
+            if (request.isAssemble() && result.isSuccess() && result.getClassFile().isEmpty()) {
+                var classFile = assemble(jasmin);
+                response.setClassFile(Base64.getEncoder().encodeToString(classFile));
+
+                if (cache != null) {
+                    result.getCacheKey().ifPresent(key -> cache.putClassFile(key, classFile));
+                }
+            }
+        });
+
+        return response;
+    }
+
+    private byte[] assemble(JasminResult jasmin) {
+        File tempDir = null;
+        try {
+            tempDir = Files.createTempDirectory("jmm-daemon").toFile();
+            var jasminFile = new File(tempDir, jasmin.getClassName() + ".j");
+            SpecsIo.write(jasminFile, jasmin.getJasminCode());
+
+            File classFile;
+            synchronized (ASSEMBLE_LOCK) {
+                classFile = JasminUtils.assemble(jasminFile, tempDir);
+            }
+
+            return Files.readAllBytes(classFile.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (tempDir != null) {
+                SpecsIo.deleteFolder(tempDir);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : getPort();
+        new CompileDaemon(port).run();
+    }
+}
@@ -0,0 +1,52 @@
+package pt.up.fe.comp2025.daemon;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request sent by {@link JmmClient} to the {@link CompileDaemon}, serialized as a single line of JSON.
+ */
+public class CompileRequest {
+
+    public static final String COMPILE = "compile";
+    public static final String SHUTDOWN = "shutdown";
+
+    private String command = COMPILE;
+    private String source;
+    private Map<String, String> config = new HashMap<>();
+    private boolean assemble;
+
+    public CompileRequest() {
+    }
+
+    public CompileRequest(String source, Map<String, String> config, boolean assemble) {
+        this.source = source;
+        this.config = config;
+        this.assemble = assemble;
+    }
+
+    public static CompileRequest shutdown() {
+        var request = new CompileRequest();
+        request.command = SHUTDOWN;
+        return request;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Map<String, String> getConfig() {
+        return config;
+    }
+
+    /**
+     * If true, the daemon also assembles the Jasmin code and returns the bytes of the class file.
+     */
+    public boolean isAssemble() {
+        return assemble;
+    }
+}
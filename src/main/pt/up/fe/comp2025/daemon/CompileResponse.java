@@ -0,0 +1,67 @@
+package pt.up.fe.comp2025.daemon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answer of the {@link CompileDaemon} to a {@link CompileRequest}, serialized as a single line of JSON.
+ * <p>
+ * The class file is Base64 encoded, and only present if the request asked for it.
+ */
+public class CompileResponse {
+
+    private boolean success;
+    private List<String> reports = new ArrayList<>();
+    private String className;
+    private String ollirCode;
+    private String jasminCode;
+    private String classFile;
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public List<String> getReports() {
+        return reports;
+    }
+
+    public void setReports(List<String> reports) {
+        this.reports = reports;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getOllirCode() {
+        return ollirCode;
+    }
+
+    public void setOllirCode(String ollirCode) {
+        this.ollirCode = ollirCode;
+    }
+
+    public String getJasminCode() {
+        return jasminCode;
+    }
+
+    public void setJasminCode(String jasminCode) {
+        this.jasminCode = jasminCode;
+    }
+
+    public String getClassFile() {
+        return classFile;
+    }
+
+    public void setClassFile(String classFile) {
+        this.classFile = classFile;
+    }
+}
@@ -0,0 +1,115 @@
+package pt.up.fe.comp2025.daemon;
+
+import com.google.gson.Gson;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.Launcher;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Thin client for the {@link CompileDaemon}. Takes the same arguments as the Launcher, sends the file to the daemon
+ * and prints the reports.
+ * <p>
+ * If an output folder is given with '-d', writes the Jasmin code and the assembled class file there,
+ * otherwise prints the Jasmin code. Use '--stop' to shut the daemon down.
+ * <p>
+ * The daemon only compiles single files given with '-i'. Other modes (batch, project, profile and the daemon itself)
+ * run in this process through the {@link Launcher}.
+ */
+public class JmmClient {
+
+    private static final Gson GSON = new Gson();
+
+    private final int port;
+
+    public JmmClient(int port) {
+        this.port = port;
+    }
+
+    public CompileResponse compile(File source, Map<String, String> config, boolean assemble) throws IOException {
+        return send(new CompileRequest(source.getAbsolutePath(), config, assemble));
+    }
+
+    public void shutdown() throws IOException {
+        send(CompileRequest.shutdown());
+    }
+
+    private CompileResponse send(CompileRequest request) throws IOException {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+
+            out.println(GSON.toJson(request));
+            out.flush();
+
+            var line = in.readLine();
+            if (line == null) {
+                throw new IOException("Daemon closed the connection without answering");
+            }
+
+            return GSON.fromJson(line, CompileResponse.class);
+        }
+    }
+
+    /**
+     * Checks if the daemon can serve the given configuration, a compilation of a single file given with '-i'.
+     */
+    public static boolean isDaemonCompile(Map<String, String> config) {
+        return CompilerConfig.getInputFile(config).isPresent()
+                && !CompilerConfig.isBatch(config)
+                && !CompilerConfig.isProject(config)
+                && !CompilerConfig.isProfile(config)
+                && !CompilerConfig.isServer(config);
+    }
+
+    public static void main(String[] args) throws IOException {
+        var client = new JmmClient(CompileDaemon.getPort());
+
+        if (args.length == 1 && args[0].equals("--stop")) {
+            client.shutdown();
+            return;
+        }
+
+        Map<String, String> config = CompilerConfig.parseArgs(args);
+        if (!isDaemonCompile(config)) {
+            Launcher.main(args);
+            return;
+        }
+
+        var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
+        var outputDir = CompilerConfig.getOutputDir(config);
+
+        var response = client.compile(inputFile, config, outputDir.isPresent());
+
+        for (var report : response.getReports()) {
+            System.out.println(report);
+        }
+
+        if (!response.isSuccess()) {
+            System.exit(1);
+        }
+
+        if (outputDir.isEmpty()) {
+            if (response.getJasminCode() != null) {
+                System.out.println(response.getJasminCode());
+            }
+            return;
+        }
+
+        SpecsIo.mkdir(outputDir.get());
+        if (response.getJasminCode() != null) {
+            SpecsIo.write(new File(outputDir.get(), response.getClassName() + ".j"), response.getJasminCode());
+        }
+        if (response.getClassFile() != null) {
+            Files.write(new File(outputDir.get(), response.getClassName() + ".class").toPath(),
+                    Base64.getDecoder().decode(response.getClassFile()));
+        }
+    }
+}
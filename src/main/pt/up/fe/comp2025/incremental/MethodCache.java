@@ -0,0 +1,139 @@
+package pt.up.fe.comp2025.incremental;
+
+import pt.up.fe.comp2025.ConfigOptions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the output of each stage for single methods, so that recompiling a class only regenerates the methods
+ * that changed. Shared by every compilation in the same JVM (e.g., the daemon or a batch run).
+ * <p>
+ * The OLLIR code of a method is keyed by its {@link MethodFingerprint}. The later stages only see the parsed OLLIR,
+ * so the OLLIR generator passes them a key per method (the fingerprint plus the OLLIR code of the method) through
+ * the config, under {@link #METHOD_KEYS}. The register assignment and the Jasmin code are keyed by it.
+ */
+public class MethodCache {
+
+    /**
+     * Config entry with the key of each method, as 'name=key' pairs separated by ';'.
+     */
+    public static final String METHOD_KEYS = "incrementalMethodKeys";
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final MethodCache INSTANCE = new MethodCache();
+
+    private final Map<String, String> ollirCode = lruMap();
+    private final Map<String, Map<String, Integer>> registers = lruMap();
+    private final Map<String, String> jasminCode = lruMap();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static <V> Map<String, V> lruMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        });
+    }
+
+    public static MethodCache get() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled(Map<String, String> config) {
+        return ConfigOptions.getIncremental(config);
+    }
+
+    /**
+     * Key used by the stages after OLLIR generation for a method with the given fingerprint and code.
+     */
+    public static String methodKey(String fingerprint, String ollirCode) {
+        return MethodFingerprint.hash(fingerprint + "\n" + ollirCode);
+    }
+
+    public static String encodeMethodKeys(Map<String, String> methodKeys) {
+        var sb = new StringBuilder();
+
+        for (var entry : methodKeys.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append(';');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Method keys passed by the OLLIR generator, empty if incremental compilation is disabled.
+     */
+    public static Map<String, String> getMethodKeys(Map<String, String> config) {
+        var methodKeys = new HashMap<String, String>();
+        var encoded = config.get(METHOD_KEYS);
+
+        if (encoded == null || !isEnabled(config)) {
+            return methodKeys;
+        }
+
+        for (var pair : encoded.split(";")) {
+            var separator = pair.indexOf('=');
+            if (separator > 0) {
+                methodKeys.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+
+        return methodKeys;
+    }
+
+    public String getOllirCode(String fingerprint) {
+        return count(ollirCode.get(fingerprint));
+    }
+
+    public void putOllirCode(String fingerprint, String code) {
+        ollirCode.put(fingerprint, code);
+    }
+
+    public Map<String, Integer> getRegisters(String methodKey) {
+        return count(registers.get(methodKey));
+    }
+
+    public void putRegisters(String methodKey, Map<String, Integer> assignment) {
+        registers.put(methodKey, Map.copyOf(assignment));
+    }
+
+    public String getJasminCode(String methodKey) {
+        return count(jasminCode.get(methodKey));
+    }
+
+    public void putJasminCode(String methodKey, String code) {
+        jasminCode.put(methodKey, code);
+    }
+
+    private <T> T count(T value) {
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void clear() {
+        ollirCode.clear();
+        registers.clear();
+        jasminCode.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package pt.up.fe.comp2025.incremental;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hashes a MethodDecl subtree together with everything in the symbol table the generated code of the method
+ * can depend on (class, superclass, imports, fields and the signatures of every method), the signatures of the
+ * classpath and the options that change the generated code.
+ * <p>
+ * Source positions are left out, so editing one method does not change the fingerprint of the methods below it.
+ */
+public class MethodFingerprint {
+
+    private static final Set<String> IGNORED_ATTRIBUTES = Set.of("lineStart", "colStart", "lineEnd", "colEnd");
+
+    private final SymbolTable table;
+    private final Map<String, String> config;
+
+    // The class part is the same for every method, compute it once
+    private String classPart;
+
+    public MethodFingerprint(SymbolTable table, Map<String, String> config) {
+        this.table = table;
+        this.config = config;
+    }
+
+    public String compute(JmmNode methodDecl) {
+        var sb = new StringBuilder();
+
+        if (classPart == null) {
+            classPart = buildClassPart();
+        }
+        sb.append(classPart);
+
+        var methodName = methodDecl.get("name");
+        sb.append("locals ").append(symbols(table.getLocalVariables(methodName))).append('\n');
+        appendNode(methodDecl, sb);
+
+        return hash(sb.toString());
+    }
+
+    private String buildClassPart() {
+        var sb = new StringBuilder();
+
+        sb.append("optimize ").append(ConfigOptions.getOptimize(config)).append('\n');
+        sb.append("deadCode ").append(ConfigOptions.getDeadCodeElimination(config)).append('\n');
+        sb.append("registers ").append(ConfigOptions.getRegisterAllocation(config)).append('\n');
+        sb.append("class ").append(table.getClassName()).append(" extends ").append(table.getSuper()).append('\n');
+        sb.append("imports ").append(table.getImports()).append('\n');
+        sb.append("signatures ").append(SignatureIndex.getFingerprint(config)).append('\n');
+        sb.append("fields ").append(symbols(table.getFields())).append('\n');
+
+        for (var method : table.getMethods()) {
+            sb.append("method ").append(method)
+                    .append(' ').append(table.getReturnType(method))
+                    .append(' ').append(symbols(table.getParameters(method)))
+                    .append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static String symbols(List<Symbol> symbols) {
+        if (symbols == null) {
+            return "[]";
+        }
+
+        return symbols.stream().map(symbol -> symbol.getType() + " " + symbol.getName()).toList().toString();
+    }
+
+    private static void appendNode(JmmNode node, StringBuilder sb) {
+        sb.append('(').append(node.getKind());
+
+        // Sorted, so that the order in which the attributes were added does not matter
+        for (var attribute : new TreeSet<>(node.getAttributes())) {
+            if (IGNORED_ATTRIBUTES.contains(attribute)) {
+                continue;
+            }
+
+            // Objects attached by later passes are derived from the tree itself
+            if (node.getObject(attribute) instanceof String value) {
+                sb.append(' ').append(attribute).append('=').append(value.length()).append(':').append(value);
+            }
+        }
+
+        for (var child : node.getChildren()) {
+            appendNode(child, sb);
+        }
+
+        sb.append(')');
+    }
+
+    static String hash(String text) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,10 +3,14 @@ package pt.up.fe.comp2025.optimization;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ollir.JmmOptimization;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.incremental.MethodCache;
 import pt.up.fe.comp2025.optimization.optimi.AstOptimizerVisitor;
 import pt.up.fe.comp2025.optimization.optimi.OllirOptimizerVisitor;
+import pt.up.fe.comp2025.profile.StageProfiler;
 
 import java.util.Collections;
+import java.util.HashMap;
 
 public class JmmOptimizationImpl implements JmmOptimization {
 
@@ -14,14 +18,33 @@ public class JmmOptimizationImpl implements JmmOptimization {
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
 
         // Create visitor that will generate the OLLIR code
-        var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable());
+        var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable(), semanticsResult.getConfig());
 
         // Visit the AST and obtain OLLIR code
-        var ollirCode = visitor.visit(semanticsResult.getRootNode());
+        var profiler = StageProfiler.current();
+        var rootNode = semanticsResult.getRootNode();
+        var types = new TypeUtils(semanticsResult.getSymbolTable());
+        profiler.time("expression types", () -> types.annotateTypes(rootNode));
+        var ollirCode = profiler.time("ast to ollir", () -> visitor.visit(rootNode));
 
         //System.out.println("\nOLLIR:\n\n" + ollirCode);
 
-        return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+        // With incremental compilation, the later stages need the key of each method
+        if (!visitor.getMethodKeys().isEmpty()) {
+            var config = new HashMap<>(semanticsResult.getConfig());
+            config.put(MethodCache.METHOD_KEYS, MethodCache.encodeMethodKeys(visitor.getMethodKeys()));
+
+            semanticsResult = new JmmSemanticsResult(
+                    semanticsResult.getRootNode(),
+                    semanticsResult.getSymbolTable(),
+                    semanticsResult.getReports(),
+                    config
+            );
+        }
+
+        // Creating the OllirResult parses the generated code
+        var ollirSemantics = semanticsResult;
+        return profiler.time("ollir parsing", () -> new OllirResult(ollirSemantics, ollirCode, Collections.emptyList()));
     }
 
     @Override
@@ -36,7 +59,7 @@ public class JmmOptimizationImpl implements JmmOptimization {
         }
 
         // Apply AST-level optimizations in-place
-        var optimizer = new AstOptimizerVisitor();
+        var optimizer = new AstOptimizerVisitor(semanticsResult.getSymbolTable());
         optimizer.visit(semanticsResult.getRootNode());
 
         // Return the updated semantics result (AST is modified in-place)
@@ -1,10 +1,9 @@
 package pt.up.fe.comp2025.optimization;
 
-import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp2025.ast.PreorderKindVisitor;
 import pt.up.fe.comp2025.ast.TypeUtils;
 import pt.up.fe.comp2025.optimization.OllirGeneratorVisitor;
 
@@ -16,7 +15,7 @@ import static pt.up.fe.comp2025.ast.Kind.*;
  * Generates OLLIR code from JmmNodes that are expressions.
  */
 public class OllirExprGeneratorVisitor
-        extends PreorderJmmVisitor<Void, OllirExprResult> {
+        extends PreorderKindVisitor<Void, OllirExprResult> {
 
     private int thenLabelCounter = 0;
     private int endifLabelCounter = 0;
@@ -86,31 +85,11 @@ public class OllirExprGeneratorVisitor
             return new OllirExprResult(id + ollirType);
         }
 
-        String methodName = getEnclosingMethod(node);
-
-        if (methodName != null) {
-            boolean isLocalOrParam = false;
-
-            // Verificar nos parâmetros
-            for (Symbol param : table.getParameters(methodName)) {
-                if (param.getName().equals(id)) {
-                    isLocalOrParam = true;
-                    break;
-                }
-            }
-
-            // Se não for parâmetro, verificar nas variáveis locais
-            if (!isLocalOrParam) {
-                for (Symbol local : table.getLocalVariables(methodName)) {
-                    if (local.getName().equals(id)) {
-                        isLocalOrParam = true;
-                        break;
-                    }
-                }
-            }
+        var binding = types.getBinding(node);
 
+        if (binding.getMethod() != null) {
             // Se não for uma variável local ou parâmetro, então é um campo da classe
-            if (!isLocalOrParam) {
+            if (!binding.isLocalOrParam()) {
                 // Field access - include type suffix
                 String fieldWithType = id + ollirType;  // e.g., "intField.i32"
                 String tmp = ollirTypes.nextTemp() + ollirType;
@@ -127,16 +106,6 @@ public class OllirExprGeneratorVisitor
         return new OllirExprResult(id + ollirType);
     }
 
-    private String getEnclosingMethod(JmmNode node) {
-        JmmNode current = node;
-        while (current != null) {
-            if (current.getKind().equals("MethodDecl") && current.hasAttribute("name")) {
-                return current.get("name");
-            }
-            current = current.getParent();
-        }
-        return null;
-    }
 
     private OllirExprResult visitBinExpr(JmmNode node, Void unused) {
         if (node.getNumChildren() != 2) {
@@ -252,7 +221,8 @@ public class OllirExprGeneratorVisitor
         String retOllir = ollirTypes.toOllirType(retType);
 
         // Verifica se o receptor é uma classe importada
-        if (types.isImported(recv.get("name"))) {
+        boolean isImportedClass = types.isImported(recv.get("name"));
+        if (isImportedClass && retType.getName().equals("void")) {
             comp.append("invokestatic(")
                     .append(recv.get("name")).append(", \"")
                     .append(node.get("name")).append("\"");
@@ -266,7 +236,7 @@ public class OllirExprGeneratorVisitor
         }
 
         // Determine if this is a static call
-        boolean isStatic = table.getImports().contains(recv.get("name"));
+        boolean isStatic = isImportedClass || table.getImports().contains(recv.get("name"));
 
         if (retType.getName().equals("void")) {
             if (isStatic) {
@@ -3,11 +3,16 @@ package pt.up.fe.comp2025.optimization;
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.KindVisitor;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.incremental.MethodCache;
+import pt.up.fe.comp2025.incremental.MethodFingerprint;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static pt.up.fe.comp2025.ast.Kind.*;
@@ -15,7 +20,7 @@ import static pt.up.fe.comp2025.ast.Kind.*;
 /**
  * Generates OLLIR code from JmmNodes that are not pure expressions.
  */
-public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
+public class OllirGeneratorVisitor extends KindVisitor<Void, String> {
 
     private static final String SPACE     = " ";
     private static final String ASSIGN    = ":=";
@@ -29,8 +34,17 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
     private final OptUtils               ollirTypes;
     private final OllirExprGeneratorVisitor exprVisitor;
 
+    // Only set when incremental compilation is enabled
+    private final MethodFingerprint fingerprint;
+    private final Map<String, String> methodKeys = new LinkedHashMap<>();
+
     public OllirGeneratorVisitor(SymbolTable table) {
+        this(table, Collections.emptyMap());
+    }
+
+    public OllirGeneratorVisitor(SymbolTable table, Map<String, String> config) {
         this.table       = table;
+        this.fingerprint = MethodCache.isEnabled(config) ? new MethodFingerprint(table, config) : null;
         this.types       = new TypeUtils(table);
         this.ollirTypes  = new OptUtils(types);
         this.exprVisitor = new OllirExprGeneratorVisitor(table);
@@ -97,7 +111,7 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
         // Process methods
         for (JmmNode method : node.getChildren(Kind.METHOD_DECL)) {
-            sb.append(visit(method, null));
+            sb.append(fingerprint == null ? visit(method, null) : visitMethodIncremental(method));
         }
 
         sb.append(R_BRACKET).append(NL);
@@ -159,6 +173,30 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         return sb.toString();
     }
 
+    /**
+     * Reuses the OLLIR code of the method if it did not change since the last time it was compiled.
+     */
+    private String visitMethodIncremental(JmmNode node) {
+        var cache = MethodCache.get();
+        var methodFingerprint = fingerprint.compute(node);
+
+        var code = cache.getOllirCode(methodFingerprint);
+        if (code == null) {
+            code = visit(node, null);
+            cache.putOllirCode(methodFingerprint, code);
+        }
+
+        methodKeys.put(node.get("name"), MethodCache.methodKey(methodFingerprint, code));
+        return code;
+    }
+
+    /**
+     * Key of each method for the later stages, see {@link MethodCache}. Empty if incremental compilation is disabled.
+     */
+    public Map<String, String> getMethodKeys() {
+        return methodKeys;
+    }
+
     private String visitParam(JmmNode node, Void unused) {
         return node.get("name") +
                 ollirTypes.toOllirType(types.convertType(node.getChild(0)));
@@ -188,30 +226,10 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         }
 
         // Handle regular variable assignments
-        String methodName = getEnclosingMethod(node);
-        if (methodName != null) {
-            boolean isLocalOrParam = false;
-
-            // Check parameters first
-            for (Symbol param : table.getParameters(methodName)) {
-                if (param.getName().equals(lhs)) {
-                    isLocalOrParam = true;
-                    break;
-                }
-            }
-
-            // If it's not a parameter, check local variables
-            if (!isLocalOrParam) {
-                for (Symbol local : table.getLocalVariables(methodName)) {
-                    if (local.getName().equals(lhs)) {
-                        isLocalOrParam = true;
-                        break;
-                    }
-                }
-            }
-
+        var binding = types.getBinding(node);
+        if (binding.getMethod() != null) {
             // If it's not a local variable or parameter, then it's a field
-            if (!isLocalOrParam) {
+            if (!binding.isLocalOrParam()) {
                 // Field assignment
                 String fieldWithType = lhs + ollirT;
                 return rhs.getComputation() +
@@ -239,16 +257,6 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
                 " :=" + ollirT + " " + value + ollirT + END_STMT;
     }
 
-    private String getEnclosingMethod(JmmNode node) {
-        JmmNode current = node;
-        while (current != null) {
-            if (current.getKind().equals("MethodDecl") && current.hasAttribute("name")) {
-                return current.get("name");
-            }
-            current = current.getParent();
-        }
-        return null;
-    }
 
     private String visitReturnStmt(JmmNode node, Void unused) {
         var expr = node.getNumChildren()==0
@@ -269,7 +277,11 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
     private String visitMethodCallStmt(JmmNode node, Void unused) {
         var call = exprVisitor.visit(node);
 
-        if (call.getComputation().endsWith(END_STMT) || call.getCode().endsWith(END_STMT)) {
+        // The result of a call used as a statement is discarded, only the computation that assigns it is kept
+        if (call.getComputation().endsWith(END_STMT)) {
+            return call.getComputation();
+        }
+        if (call.getCode().endsWith(END_STMT)) {
             return call.getComputation() + call.getCode();
         }
         return call.getComputation() + call.getCode() + END_STMT;
@@ -303,6 +315,11 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
                     || first.getKind().equals("LengthAccess")
                     || first.getKind().equals("UnaryOp")) {
                 var e = exprVisitor.visit(first);
+
+                // The value is discarded, once it is computed into a temporary there is nothing left to do
+                if (e.getComputation().endsWith(END_STMT)) {
+                    return e.getComputation();
+                }
                 return e.getComputation() + e.getCode() + END_STMT;
             }
         }
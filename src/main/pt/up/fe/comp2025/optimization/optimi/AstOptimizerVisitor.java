@@ -1,136 +1,212 @@
 package pt.up.fe.comp2025.optimization.optimi;
 
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.KindVisitor;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.profile.StageProfiler;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-public class AstOptimizerVisitor extends AJmmVisitor<Void, Void> {
+public class AstOptimizerVisitor extends KindVisitor<Void, Void> {
+
+    private final ConstantPropagation propagation;
+
+    // Set by the visits that rewrite the AST
+    private boolean changed;
+
+    public AstOptimizerVisitor(SymbolTable table) {
+        this.propagation = new ConstantPropagation(new TypeUtils(table));
+    }
 
     @Override
     protected void buildVisitor() {
-        addVisit("BinaryOp", this::visitBinaryOp);
-        addVisit("AssignStmt", this::visitAssignment);
-        addVisit("Identifier", this::visitIdentifier);
-        addVisit("ReturnStmt", this::visitReturn);
-        addVisit("WhileStmt", this::visitWhileStmt);
+        addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
+        addVisit(Kind.BINARY_OP, this::visitBinaryOp);
+        addVisit(Kind.UNARY_OP, this::visitUnaryOp);
+        addVisit(Kind.PRIMARY, this::visitPrimary);
+        addVisit(Kind.IF_STMT, this::visitIfStmt);
+        addVisit(Kind.WHILE_STMT, this::visitWhileStmt);
+        addVisit(Kind.FOR_STMT, this::visitForStmt);
         setDefaultVisit(this::defaultVisit);
     }
 
     private Void visitBinaryOp(JmmNode node, Void unused) {
         // Recursively visit children first
-        for (JmmNode child : node.getChildren()) {
-            visit(child);
-        }
+        defaultVisit(node, unused);
 
         String op = node.get("op");
         JmmNode left = node.getChild(0);
         JmmNode right = node.getChild(1);
 
-        // Check if both operands are integer literals
-        if (left.getKind().equals("Literal") && right.getKind().equals("Literal")) {
-            int leftVal = Integer.parseInt(left.get("value"));
-            int rightVal = Integer.parseInt(right.get("value"));
-            int result;
-
-            switch (op) {
-                case "+" -> result = leftVal + rightVal;
-                case "-" -> result = leftVal - rightVal;
-                case "*" -> result = leftVal * rightVal;
-                case "/" -> result = rightVal != 0 ? leftVal / rightVal : 0; // Prevent division by 0
-                default -> {
-                    return null; // Unsupported operation
-                }
+        if (!left.getKind().equals("Literal")) {
+            return null;
+        }
+
+        // 'false && x' and 'true || x' never evaluate x, 'true && x' and 'false || x' are x
+        if (op.equals("&&") || op.equals("||")) {
+            String shortCircuit = ConstantFolding.shortCircuit(op, left.get("value"));
+            if (shortCircuit != null) {
+                replaceWithLiteral(node, shortCircuit);
+            } else if (getBooleanValue(left) != null) {
+                node.removeChild(right);
+                TypeUtils.invalidateType(node);
+                node.replace(right);
+                changed = true;
             }
 
-            // Create a new Literal node with the folded result
-            JmmNode folded = new JmmNodeImpl(List.of("Literal"));
-            folded.put("value", String.valueOf(result));
+            return null;
+        }
 
-            // Replace current BinaryOp node with the new folded literal
-            node.replace(folded);
+        // Check if both operands are literals with a value known at compile time
+        if (right.getKind().equals("Literal")) {
+            String result = ConstantFolding.evaluate(op, left.get("value"), right.get("value"));
+            if (result != null) {
+                replaceWithLiteral(node, result);
+            }
         }
 
         return null;
     }
 
-    private final Map<String, String> constantTable = new HashMap<>();
-
-    private Void visitAssignment(JmmNode node, Void unused) {
-        String varName = node.get("name");
-        JmmNode valueNode = node.getChild(0);
+    private Void visitUnaryOp(JmmNode node, Void unused) {
+        defaultVisit(node, unused);
 
-        // Propaga constantes
-        if (valueNode.getKind().equals("Literal")) {
-            constantTable.put(varName, valueNode.get("value"));
-        } else {
-            constantTable.remove(varName);
+        JmmNode operand = node.getChild(0);
+        if (operand.getKind().equals("Literal")) {
+            String result = ConstantFolding.not(operand.get("value"));
+            if (result != null) {
+                replaceWithLiteral(node, result);
+            }
         }
 
-        visit(valueNode);
         return null;
     }
 
-    private Void visitIdentifier(JmmNode node, Void unused) {
-        String varName = node.get("name");
+    private Void visitPrimary(JmmNode node, Void unused) {
+        defaultVisit(node, unused);
 
-        // Substitui a variável pelo valor constante, se existir
-        if (constantTable.containsKey(varName)) {
-            JmmNode constantNode = new JmmNodeImpl(Collections.singletonList("Literal"));
-            constantNode.put("value", constantTable.get(varName));
-            node.replace(constantNode);
+        // Parentheses around a constant are not needed
+        JmmNode expr = node.getChild(0);
+        if (expr.getKind().equals("Literal") && ConstantFolding.isConstant(expr.get("value"))) {
+            replaceWithLiteral(node, expr.get("value"));
         }
 
         return null;
     }
 
-    private Void visitReturn(JmmNode node, Void unused) {
-        JmmNode returnValue = node.getChild(0);
+    private Void visitIfStmt(JmmNode node, Void unused) {
+        defaultVisit(node, unused);
 
-        // Verifica se o retorno é uma variável
-        if (returnValue.getKind().equals("Identifier")) {
-            String varName = returnValue.get("name");
-
-            // Substitui a variável pelo valor constante, se existir
-            if (constantTable.containsKey(varName)) {
-                JmmNode constantNode = new JmmNodeImpl(Collections.singletonList("Literal"));
-                constantNode.put("value", constantTable.get(varName));
-                returnValue.replace(constantNode);
-            }
+        // Only the branch the condition chooses is kept
+        String condition = getBooleanValue(node.getChild(0));
+        if (condition != null) {
+            replaceStmt(node, node.getChild(condition.equals("true") ? 1 : 2));
         }
 
         return null;
     }
 
     private Void visitWhileStmt(JmmNode node, Void unused) {
-        // Otimiza a condição do loop
-        JmmNode condition = node.getChild(0);
-        JmmNode body = node.getChild(1);
-
-        visit(body);
-        visit(condition);
-
-        // Remove do constantTable qualquer variável que é modificada no loop
-        if (body.getKind().equals("BlockStmt")) {
-            for (JmmNode stmt : body.getChildren()) {
-                if (stmt.getKind().equals("AssignStmt")) {
-                    String varName = stmt.get("name");
-                    constantTable.remove(varName);
-                }
-            }
+        defaultVisit(node, unused);
+
+        // A loop whose condition is false never runs, one whose condition is true is kept
+        if ("false".equals(getBooleanValue(node.getChild(0)))) {
+            replaceStmt(node, null);
         }
 
         return null;
     }
 
+    private Void visitForStmt(JmmNode node, Void unused) {
+        defaultVisit(node, unused);
+
+        // Only the initialization of a loop that never runs is left
+        if ("false".equals(getBooleanValue(node.getChild(1)))) {
+            replaceStmt(node, node.getChild(0));
+        }
+
+        return null;
+    }
+
+    private Void visitMethodDecl(JmmNode node, Void unused) {
+        // Propagated constants make expressions constant, and folding them prunes branches that may have kept other
+        // variables from being constants, so both are repeated until neither changes the method
+        var profiler = StageProfiler.current();
+        boolean methodChanged;
+        do {
+            methodChanged = profiler.time("constant propagation", () -> propagation.propagate(node));
+
+            changed = false;
+            profiler.time("constant folding", () -> defaultVisit(node, unused));
+            methodChanged |= changed;
+        } while (methodChanged);
+
+        return null;
+    }
+
     private Void defaultVisit(JmmNode node, Void unused) {
-        for (JmmNode child : node.getChildren()) {
+        // Visits can replace or remove the children
+        for (JmmNode child : List.copyOf(node.getChildren())) {
             visit(child);
         }
         return null;
     }
+
+    /**
+     * The value of a boolean literal, or null if the expression is not one.
+     */
+    private static String getBooleanValue(JmmNode expr) {
+        if (!expr.getKind().equals("Literal")) {
+            return null;
+        }
+
+        String value = expr.get("value");
+        return value.equals("true") || value.equals("false") ? value : null;
+    }
+
+    private void replaceWithLiteral(JmmNode node, String value) {
+        JmmNode folded = new CompactNode(Kind.LITERAL);
+        folded.put("value", value);
+
+        TypeUtils.invalidateType(node);
+        node.replace(folded);
+        changed = true;
+    }
+
+    /**
+     * Replaces a statement with one of its children, or removes it if the replacement is null. In a block or a method
+     * body, the statements of a replacement block take the place of the statement, since the OLLIR generator does not
+     * visit nested blocks there.
+     */
+    private void replaceStmt(JmmNode stmt, JmmNode replacement) {
+        changed = true;
+
+        JmmNode parent = stmt.getParent();
+        if (replacement != null) {
+            stmt.removeChild(replacement);
+        }
+
+        // The branch or body of another statement, which must still have one
+        if (!Kind.BLOCK_STMT.check(parent) && !Kind.METHOD_DECL.check(parent)) {
+            stmt.replace(replacement != null ? replacement : new CompactNode(Kind.BLOCK_STMT));
+            return;
+        }
+
+        int index = parent.removeChild(stmt);
+        if (replacement == null) {
+            return;
+        }
+
+        if (!Kind.BLOCK_STMT.check(replacement)) {
+            parent.add(replacement, index);
+            return;
+        }
+
+        while (replacement.getNumChildren() > 0) {
+            parent.add(replacement.removeChild(0), index++);
+        }
+    }
 }
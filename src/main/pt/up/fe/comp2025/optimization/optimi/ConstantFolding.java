@@ -0,0 +1,116 @@
+package pt.up.fe.comp2025.optimization.optimi;
+
+import java.util.Set;
+
+/**
+ * Values of jmm operations on constant operands, as the values of the literals that replace them in the AST.
+ */
+public class ConstantFolding {
+
+    // Binary operators that also assign their left operand
+    private static final Set<String> COMPOUND_ASSIGNMENTS = Set.of("+=", "-=", "*=", "/=");
+
+    private ConstantFolding() {
+    }
+
+    /**
+     * Checks if the value of a literal is one the optimizations can propagate, an integer or a boolean.
+     */
+    public static boolean isConstant(String value) {
+        return value.equals("true") || value.equals("false") || value.matches("-?\\d+");
+    }
+
+    /**
+     * Checks if a binary operator assigns its left operand (e.g. '+='). These are never folded.
+     */
+    public static boolean isCompoundAssignment(String op) {
+        return COMPOUND_ASSIGNMENTS.contains(op);
+    }
+
+    /**
+     * The value of a binary operation on two constants, or null if it is not computed at compile time (e.g. a
+     * division by zero, which must still fail when the program runs).
+     */
+    public static String evaluate(String op, String left, String right) {
+        Integer leftInt = toInt(left);
+        Integer rightInt = toInt(right);
+        if (leftInt != null && rightInt != null) {
+            return evaluateInts(op, leftInt, rightInt);
+        }
+
+        Boolean leftBoolean = toBoolean(left);
+        Boolean rightBoolean = toBoolean(right);
+        if (leftBoolean != null && rightBoolean != null) {
+            return evaluateBooleans(op, leftBoolean, rightBoolean);
+        }
+
+        return null;
+    }
+
+    /**
+     * The value of a logical operation whose left operand alone decides it ('false &&' and 'true ||'), or null if
+     * the right operand is needed. The right operand is then never evaluated, so it can be dropped.
+     */
+    public static String shortCircuit(String op, String left) {
+        Boolean leftBoolean = toBoolean(left);
+        if (leftBoolean == null) {
+            return null;
+        }
+
+        return switch (op) {
+            case "&&" -> leftBoolean ? null : left;
+            case "||" -> leftBoolean ? left : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * The value of '!' on a constant, or null if it is not a boolean.
+     */
+    public static String not(String value) {
+        Boolean booleanValue = toBoolean(value);
+        return booleanValue != null ? String.valueOf(!booleanValue) : null;
+    }
+
+    private static String evaluateInts(String op, int left, int right) {
+        return switch (op) {
+            case "+" -> String.valueOf(left + right);
+            case "-" -> String.valueOf(left - right);
+            case "*" -> String.valueOf(left * right);
+            case "/" -> right != 0 ? String.valueOf(left / right) : null;
+            case "<" -> String.valueOf(left < right);
+            case ">" -> String.valueOf(left > right);
+            case "<=" -> String.valueOf(left <= right);
+            case ">=" -> String.valueOf(left >= right);
+            case "==" -> String.valueOf(left == right);
+            case "!=" -> String.valueOf(left != right);
+            default -> null;
+        };
+    }
+
+    private static String evaluateBooleans(String op, boolean left, boolean right) {
+        return switch (op) {
+            case "&&" -> String.valueOf(left && right);
+            case "||" -> String.valueOf(left || right);
+            case "==" -> String.valueOf(left == right);
+            case "!=" -> String.valueOf(left != right);
+            default -> null;
+        };
+    }
+
+    private static Integer toInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Boolean toBoolean(String value) {
+        return switch (value) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,308 @@
+package pt.up.fe.comp2025.optimization.optimi;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.ast.TypeUtils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Flow-sensitive constant propagation over the {@link ControlFlowGraph} of a method.
+ * <p>
+ * At each point of the method, a local variable or parameter either has a known constant value or is not a
+ * constant. A block that no path reaches yet has no state. The state at the start of a block is the meet of the
+ * states at the end of its predecessors, which keeps only the constants they agree on, and blocks are visited again
+ * until no state changes, so loops reach a fixpoint. A block whose condition is a constant only passes its state
+ * to the branch it takes, so the code the other branch leads to does not weaken the states it joins. Then every
+ * read of a variable that is a constant at that point is replaced with a literal.
+ * <p>
+ * Fields are not propagated, since any call can change them.
+ */
+public class ConstantPropagation {
+
+    private final TypeUtils types;
+
+    public ConstantPropagation(TypeUtils types) {
+        this.types = types;
+    }
+
+    /**
+     * Replaces the variables of the given method that are constant where they are read. Returns true if any was
+     * replaced.
+     */
+    public boolean propagate(JmmNode method) {
+        var graph = ControlFlowGraph.of(method);
+        var in = solve(graph);
+
+        boolean changed = false;
+        for (var block : graph.getBlocks()) {
+            // Unreachable blocks are left as they are
+            if (in[block.getIndex()] == null) {
+                continue;
+            }
+
+            var state = in[block.getIndex()].copy();
+            for (var element : block.getElements()) {
+                changed |= transfer(element, state, true);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * The state at the start of each block, null for blocks no path reaches.
+     */
+    private State[] solve(ControlFlowGraph graph) {
+        var blocks = graph.getBlocks();
+        var in = new State[blocks.size()];
+        var out = new State[blocks.size()];
+
+        var worklist = new ArrayDeque<ControlFlowGraph.BasicBlock>();
+        var queued = new BitSet();
+        worklist.add(graph.getEntry());
+        queued.set(graph.getEntry().getIndex());
+
+        while (!worklist.isEmpty()) {
+            var block = worklist.poll();
+            queued.clear(block.getIndex());
+
+            // Parameters are not constants on entry, and neither are locals that were not assigned yet
+            var blockIn = block == graph.getEntry() ? new State() : null;
+            for (var predecessor : block.getPredecessors()) {
+                var predecessorOut = out[predecessor.getIndex()];
+                if (predecessorOut != null && getTaken(predecessor, predecessorOut).contains(block)) {
+                    blockIn = blockIn == null ? predecessorOut.copy() : blockIn.meet(predecessorOut);
+                }
+            }
+
+            if (blockIn == null) {
+                continue;
+            }
+            in[block.getIndex()] = blockIn;
+
+            var blockOut = blockIn.copy();
+            for (var element : block.getElements()) {
+                transfer(element, blockOut, false);
+            }
+
+            if (blockOut.equals(out[block.getIndex()])) {
+                continue;
+            }
+            out[block.getIndex()] = blockOut;
+
+            for (var successor : getTaken(block, blockOut)) {
+                if (!queued.get(successor.getIndex())) {
+                    queued.set(successor.getIndex());
+                    worklist.add(successor);
+                }
+            }
+        }
+
+        return in;
+    }
+
+    /**
+     * The successors of a block that can run after it ends in the given state.
+     */
+    private List<ControlFlowGraph.BasicBlock> getTaken(ControlFlowGraph.BasicBlock block, State out) {
+        var successors = block.getSuccessors();
+        if (block.getCondition() == null) {
+            return successors;
+        }
+
+        var condition = evaluate(block.getCondition(), out);
+        if ("true".equals(condition)) {
+            return List.of(successors.get(0));
+        }
+        if ("false".equals(condition)) {
+            return List.of(successors.get(1));
+        }
+
+        return successors;
+    }
+
+    /**
+     * Updates the state with the assignments of the given statement or condition, in evaluation order. When
+     * rewriting, also replaces the reads of constant variables. Returns true if any read was replaced.
+     */
+    private boolean transfer(JmmNode node, State state, boolean rewrite) {
+        if (Kind.IDENTIFIER.check(node)) {
+            return rewrite && replaceRead(node, state);
+        }
+
+        // The operand of ++ and -- is written, not read
+        if (Kind.INCREMENT.check(node) && Kind.IDENTIFIER.check(node.getChild(0))) {
+            write(node.getChild(0), state);
+            return false;
+        }
+
+        // So is the left operand of a compound assignment (e.g. 'a += 1'), after the right one is evaluated
+        if (Kind.BINARY_OP.check(node) && ConstantFolding.isCompoundAssignment(node.get("op"))
+                && Kind.IDENTIFIER.check(node.getChild(0))) {
+            boolean changed = transfer(node.getChild(1), state, rewrite);
+            write(node.getChild(0), state);
+            return changed;
+        }
+
+        boolean changed = false;
+        for (var child : List.copyOf(node.getChildren())) {
+            changed |= transfer(child, state, rewrite);
+        }
+
+        if (Kind.ASSIGN_STMT.check(node) && types.getBinding(node).isLocalOrParam()) {
+            state.set(types.getNameId(node), evaluate(node.getChild(0), state));
+        }
+
+        return changed;
+    }
+
+    /**
+     * Marks a variable that is written with a value that is not known as not a constant.
+     */
+    private void write(JmmNode identifier, State state) {
+        if (types.getBinding(identifier).isLocalOrParam()) {
+            state.set(types.getNameId(identifier), null);
+        }
+    }
+
+    private boolean replaceRead(JmmNode identifier, State state) {
+        if (!types.getBinding(identifier).isLocalOrParam()) {
+            return false;
+        }
+
+        var value = state.get(types.getNameId(identifier));
+        if (value == null) {
+            return false;
+        }
+
+        JmmNode literal = new CompactNode(Kind.LITERAL);
+        literal.put("value", value);
+        TypeUtils.invalidateType(identifier);
+        identifier.replace(literal);
+
+        return true;
+    }
+
+    /**
+     * The constant value of an expression in the given state, or null if it is not a constant.
+     */
+    private String evaluate(JmmNode expr, State state) {
+        if (Kind.LITERAL.check(expr)) {
+            var value = expr.get("value");
+            return ConstantFolding.isConstant(value) ? value : null;
+        }
+
+        if (Kind.IDENTIFIER.check(expr)) {
+            return types.getBinding(expr).isLocalOrParam() ? state.get(types.getNameId(expr)) : null;
+        }
+
+        if (Kind.PRIMARY.check(expr)) {
+            return evaluate(expr.getChild(0), state);
+        }
+
+        if (Kind.UNARY_OP.check(expr)) {
+            var operand = evaluate(expr.getChild(0), state);
+            return operand != null ? ConstantFolding.not(operand) : null;
+        }
+
+        if (Kind.BINARY_OP.check(expr)) {
+            var op = expr.get("op");
+            var left = evaluate(expr.getChild(0), state);
+            if (left == null) {
+                return null;
+            }
+
+            var shortCircuit = ConstantFolding.shortCircuit(op, left);
+            if (shortCircuit != null) {
+                return shortCircuit;
+            }
+
+            var right = evaluate(expr.getChild(1), state);
+            return right != null ? ConstantFolding.evaluate(op, left, right) : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Constant value of each variable, indexed by the interned id of its name. Null if it is not a constant.
+     */
+    private static class State {
+
+        private String[] values;
+
+        private State() {
+            this(new String[16]);
+        }
+
+        private State(String[] values) {
+            this.values = values;
+        }
+
+        private String get(int id) {
+            return id < values.length ? values[id] : null;
+        }
+
+        private void set(int id, String value) {
+            if (id >= values.length) {
+                if (value == null) {
+                    return;
+                }
+                values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+            }
+            values[id] = value;
+        }
+
+        private State copy() {
+            return new State(values.clone());
+        }
+
+        /**
+         * Keeps only the constants both states agree on.
+         */
+        private State meet(State other) {
+            for (int id = 0; id < values.length; id++) {
+                if (values[id] != null && !values[id].equals(other.get(id))) {
+                    values[id] = null;
+                }
+            }
+
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof State other)) {
+                return false;
+            }
+
+            int length = Math.max(values.length, other.values.length);
+            for (int id = 0; id < length; id++) {
+                var value = get(id);
+                if (value == null ? other.get(id) != null : !value.equals(other.get(id))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            // Trailing nulls do not change the state
+            int hash = 1;
+            for (var value : values) {
+                if (value != null) {
+                    hash = 31 * hash + value.hashCode();
+                }
+            }
+
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package pt.up.fe.comp2025.optimization.optimi;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Control-flow graph of the statements of a method, for the dataflow passes over the AST.
+ * <p>
+ * Blocks, ifs and loops are split into basic blocks, so the elements of a block are only simple statements
+ * (assignments, expression statements and returns) and, last, the condition the block branches on. The first block
+ * is the entry of the method. Statements after a return are kept in blocks without predecessors.
+ * <p>
+ * A block that ends with a condition has two successors, the one taken when the condition is true first.
+ */
+public class ControlFlowGraph {
+
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    private ControlFlowGraph() {
+    }
+
+    public static ControlFlowGraph of(JmmNode method) {
+        var graph = new ControlFlowGraph();
+
+        var block = graph.newBlock();
+        for (var child : method.getChildren()) {
+            if (Kind.STMT.check(child)) {
+                block = graph.add(child, block);
+            }
+        }
+
+        return graph;
+    }
+
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.getFirst();
+    }
+
+    /**
+     * Adds the given statement at the end of the block and returns the block where execution continues after it.
+     */
+    private BasicBlock add(JmmNode stmt, BasicBlock block) {
+        if (Kind.BLOCK_STMT.check(stmt)) {
+            for (var child : stmt.getChildren()) {
+                block = add(child, block);
+            }
+
+            return block;
+        }
+
+        if (Kind.IF_STMT.check(stmt)) {
+            block.setCondition(stmt.getChild(0));
+
+            var thenEnd = add(stmt.getChild(1), newBlock(block));
+            var elseEnd = add(stmt.getChild(2), newBlock(block));
+
+            var join = newBlock(thenEnd);
+            elseEnd.link(join);
+
+            return join;
+        }
+
+        if (Kind.WHILE_STMT.check(stmt)) {
+            var header = newBlock(block);
+            header.setCondition(stmt.getChild(0));
+
+            var bodyEnd = add(stmt.getChild(1), newBlock(header));
+            bodyEnd.link(header);
+
+            return newBlock(header);
+        }
+
+        if (Kind.FOR_STMT.check(stmt)) {
+            block = add(stmt.getChild(0), block);
+
+            var header = newBlock(block);
+            header.setCondition(stmt.getChild(1));
+
+            // The update runs at the end of each iteration
+            var bodyEnd = add(stmt.getChild(3), newBlock(header));
+            bodyEnd.elements.add(stmt.getChild(2));
+            bodyEnd.link(header);
+
+            return newBlock(header);
+        }
+
+        block.elements.add(stmt);
+
+        // Nothing after a return runs
+        return Kind.RETURN_STMT.check(stmt) ? newBlock() : block;
+    }
+
+    private BasicBlock newBlock() {
+        var block = new BasicBlock(blocks.size());
+        blocks.add(block);
+
+        return block;
+    }
+
+    private BasicBlock newBlock(BasicBlock predecessor) {
+        var block = newBlock();
+        predecessor.link(block);
+
+        return block;
+    }
+
+    /**
+     * A sequence of elements that run one after the other, entered only at the start.
+     */
+    public static class BasicBlock {
+
+        private final int index;
+        private final List<JmmNode> elements = new ArrayList<>();
+        private final List<BasicBlock> successors = new ArrayList<>();
+        private final List<BasicBlock> predecessors = new ArrayList<>();
+        private JmmNode condition;
+
+        private BasicBlock(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Position of the block in the graph, blocks are numbered from 0.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Statements and, if the block branches, the condition, in execution order.
+         */
+        public List<JmmNode> getElements() {
+            return Collections.unmodifiableList(elements);
+        }
+
+        /**
+         * The condition the block branches on, its last element, or null if the block does not branch.
+         */
+        public JmmNode getCondition() {
+            return condition;
+        }
+
+        /**
+         * The blocks that can run next. If the block branches, the first is taken when the condition is true and
+         * the second when it is false.
+         */
+        public List<BasicBlock> getSuccessors() {
+            return Collections.unmodifiableList(successors);
+        }
+
+        public List<BasicBlock> getPredecessors() {
+            return Collections.unmodifiableList(predecessors);
+        }
+
+        private void setCondition(JmmNode condition) {
+            this.condition = condition;
+            elements.add(condition);
+        }
+
+        private void link(BasicBlock successor) {
+            successors.add(successor);
+            successor.predecessors.add(this);
+        }
+
+        @Override
+        public String toString() {
+            return "B" + index;
+        }
+    }
+}
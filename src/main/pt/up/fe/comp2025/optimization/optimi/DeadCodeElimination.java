@@ -0,0 +1,320 @@
+package pt.up.fe.comp2025.optimization.optimi;
+
+import org.specs.comp.ollir.*;
+import org.specs.comp.ollir.inst.*;
+import org.specs.comp.ollir.tree.TreeNode;
+import pt.up.fe.comp2025.utils.NameInterner;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the instructions of an OLLIR method that do not change what the method does.
+ * <p>
+ * Three kinds of instructions are removed, until none is left:
+ * <ul>
+ *     <li>instructions no path from the start of the method reaches (e.g. after a return or a goto);</li>
+ *     <li>gotos to the instruction right after them;</li>
+ *     <li>assignments to local variables that are not live after them, if computing the value has no side
+ *     effects.</li>
+ * </ul>
+ * Calls (including 'new' and 'arraylength'), array accesses and divisions by a value that may be zero can fail or
+ * change the state of the program, so assignments of their results are always kept.
+ * <p>
+ * The labels of a removed instruction move to the next instruction that is kept. This must run before anything asks
+ * the method for the labels of an instruction, since {@link Method#getLabels(Instruction)} is computed only once.
+ */
+public class DeadCodeElimination {
+
+    private DeadCodeElimination() {
+    }
+
+    /**
+     * Removes the dead instructions of the given method. Returns true if any was removed.
+     */
+    public static boolean eliminate(Method method) {
+        boolean changed = false;
+        while (eliminateOnce(method)) {
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private static boolean eliminateOnce(Method method) {
+        var instructions = method.getInstructions();
+        if (instructions.isEmpty()) {
+            return false;
+        }
+
+        var successors = getSuccessors(method);
+        var dead = new BitSet(instructions.size());
+
+        // Reachability from the first instruction
+        var reached = new BitSet(instructions.size());
+        var worklist = new ArrayList<Integer>();
+        worklist.add(0);
+        reached.set(0);
+        while (!worklist.isEmpty()) {
+            int index = worklist.removeLast();
+            for (int successor : successors[index]) {
+                if (!reached.get(successor)) {
+                    reached.set(successor);
+                    worklist.add(successor);
+                }
+            }
+        }
+        dead.set(0, instructions.size());
+        dead.andNot(reached);
+
+        var names = new NameInterner();
+        method.getVarTable().keySet().forEach(names::intern);
+        var liveOut = computeLiveOut(instructions, successors, names);
+
+        // A reachable instruction must follow each one removed here, to take its labels
+        int lastReached = reached.length() - 1;
+        for (int i = 0; i < lastReached; i++) {
+            if (dead.get(i)) {
+                continue;
+            }
+
+            var instruction = instructions.get(i);
+            if (instruction instanceof GotoInstruction && successors[i].length == 1 && successors[i][0] == i + 1) {
+                dead.set(i);
+            } else if (instruction instanceof AssignInstruction assign && isDeadStore(assign, method, names, liveOut[i])) {
+                dead.set(i);
+            }
+        }
+
+        if (dead.isEmpty()) {
+            return false;
+        }
+
+        remove(method, dead);
+        return true;
+    }
+
+    /**
+     * The indexes of the instructions that can run after each instruction.
+     */
+    private static int[][] getSuccessors(Method method) {
+        var instructions = method.getInstructions();
+
+        var indexes = new IdentityHashMap<Instruction, Integer>();
+        for (int i = 0; i < instructions.size(); i++) {
+            indexes.put(instructions.get(i), i);
+        }
+
+        var successors = new int[instructions.size()][];
+        for (int i = 0; i < instructions.size(); i++) {
+            var instruction = instructions.get(i);
+            int next = i + 1 < instructions.size() ? i + 1 : -1;
+
+            if (instruction instanceof GotoInstruction gotoInst) {
+                successors[i] = targetOf(method, indexes, gotoInst.getLabel());
+            } else if (instruction instanceof CondBranchInstruction branch) {
+                var target = targetOf(method, indexes, branch.getLabel());
+                successors[i] = next < 0 || (target.length == 1 && target[0] == next) ? target
+                        : append(target, next);
+            } else if (instruction instanceof ReturnInstruction || next < 0) {
+                successors[i] = new int[0];
+            } else {
+                successors[i] = new int[]{next};
+            }
+        }
+
+        return successors;
+    }
+
+    private static int[] targetOf(Method method, Map<Instruction, Integer> indexes, String label) {
+        var target = indexes.get(method.getLabels().get(label));
+        return target != null ? new int[]{target} : new int[0];
+    }
+
+    private static int[] append(int[] values, int value) {
+        var result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, values.length);
+        result[values.length] = value;
+
+        return result;
+    }
+
+    /**
+     * The variables that are live after each instruction, as the ids of their names.
+     */
+    private static BitSet[] computeLiveOut(List<Instruction> instructions, int[][] successors, NameInterner names) {
+        int size = instructions.size();
+
+        var used = new BitSet[size];
+        var defined = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            used[i] = new BitSet();
+            defined[i] = new BitSet();
+
+            var instruction = instructions.get(i);
+            if (instruction instanceof AssignInstruction assign) {
+                // Storing into an array reads the array and its index
+                if (assign.getDest() instanceof ArrayOperand array) {
+                    addUses(array, used[i], names);
+                } else if (assign.getDest() instanceof Operand dest) {
+                    defined[i].set(names.intern(dest.getName()));
+                }
+                addUses(assign.getRhs(), used[i], names);
+            } else {
+                addUses(instruction, used[i], names);
+            }
+        }
+
+        var liveIn = new BitSet[size];
+        var liveOut = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            liveIn[i] = new BitSet();
+            liveOut[i] = new BitSet();
+        }
+
+        // Backwards, so most instructions are visited after their successors
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = size - 1; i >= 0; i--) {
+                var out = new BitSet();
+                for (int successor : successors[i]) {
+                    out.or(liveIn[successor]);
+                }
+
+                var in = (BitSet) out.clone();
+                in.andNot(defined[i]);
+                in.or(used[i]);
+
+                if (!in.equals(liveIn[i])) {
+                    liveIn[i] = in;
+                    changed = true;
+                }
+                liveOut[i] = out;
+            }
+        } while (changed);
+
+        return liveOut;
+    }
+
+    /**
+     * Adds the names of the operands in the given instruction or element, including array indexes.
+     */
+    private static void addUses(TreeNode node, BitSet used, NameInterner names) {
+        if (node instanceof Operand operand) {
+            used.set(names.intern(operand.getName()));
+        }
+
+        for (var child : node.getChildren()) {
+            addUses(child, used, names);
+        }
+    }
+
+    private static boolean isDeadStore(AssignInstruction assign, Method method, NameInterner names, BitSet liveOut) {
+        // Stores into arrays change memory other code can read
+        if (!(assign.getDest() instanceof Operand dest) || dest instanceof ArrayOperand) {
+            return false;
+        }
+
+        var descriptor = method.getVarTable().get(dest.getName());
+        if (descriptor == null || descriptor.getScope() == VarScope.FIELD) {
+            return false;
+        }
+
+        return !liveOut.get(names.intern(dest.getName())) && !hasSideEffects(assign.getRhs());
+    }
+
+    /**
+     * Checks if computing the value of an instruction can fail or change the state of the program.
+     */
+    private static boolean hasSideEffects(Instruction rhs) {
+        if (rhs instanceof CallInstruction) {
+            return true;
+        }
+
+        if (rhs instanceof BinaryOpInstruction binaryOp) {
+            var opType = binaryOp.getOperation().getOpType();
+            if ((opType == OperationType.DIV || opType == OperationType.REM) && !isNonZeroLiteral(binaryOp.getRightOperand())) {
+                return true;
+            }
+        }
+
+        return containsArrayAccess(rhs);
+    }
+
+    private static boolean isNonZeroLiteral(Element element) {
+        if (!(element instanceof LiteralElement literal)) {
+            return false;
+        }
+
+        try {
+            return Integer.parseInt(literal.getLiteral()) != 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reading an element of an array fails if the index is out of bounds.
+     */
+    private static boolean containsArrayAccess(TreeNode node) {
+        if (node instanceof ArrayOperand) {
+            return true;
+        }
+
+        for (var child : node.getChildren()) {
+            if (containsArrayAccess(child)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the given instructions, moving their labels to the next instruction that is kept.
+     */
+    private static void remove(Method method, BitSet dead) {
+        var instructions = method.getInstructions();
+
+        // The instruction each removed one hands its labels to, or null if none is kept after it
+        var replacements = new IdentityHashMap<Instruction, Instruction>();
+        Instruction next = null;
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            if (dead.get(i)) {
+                replacements.put(instructions.get(i), next);
+            } else {
+                next = instructions.get(i);
+            }
+        }
+
+        var labels = method.getLabels();
+        for (var label : List.copyOf(labels.keySet())) {
+            var target = labels.get(label);
+            if (!replacements.containsKey(target)) {
+                continue;
+            }
+
+            // Only unreachable instructions are removed without a kept one after them, so no jump leads there
+            var replacement = replacements.get(target);
+            if (replacement != null) {
+                labels.put(label, replacement);
+            } else {
+                labels.remove(label);
+            }
+        }
+
+        var kept = new ArrayList<Instruction>(instructions.size() - dead.cardinality());
+        for (int i = 0; i < instructions.size(); i++) {
+            if (!dead.get(i)) {
+                kept.add(instructions.get(i));
+            }
+        }
+
+        instructions.clear();
+        instructions.addAll(kept);
+    }
+}
@@ -3,8 +3,13 @@ package pt.up.fe.comp2025.optimization.optimi;
 import org.specs.comp.ollir.*;
 import org.specs.comp.ollir.inst.*;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.incremental.MethodCache;
+import pt.up.fe.comp2025.profile.StageProfiler;
+import pt.up.fe.comp2025.utils.NameInterner;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class OllirOptimizerVisitor {
     private boolean regAllocEnabled = false;
@@ -12,33 +17,46 @@ public class OllirOptimizerVisitor {
     public OllirResult optimize(OllirResult ollirResult) {
         var classUnit = ollirResult.getOllirClass();
         var config = ollirResult.getConfig();
-        regAllocEnabled = config.containsKey("registerAllocation");
+
+        var profiler = StageProfiler.current();
+
+        // Before register allocation, so removed stores do not keep variables live
+        if (ConfigOptions.getDeadCodeElimination(config)) {
+            profiler.time("dead code elimination", () -> {
+                for (var method : classUnit.getMethods()) {
+                    DeadCodeElimination.eliminate(method);
+                }
+            });
+        }
+
+        // -1 (the default given by CompilerConfig) means no register allocation
+        regAllocEnabled = ConfigOptions.getRegisterAllocation(config) >= 0;
 
         if (regAllocEnabled) {
-            for (var method : classUnit.getMethods()) {
-                if (method.isConstructMethod() || method.getMethodName().equals("main"))
-                    continue;
+            var methodKeys = MethodCache.getMethodKeys(config);
 
-                performRegisterAllocation(method);
-            }
+            profiler.time("register allocation", () -> {
+                for (var method : classUnit.getMethods()) {
+                    if (method.isConstructMethod() || method.getMethodName().equals("main"))
+                        continue;
+
+                    performRegisterAllocation(method, methodKeys.get(method.getMethodName()));
+                }
+            });
         }
         return ollirResult;
     }
 
-    private void performRegisterAllocation(Method method) {
-        var instructions = method.getInstructions();
+    private void performRegisterAllocation(Method method, String methodKey) {
         var varTable = method.getVarTable();
 
-        // Liveness analysis
-        Map<Integer, Set<String>> liveIn = new HashMap<>();
-        Map<Integer, Set<String>> liveOut = new HashMap<>();
-        computeLiveness(method, liveIn, liveOut);
-
-        // Build interference graph
-        Map<String, Set<String>> interferenceGraph = buildInterferenceGraph(method, liveIn, liveOut);
+        // Same method as in a previous compilation, reuse its assignment
+        var cached = methodKey == null ? null : MethodCache.get().getRegisters(methodKey);
+        var colorAssignment = cached != null ? cached : allocateRegisters(method);
 
-        // Graph coloring (register allocation)
-        Map<String, Integer> colorAssignment = colorGraph(interferenceGraph, method);
+        if (methodKey != null && cached == null) {
+            MethodCache.get().putRegisters(methodKey, colorAssignment);
+        }
 
         // Update virtual registers
         for (var entry : colorAssignment.entrySet()) {
@@ -49,137 +67,140 @@ public class OllirOptimizerVisitor {
         }
     }
 
-    private void computeLiveness(Method method, Map<Integer, Set<String>> liveIn, Map<Integer, Set<String>> liveOut) {
+    private Map<String, Integer> allocateRegisters(Method method) {
         var instructions = method.getInstructions();
+
+        // Variables of the method get the first ids, so they can be told apart from other operand names
+        var names = new NameInterner();
+        method.getVarTable().keySet().forEach(names::intern);
+        int varCount = names.size();
+
+        // Used and defined variables of each instruction, computed once
+        var used = new BitSet[instructions.size()];
+        var defined = new BitSet[instructions.size()];
+        var usedAnywhere = new BitSet();
+        for (int i = 0; i < instructions.size(); i++) {
+            used[i] = toIds(getUsedVars(instructions.get(i)), names);
+            defined[i] = toIds(getDefinedVars(instructions.get(i)), names);
+            usedAnywhere.or(used[i]);
+        }
+
+        // Liveness analysis
+        var liveIn = new BitSet[instructions.size()];
+        var liveOut = new BitSet[instructions.size()];
+        computeLiveness(used, defined, liveIn, liveOut);
+
+        // Build interference graph
+        Map<String, Set<String>> interferenceGraph = buildInterferenceGraph(names, varCount, used, defined, liveIn, liveOut);
+
+        // Graph coloring (register allocation)
+        return colorGraph(interferenceGraph, method, name -> {
+            int id = names.getId(name);
+            return id >= 0 && usedAnywhere.get(id);
+        });
+    }
+
+    private static BitSet toIds(Set<String> vars, NameInterner names) {
+        var ids = new BitSet();
+        for (var var : vars) {
+            ids.set(names.intern(var));
+        }
+        return ids;
+    }
+
+    private void computeLiveness(BitSet[] used, BitSet[] defined, BitSet[] liveIn, BitSet[] liveOut) {
+        int size = used.length;
         boolean changed;
 
         // Initialize
-        for (int i = 0; i < instructions.size(); i++) {
-            liveIn.put(i, new HashSet<>());
-            liveOut.put(i, new HashSet<>());
+        for (int i = 0; i < size; i++) {
+            liveIn[i] = new BitSet();
+            liveOut[i] = new BitSet();
         }
 
         // Iterative algorithm for liveness analysis
         do {
             changed = false;
-            for (int i = instructions.size() - 1; i >= 0; i--) {
-                Set<String> oldLiveIn = new HashSet<>(liveIn.get(i));
-                Set<String> oldLiveOut = new HashSet<>(liveOut.get(i));
-
-                // Get used and defined variables for this instruction
-                Set<String> used = getUsedVars(instructions.get(i));
-                Set<String> defined = getDefinedVars(instructions.get(i));
-
+            for (int i = size - 1; i >= 0; i--) {
                 // Calculate new liveOut
-                Set<String> newLiveOut = new HashSet<>();
                 // If not the last instruction, add liveIn of next instruction
-                if (i < instructions.size() - 1) {
-                    newLiveOut.addAll(liveIn.get(i + 1));
-                }
+                BitSet newLiveOut = i < size - 1 ? (BitSet) liveIn[i + 1].clone() : new BitSet();
 
                 // Calculate new liveIn: used + (liveOut - defined)
-                Set<String> newLiveIn = new HashSet<>(used);
-                Set<String> liveOutMinusDef = new HashSet<>(newLiveOut);
-                liveOutMinusDef.removeAll(defined);
-                newLiveIn.addAll(liveOutMinusDef);
+                BitSet newLiveIn = (BitSet) newLiveOut.clone();
+                newLiveIn.andNot(defined[i]);
+                newLiveIn.or(used[i]);
 
                 // Update if changed
-                if (!newLiveIn.equals(oldLiveIn) || !newLiveOut.equals(oldLiveOut)) {
+                if (!newLiveIn.equals(liveIn[i]) || !newLiveOut.equals(liveOut[i])) {
                     changed = true;
-                    liveIn.put(i, newLiveIn);
-                    liveOut.put(i, newLiveOut);
+                    liveIn[i] = newLiveIn;
+                    liveOut[i] = newLiveOut;
                 }
             }
         } while (changed);
     }
 
 
-    private Map<String, Set<String>> buildInterferenceGraph(Method method,
-                                                            Map<Integer, Set<String>> liveIn,
-                                                            Map<Integer, Set<String>> liveOut) {
-        Map<String, Set<String>> graph = new HashMap<>();
-
-        // Initialize graph
-        for (var varName : method.getVarTable().keySet()) {
-            graph.put(varName, new HashSet<>());
+    private Map<String, Set<String>> buildInterferenceGraph(NameInterner names, int varCount,
+                                                            BitSet[] used, BitSet[] defined,
+                                                            BitSet[] liveIn, BitSet[] liveOut) {
+        // Only the variables of the method (ids below varCount) are nodes of the graph
+        var edges = new BitSet[varCount];
+        for (int id = 0; id < varCount; id++) {
+            edges[id] = new BitSet();
         }
 
-        // First, consider the overlap between definition points and liveness
-        for (int i = 0; i < method.getInstructions().size(); i++) {
-            Instruction inst = method.getInstructions().get(i);
-
-            // Variables defined in this instruction
-            Set<String> defs = getDefinedVars(inst);
-
-            // Variables live out from this instruction
-            Set<String> liveOutVars = new HashSet<>(liveOut.get(i));
-
+        for (int i = 0; i < used.length; i++) {
             // For each defined variable, add interference with all live-out variables
-            for (String def : defs) {
-                for (String liveVar : liveOutVars) {
-                    if (!def.equals(liveVar)) {
-                        graph.get(def).add(liveVar);
-                        graph.get(liveVar).add(def);
-                    }
+            // and with any used vars in the same instruction
+            var others = (BitSet) liveOut[i].clone();
+            others.or(used[i]);
+            for (int def = defined[i].nextSetBit(0); def >= 0; def = defined[i].nextSetBit(def + 1)) {
+                for (int other = others.nextSetBit(0); other >= 0; other = others.nextSetBit(other + 1)) {
+                    addInterference(edges, def, other);
                 }
             }
 
-            // Ensure the defined variable interferes with any used vars in the same instruction
-            Set<String> usedVars = getUsedVars(inst);
-            for (String def : defs) {
-                for (String used : usedVars) {
-                    if (!def.equals(used)) {
-                        graph.get(def).add(used);
-                        graph.get(used).add(def);
-                    }
+            // Variables that are live at the same point interfere with each other
+            var liveAtPoint = (BitSet) liveIn[i].clone();
+            liveAtPoint.or(liveOut[i]);
+            for (int var1 = liveAtPoint.nextSetBit(0); var1 >= 0 && var1 < varCount; var1 = liveAtPoint.nextSetBit(var1 + 1)) {
+                for (int var2 = liveAtPoint.nextSetBit(var1 + 1); var2 >= 0; var2 = liveAtPoint.nextSetBit(var2 + 1)) {
+                    addInterference(edges, var1, var2);
                 }
             }
+        }
 
+        // Back to names, in the order of the var table
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int id = 0; id < varCount; id++) {
+            var neighbors = new HashSet<String>();
+            edges[id].stream().forEach(neighbor -> neighbors.add(names.getName(neighbor)));
+            graph.put(names.getName(id), neighbors);
         }
 
-        // Second, add interferences between variables that are simultaneously live
-        for (String var1 : method.getVarTable().keySet()) {
-            for (String var2 : method.getVarTable().keySet()) {
-                if (var1.equals(var2)) continue;
-
-                // Check if these variables are ever live at the same time
-                boolean interfere = false;
-                for (int i = 0; i < method.getInstructions().size(); i++) {
-                    Set<String> liveAtPoint = new HashSet<>();
-                    liveAtPoint.addAll(liveIn.get(i));
-                    liveAtPoint.addAll(liveOut.get(i));
-
-                    if (liveAtPoint.contains(var1) && liveAtPoint.contains(var2)) {
-                        interfere = true;
-                        break;
-                    }
-                }
+        return graph;
+    }
 
-                if (interfere) {
-                    graph.get(var1).add(var2);
-                    graph.get(var2).add(var1);
-                }
-            }
+    private static void addInterference(BitSet[] edges, int var1, int var2) {
+        if (var1 == var2 || var1 >= edges.length || var2 >= edges.length) {
+            return;
         }
 
-        return graph;
+        edges[var1].set(var2);
+        edges[var2].set(var1);
     }
 
-    private Map<String, Integer> colorGraph(Map<String, Set<String>> graph, Method method) {
+    private Map<String, Integer> colorGraph(Map<String, Set<String>> graph, Method method,
+                                           Predicate<String> usedAnywhere) {
         Map<String, Integer> colors = new HashMap<>();
         List<String> nodes = new ArrayList<>(graph.keySet());
 
         Set<String> skipTemps = new HashSet<>();
         for (String node : nodes) {
             if (node.startsWith("tmp")) {
-                boolean usedElsewhere = false;
-                for (Instruction inst : method.getInstructions()) {
-                    if (getUsedVars(inst).contains(node)) {
-                        usedElsewhere = true;
-                        break;
-                    }
-                }
-                if (!usedElsewhere) {
+                if (!usedAnywhere.test(node)) {
                     skipTemps.add(node);
                 }
             }
@@ -0,0 +1,133 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.CompactNode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the ANTLR parse tree into {@link CompactNode}s, giving them the same kinds and attributes as the
+ * converter of the library: the position of the node, the text of its token labels and the values of its locals.
+ * <p>
+ * The library looks up the kind and the public fields of every context with reflection, for every node. Here
+ * they are looked up once for each context class. Terminals are not part of the AST.
+ */
+class AstConverter {
+
+    private static final ClassValue<ContextShape> SHAPES = new ClassValue<>() {
+        @Override
+        protected ContextShape computeValue(Class<?> contextClass) {
+            return new ContextShape(contextClass);
+        }
+    };
+
+    private final TokenStream tokens;
+
+    private AstConverter(Parser parser) {
+        this.tokens = parser.getTokenStream();
+    }
+
+    /**
+     * Converts the tree returned by a rule method of the parser, which is called through reflection.
+     */
+    static JmmNode convert(Object tree, Parser parser) {
+        return new AstConverter(parser).convert((ParserRuleContext) tree);
+    }
+
+    private CompactNode convert(ParserRuleContext context) {
+        var shape = SHAPES.get(context.getClass());
+        var node = new CompactNode(shape.hierarchy);
+
+        var interval = context.getSourceInterval();
+        var start = tokens.get(interval.a);
+        var end = tokens.get(interval.b);
+        node.setPosition(start.getLine(), start.getCharPositionInLine(), end.getLine(), end.getCharPositionInLine());
+
+        for (var field : shape.fields) {
+            var value = get(field, context);
+
+            if (field.getType().isAssignableFrom(Token.class)) {
+                // A label that did not match anything is not an attribute
+                if (value != null) {
+                    node.put(field.getName(), ((Token) value).getText());
+                }
+                continue;
+            }
+
+            node.putObject(field.getName(), toAttribute(value));
+        }
+
+        for (int i = 0; i < context.getChildCount(); i++) {
+            var child = context.getChild(i);
+            if (!(child instanceof TerminalNode)) {
+                node.add(convert((ParserRuleContext) child));
+            }
+        }
+
+        return node;
+    }
+
+    private static Object get(Field field, ParserRuleContext context) {
+        try {
+            return field.get(context);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not access field '" + field.getName() + "' from node " + context, e);
+        }
+    }
+
+    /**
+     * Tokens become their text, also inside lists (e.g. 'name+=ID').
+     */
+    private static Object toAttribute(Object value) {
+        if (value instanceof Token token) {
+            return token.getText();
+        }
+
+        if (value instanceof List<?> list) {
+            var converted = new ArrayList<>(list.size());
+            for (var element : list) {
+                converted.add(toAttribute(element));
+            }
+            return converted;
+        }
+
+        return value;
+    }
+
+    /**
+     * The kind hierarchy and public fields of a context class, e.g. [BinaryOp, Expr] and 'op'.
+     */
+    private static class ContextShape {
+
+        private final CompactNode.Hierarchy hierarchy;
+        private final List<Field> fields = new ArrayList<>();
+
+        private ContextShape(Class<?> contextClass) {
+            var kinds = new ArrayList<String>();
+            // From the most specific class, as the library does
+            for (var current = contextClass; !current.equals(ParserRuleContext.class); current = current.getSuperclass()) {
+                var className = current.getSimpleName();
+                if (!className.endsWith("Context")) {
+                    throw new RuntimeException("Expected classname to end with 'Context' " + className);
+                }
+                kinds.add(className.substring(0, className.length() - "Context".length()));
+
+                for (var field : current.getDeclaredFields()) {
+                    if (Modifier.isPublic(field.getModifiers())) {
+                        fields.add(field);
+                    }
+                }
+            }
+
+            hierarchy = CompactNode.Hierarchy.of(kinds);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package pt.up.fe.comp2025.parser;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
+import pt.up.fe.comp.jmm.ast.antlr.JmmNodeCleanup;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2025.JavammLexer;
-import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.ast.CompactNode;
+import pt.up.fe.comp2025.profile.StageProfiler;
+import pt.up.fe.comp2025.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsSystem;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,39 +38,208 @@ import java.util.Map;
  * specific language governing permissions and limitations under the License. under the License.
  */
 
+/**
+ * Parses in two stages. The code is first parsed with SLL prediction, which is faster but gives up at the first
+ * syntax error. Only if that fails is it parsed again with full LL prediction and the default error recovery, so
+ * code with errors gets the same reports as before.
+ * <p>
+ * The SLL stage uses the JavammSll grammar, which has a single method header shape, and classifies the headers
+ * after parsing, see {@link MethodHeaders}. The LL stage uses the Javamm grammar, with a separate alternative for each
+ * kind of header, so the syntax errors are the ones that grammar always reported.
+ * <p>
+ * The lexers and parsers of each thread are reused between files, see {@link ParserPool}. Files can be parsed from a {@link Path}, which reads them
+ * from a memory mapping instead of a String, see {@link MappedCharStream}. The AST is made of {@link CompactNode}s.
+ */
 public class JmmParserImpl implements JmmParser {
 
+    // Uses every rule of the grammar, the last one needs the LL stage
+    private static final List<String> WARM_UP_CORPUS = List.of("""
+            import io;
+            import foo.bar.Util;
+            class WarmUp extends Util {
+                int count;
+                int[] values;
+                boolean done;
+                public static void main(String[] args) {
+                }
+                public int sum(int[] a, int... rest) {
+                    int i;
+                    int total;
+                    i = 0;
+                    total = 0;
+                    while (i < a.length && !done) {
+                        total = total + a[i] * 2 - i / 3;
+                        i = i + 1;
+                    }
+                    for (i = 0; i <= 2; i++) {
+                        values[i] = rest[0];
+                    }
+                    if (total > 10 || total == 0) {
+                        io.println(total);
+                    } else {
+                        total = this.sum([1, 2, 3], 4, 5);
+                    }
+                    return total;
+                }
+                public boolean run(WarmUp other, boolean flag) {
+                    WarmUp w;
+                    int[] b;
+                    w = new WarmUp();
+                    b = new int[10];
+                    count = (w.sum(b, 1) + other.sum(b)) * 2;
+                    return flag && true || false;
+                }
+            }
+            """, """
+            class Broken {
+                public int f( {
+                    return 1 +;
+                }
+            }
+            """);
+
     @Override
     public String getDefaultRule() {
         return "program";
     }
 
+    /**
+     * Parses a small corpus, so that the prediction DFAs shared by every parser are built before the first file.
+     * Worth it in long-running compilers, e.g. the daemon.
+     */
+    public static void warmUp() {
+        var parser = new JmmParserImpl();
+        for (var code : WARM_UP_CORPUS) {
+            parser.parse(code, new HashMap<>());
+        }
+    }
+
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        return parse(MappedCharStream.of(jmmCode), startingRule, config);
+    }
+
+    public JmmParserResult parse(Path file, Map<String, String> config) {
+        return parse(file, getDefaultRule(), config);
+    }
 
+    /**
+     * Parses a file without reading it into a String, so the source is not kept twice on the heap.
+     */
+    public JmmParserResult parse(Path file, String startingRule, Map<String, String> config) {
+        CharStream input;
         try {
-            // Convert code string into a character stream
-            var input = new ANTLRInputStream(jmmCode);
-            // Transform characters into tokens using the lexer
-            var lex = new JavammLexer(input);
-            // Wrap lexer around a token stream
-            var tokens = new CommonTokenStream(lex);
-            // Transforms tokens into a parse tree
-            var parser = new JavammParser(tokens);
+            input = MappedCharStream.open(file);
+        } catch (IOException e) {
+            return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Could not read '" + file + "'", e), config);
+        }
+
+        return parse(input, startingRule, config);
+    }
+
+    /**
+     * Parses with full LL prediction only, without trying SLL first. Gives the same result as {@link #parse}, only
+     * kept to measure what the SLL stage saves, see ParserBenchmark.
+     */
+    JmmParserResult parseLlOnly(String jmmCode, Map<String, String> config) {
+        var pool = ParserPool.get(MappedCharStream.of(jmmCode));
+        try {
+            return parseLl(pool, getDefaultRule(), config);
+        } catch (Exception e) {
+            return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
+        } finally {
+            pool.release();
+        }
+    }
 
+    private JmmParserResult parse(CharStream input, String startingRule, Map<String, String> config) {
 
-            // Convert ANTLR CST to JmmNode AST
-            var r = AntlrParser.parse(lex, parser, startingRule, config);
+        var pool = ParserPool.get(input);
+        try {
+            var profiler = StageProfiler.current();
 
-            //if (r.getRootNode() != null) {
-            //    System.out.println("AST:\n" + r.getRootNode().toTree());
-            //}
+            // Valid code almost never needs full LL, try SLL first
+            var result = profiler.time("sll", () -> parseSll(pool, startingRule, config));
+            if (result == null) {
+                // Start over from the first character
+                var llPool = ParserPool.get(input);
+                result = profiler.time("ll", () -> parseLl(llPool, startingRule, config));
+            }
 
-            return r;
+            return result;
 
         } catch (Exception e) {
             // There was an uncaught exception during parsing, create an error JmmParserResult without root node
             return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
+        } finally {
+            pool.release();
         }
     }
+
+    /**
+     * Parses with SLL prediction, stopping at the first syntax error. Returns null if the code could not be parsed
+     * this way, either because it has errors or because it needs full LL prediction.
+     */
+    private JmmParserResult parseSll(ParserPool pool, String startingRule, Map<String, String> config) {
+        var parser = pool.getSllParser();
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        JmmParserResult result;
+        try {
+            result = parse(pool.getSllLexer(), parser, startingRule, config);
+        } catch (RuntimeException e) {
+            // The bail strategy throws at the first syntax error
+            return null;
+        }
+
+        // Lexical errors are reported again by the LL stage, together with the syntax errors they cause
+        if (ReportUtils.anyError(result.getReports())) {
+            return null;
+        }
+
+        MethodHeaders.classify(result.getRootNode());
+        return result;
+    }
+
+    private JmmParserResult parseLl(ParserPool pool, String startingRule, Map<String, String> config) {
+        // Full prediction and the default error recovery, which reports every syntax error
+        var parser = pool.getParser();
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.setErrorHandler(new DefaultErrorStrategy());
+
+        return parse(pool.getLexer(), parser, startingRule, config);
+    }
+
+    /**
+     * Same as {@link AntlrParser#parse}, but the AST is made of {@link CompactNode}s, see {@link AstConverter}.
+     */
+    private JmmParserResult parse(Lexer lexer, Parser parser, String startingRule, Map<String, String> config) {
+        lexer.removeErrorListeners();
+        var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+        lexer.addErrorListener(lexerListener);
+
+        parser.removeErrorListeners();
+        var parserListener = new JmmErrorListener(Stage.SYNTATIC);
+        parser.addErrorListener(parserListener);
+
+        var tree = SpecsSystem.invoke(parser, startingRule);
+
+        var reports = new ArrayList<Report>();
+        reports.addAll(lexerListener.getReports());
+        reports.addAll(parserListener.getReports());
+        if (ReportUtils.anyError(reports)) {
+            return new JmmParserResult(null, reports, config);
+        }
+
+        // Convert ANTLR CST to JmmNode AST
+        var root = AstConverter.convert(tree, parser);
+
+        var ignoreList = AntlrParser.getIgnoreList(parser);
+        if (!ignoreList.isEmpty()) {
+            new JmmNodeCleanup(ignoreList).visit(root);
+        }
+
+        return new JmmParserResult(root, reports, config);
+    }
 }
@@ -0,0 +1,216 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A source file read by the lexer straight from a memory mapping, instead of a String copied into an
+ * {@link org.antlr.v4.runtime.ANTLRInputStream}.
+ * <p>
+ * When the file is ASCII, as almost every jmm file is, its bytes are its characters and the lexer reads the mapped
+ * bytes, so the source is never copied to the heap. Otherwise the file is decoded from UTF-8 once, into a char
+ * buffer. Only the text of the tokens is copied, when the parser asks for it.
+ * <p>
+ * Code that is already in a String is read from the String itself, see {@link #of(String)}.
+ */
+abstract class MappedCharStream implements CharStream {
+
+    private final String sourceName;
+    private final int size;
+    private int index = 0;
+
+    private MappedCharStream(String sourceName, int size) {
+        this.sourceName = sourceName;
+        this.size = size;
+    }
+
+    static MappedCharStream open(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        var sourceName = file.toString();
+        if (isAscii(mapped)) {
+            return new AsciiStream(sourceName, mapped);
+        }
+
+        // Same replacement of malformed input as reading the file into a String
+        var decoded = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(mapped);
+
+        return new DecodedStream(sourceName, decoded);
+    }
+
+    /**
+     * Code that is already in memory. The lexer reads the String, which is not copied into a char array as
+     * {@link org.antlr.v4.runtime.ANTLRInputStream} does.
+     */
+    static MappedCharStream of(String code) {
+        return new StringStream(code);
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    abstract int charAt(int i);
+
+    /**
+     * The text between the given indexes, both inside the stream.
+     */
+    abstract String getText(int start, int stop);
+
+    @Override
+    public void consume() {
+        if (index >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+
+        // LA(-1) is the last consumed character
+        int position = i < 0 ? index + i : index + i - 1;
+        if (position < 0 || position >= size) {
+            return IntStream.EOF;
+        }
+
+        return charAt(position);
+    }
+
+    @Override
+    public int mark() {
+        // Everything is in memory, nothing to keep
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, size - 1);
+        if (start >= size || stop < start) {
+            return "";
+        }
+
+        return getText(start, stop);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+
+    private static class AsciiStream extends MappedCharStream {
+
+        private final ByteBuffer bytes;
+
+        private AsciiStream(String sourceName, ByteBuffer bytes) {
+            super(sourceName, bytes.limit());
+            this.bytes = bytes;
+        }
+
+        @Override
+        int charAt(int i) {
+            return bytes.get(i);
+        }
+
+        @Override
+        String getText(int start, int stop) {
+            var text = new byte[stop - start + 1];
+            bytes.get(start, text);
+
+            return new String(text, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static class DecodedStream extends MappedCharStream {
+
+        private final CharBuffer chars;
+
+        private DecodedStream(String sourceName, CharBuffer chars) {
+            super(sourceName, chars.limit());
+            this.chars = chars;
+        }
+
+        @Override
+        int charAt(int i) {
+            return chars.get(i);
+        }
+
+        @Override
+        String getText(int start, int stop) {
+            return chars.subSequence(start, stop + 1).toString();
+        }
+    }
+
+    private static class StringStream extends MappedCharStream {
+
+        private final String code;
+
+        private StringStream(String code) {
+            // Same name as an ANTLRInputStream without one
+            super(IntStream.UNKNOWN_SOURCE_NAME, code.length());
+            this.code = code;
+        }
+
+        @Override
+        int charAt(int i) {
+            return code.charAt(i);
+        }
+
+        @Override
+        String getText(int start, int stop) {
+            return code.substring(start, stop + 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pt.up.fe.comp2025.parser;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+
+import java.util.List;
+
+/**
+ * Classifies the method declarations of an AST parsed with the JavammSll grammar.
+ * <p>
+ * That grammar parses the headers that start with 'static void', 'static' or 'void' with the same alternative, so
+ * that predicting a method does not need to look ahead over the whole header. This gives those nodes the shape and
+ * the 'isMain' and 'isWrong' attributes the Javamm grammar gives them, where each kind of header is a separate
+ * alternative: a 'static void' method with a single {@code X[] y} parameter is a main, with 'string' and 'args'
+ * attributes instead of the parameter and without the modifiers node, and the rest are wrong. The other headers
+ * already get their attributes from the grammar. The semantic analysis reports the wrong ones.
+ */
+class MethodHeaders {
+
+    private static final List<String> PRIMITIVES = List.of("int", "boolean");
+
+    static void classify(JmmNode root) {
+        if (Kind.METHOD_DECL.check(root)) {
+            classifyMethod(root);
+            return;
+        }
+
+        for (var child : root.getChildren()) {
+            if (Kind.CLASS_DECL.check(child) || Kind.METHOD_DECL.check(child)) {
+                classify(child);
+            }
+        }
+    }
+
+    private static void classifyMethod(JmmNode method) {
+        if (method.getNumChildren() == 0 || !Kind.STATIC_VOID_MODIFIERS.check(method.getChild(0))) {
+            return;
+        }
+
+        var modifiers = method.getChild(0);
+
+        // 'static void main(String[] args)'
+        var params = method.getChildren(Kind.PARAM);
+        if (Kind.STATIC_VOID.check(modifiers) && params.size() == 1 && isMainParam(params.getFirst())) {
+            var param = params.getFirst();
+            method.removeChild(modifiers);
+            method.removeChild(param);
+            method.put("string", param.getChild(0).get("name"));
+            method.put("args", param.get("name"));
+            setFlags(method, method.getBoolean("isPublic", false), false);
+            return;
+        }
+
+        // 'static void foo(...)', 'static foo(...)' and 'void foo(...)'
+        setFlags(method, false, true);
+    }
+
+    /**
+     * A parameter like {@code String[] args}, an array of a class.
+     */
+    private static boolean isMainParam(JmmNode param) {
+        var type = param.getChild(0);
+        return type.getBoolean("isArray", false) && !type.getBoolean("isVarargs", false)
+                && !PRIMITIVES.contains(type.get("name"));
+    }
+
+    private static void setFlags(JmmNode method, boolean isMain, boolean isWrong) {
+        method.putObject("isMain", isMain);
+        method.putObject("isWrong", isWrong);
+    }
+}
@@ -0,0 +1,79 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import pt.up.fe.comp2025.JavammLexer;
+import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.JavammSllLexer;
+import pt.up.fe.comp2025.JavammSllParser;
+
+/**
+ * The lexers and parsers of each thread, reset and reused for every file the thread parses. There is a pair for
+ * each stage of {@link JmmParserImpl}: the SLL stage parses with the JavammSll grammar, the LL stage with Javamm.
+ * <p>
+ * In batch and daemon mode the same threads parse many files, so they keep their instances instead of building new
+ * ones for each file. Only the token stream is new for each file, the one of this ANTLR version cannot be reset.
+ * <p>
+ * The prediction DFAs are static in the generated lexer and parser, so every instance on every thread shares them
+ * (ANTLR synchronizes their updates), and what one file teaches them speeds up the next ones.
+ */
+class ParserPool {
+
+    private static final ThreadLocal<ParserPool> POOL = ThreadLocal.withInitial(ParserPool::new);
+
+    private final JavammSllLexer sllLexer = new JavammSllLexer(emptyInput());
+    private final JavammSllParser sllParser = new JavammSllParser(new CommonTokenStream(sllLexer));
+
+    private final JavammLexer lexer = new JavammLexer(emptyInput());
+    private final JavammParser parser = new JavammParser(new CommonTokenStream(lexer));
+
+    private ParserPool() {
+    }
+
+    /**
+     * The instances of the current thread, reset to parse the given input from its first character.
+     */
+    static ParserPool get(CharStream input) {
+        input.seek(0);
+
+        var pool = POOL.get();
+        pool.reset(input);
+
+        return pool;
+    }
+
+    JavammSllLexer getSllLexer() {
+        return sllLexer;
+    }
+
+    JavammSllParser getSllParser() {
+        return sllParser;
+    }
+
+    JavammLexer getLexer() {
+        return lexer;
+    }
+
+    JavammParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Drops the code and tokens of the last parse, so they are not kept alive until the next one.
+     */
+    void release() {
+        reset(emptyInput());
+    }
+
+    private void reset(CharStream input) {
+        // Setting the token stream resets the parser, but does not read a token yet
+        sllLexer.setInputStream(input);
+        sllParser.setTokenStream(new CommonTokenStream(sllLexer));
+        lexer.setInputStream(input);
+        parser.setTokenStream(new CommonTokenStream(lexer));
+    }
+
+    private static CharStream emptyInput() {
+        return MappedCharStream.of("");
+    }
+}
@@ -0,0 +1,184 @@
+package pt.up.fe.comp2025.profile;
+
+import com.google.gson.GsonBuilder;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Records wall time, CPU time and allocated bytes of each stage of a compilation, enabled with '-t'.
+ * <p>
+ * A compilation runs on a single thread, so the profiler of the running compilation is kept in a thread local
+ * and the stages get it with {@link #current()}. When profiling is off, {@link #current()} returns a profiler that
+ * only runs the stages. Stages can be nested, the profiles of several files can be merged with {@link #merge}.
+ */
+public class StageProfiler {
+
+    private static final StageProfiler DISABLED = new StageProfiler(false);
+
+    private static final ThreadLocal<StageProfiler> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+
+    // In the order the stages started
+    private final Map<String, StageTiming> timings = new LinkedHashMap<>();
+
+    private final List<String> openStages = new ArrayList<>();
+
+    private int files;
+
+    private StageProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Empty profile, to merge the profiles of several compilations into.
+     */
+    public static StageProfiler newProfile() {
+        return new StageProfiler(true);
+    }
+
+    /**
+     * Starts profiling a compilation on the current thread, if enabled. Must be paired with {@link #stop()}.
+     */
+    public static StageProfiler start(boolean enabled) {
+        if (!enabled) {
+            return DISABLED;
+        }
+
+        var profiler = new StageProfiler(true);
+        profiler.files = 1;
+        CURRENT.set(profiler);
+
+        return profiler;
+    }
+
+    /**
+     * Continues profiling this compilation on the current thread, for compilations whose stages run on different
+     * threads. Must be paired with {@link #stop()}.
+     */
+    public void resume() {
+        if (enabled) {
+            CURRENT.set(this);
+        }
+    }
+
+    public void stop() {
+        if (enabled) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * The profiler of the compilation running on this thread.
+     */
+    public static StageProfiler current() {
+        var profiler = CURRENT.get();
+        return profiler != null ? profiler : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void time(String stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T time(String stage, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+
+        var path = openStages.isEmpty() ? stage : openStages.getLast() + "/" + stage;
+        var timing = timings.computeIfAbsent(path, key -> new StageTiming(key, stage, openStages.size()));
+        openStages.add(path);
+
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+        long wallStart = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuStart < 0 ? -1 : cpuTime() - cpuStart;
+            long allocated = allocatedStart < 0 ? -1 : allocatedBytes() - allocatedStart;
+
+            timing.add(wall, cpu, allocated);
+            openStages.removeLast();
+        }
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Adds the timings of another profile to this one. Not thread-safe, merge after the compilations finish.
+     */
+    public void merge(StageProfiler other) {
+        files += other.files;
+
+        for (var timing : other.timings.values()) {
+            timings.computeIfAbsent(timing.getPath(), key -> new StageTiming(key, timing.getName(), timing.getDepth()))
+                    .add(timing);
+        }
+    }
+
+    public List<StageTiming> getTimings() {
+        return new ArrayList<>(timings.values());
+    }
+
+    public String toTable() {
+        var table = new StringBuilder();
+        table.append(String.format("%-40s %8s %12s %12s %12s%n", "Stage", "Calls", "Wall ms", "CPU ms", "Alloc MB"));
+
+        for (var timing : timings.values()) {
+            var name = "  ".repeat(timing.getDepth()) + timing.getName();
+            table.append(String.format("%-40s %8d %12.2f %12s %12s%n", name, timing.getCalls(),
+                    timing.getWallNanos() / 1e6,
+                    format(timing.getCpuNanos(), 1e6),
+                    format(timing.getAllocatedBytes(), 1024.0 * 1024.0)));
+        }
+
+        table.append(files).append(files == 1 ? " file" : " files").append(" profiled").append(System.lineSeparator());
+
+        return table.toString();
+    }
+
+    private static String format(long value, double unit) {
+        return value < 0 ? "n/a" : String.format("%.2f", value / unit);
+    }
+
+    public String toJson() {
+        var profile = new LinkedHashMap<String, Object>();
+        profile.put("files", files);
+        profile.put("stages", getTimings());
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(profile);
+    }
+
+    public void writeJson(File file) {
+        SpecsIo.write(file, toJson());
+    }
+}
@@ -0,0 +1,78 @@
+package pt.up.fe.comp2025.profile;
+
+/**
+ * Time and memory spent in one stage, summed over every call. Also the JSON format of the profile.
+ */
+public class StageTiming {
+
+    private final String path;
+    private final String name;
+    private final int depth;
+
+    private int calls;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    public StageTiming(String path, String name, int depth) {
+        this.path = path;
+        this.name = name;
+        this.depth = depth;
+    }
+
+    /**
+     * Name of the stage prefixed by the names of the stages it runs in, separated by '/'.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * CPU time of the compiling thread, -1 if the JVM cannot measure it.
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Bytes allocated by the compiling thread, -1 if the JVM cannot measure it.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    void add(long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.calls++;
+        this.wallNanos += wallNanos;
+        this.cpuNanos = sum(this.cpuNanos, cpuNanos);
+        this.allocatedBytes = sum(this.allocatedBytes, allocatedBytes);
+    }
+
+    void add(StageTiming other) {
+        this.calls += other.calls;
+        this.wallNanos += other.wallNanos;
+        this.cpuNanos = sum(this.cpuNanos, other.cpuNanos);
+        this.allocatedBytes = sum(this.allocatedBytes, other.allocatedBytes);
+    }
+
+    // Unknown values stay unknown
+    private static long sum(long a, long b) {
+        return a < 0 || b < 0 ? -1 : a + b;
+    }
+}
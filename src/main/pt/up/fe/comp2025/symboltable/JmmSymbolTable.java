@@ -3,9 +3,14 @@ package pt.up.fe.comp2025.symboltable;
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.classpath.SignatureIndex;
+import pt.up.fe.comp2025.utils.NameInterner;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class JmmSymbolTable extends AJmmSymbolTable {
 
@@ -18,6 +23,14 @@ public class JmmSymbolTable extends AJmmSymbolTable {
     private final Map<String, List<Symbol>> params;
     private final Map<String, List<Symbol>> locals;
 
+    // Name indexes, built once so that lookups do not scan the lists above
+    private final NameInterner names = new NameInterner();
+    private final Set<String> methodIndex;
+    private final Map<String, ResolvedSymbol> fieldIndex;
+    private final Map<String, Map<String, ResolvedSymbol>> scopeIndex;
+
+    private SignatureIndex signatures = SignatureIndex.empty();
+
     public JmmSymbolTable(String className, String superClass, List<String> imports, List<String> methods, Map<String, Type> returnTypes, Map<String, List<Symbol>> params, Map<String, List<Symbol>> locals, List<Symbol> fields) {
         this.className = className;
         this.superClass = superClass;
@@ -27,6 +40,32 @@ public class JmmSymbolTable extends AJmmSymbolTable {
         this.params = params;
         this.locals = locals;
         this.fields = fields;
+
+        this.methodIndex = new HashSet<>(methods);
+        this.fieldIndex = index(fields, ResolvedSymbol.Scope.FIELD);
+        this.scopeIndex = new HashMap<>();
+        for (var method : methods) {
+            scopeIndex.computeIfAbsent(method, this::buildScope);
+        }
+    }
+
+    /**
+     * Locals shadow parameters, and the first declaration of a name wins, as in a linear scan.
+     */
+    private Map<String, ResolvedSymbol> buildScope(String method) {
+        var scope = index(getLocalVariables(method), ResolvedSymbol.Scope.LOCAL);
+        index(getParameters(method), ResolvedSymbol.Scope.PARAM).forEach(scope::putIfAbsent);
+        return scope;
+    }
+
+    private Map<String, ResolvedSymbol> index(List<Symbol> symbols, ResolvedSymbol.Scope scope) {
+        var index = new HashMap<String, ResolvedSymbol>();
+        for (var symbol : symbols) {
+            if (!index.containsKey(symbol.getName())) {
+                index.put(symbol.getName(), new ResolvedSymbol(symbol, scope, names.intern(symbol.getName())));
+            }
+        }
+        return index;
     }
 
     @Override
@@ -56,7 +95,7 @@ public class JmmSymbolTable extends AJmmSymbolTable {
 
     @Override
     public Type getReturnType(String methodSignature) {
-        if (!methods.contains(methodSignature)) {
+        if (!hasMethod(methodSignature)) {
             return null;
         }
         return returnTypes.getOrDefault(methodSignature, TypeUtils.newVoidType());
@@ -83,26 +122,48 @@ public class JmmSymbolTable extends AJmmSymbolTable {
                 "\nLocals: " + locals;
     }
 
-    public Type getVariableType(String varName, String methodName) {
-        for (Symbol localVar : getLocalVariables(methodName)) {
-            if (localVar.getName().equals(varName)) {
-                return localVar.getType();
-            }
-        }
+    /**
+     * Ids of the names of the variables of the class, see {@link ResolvedSymbol#getId()}. Later stages can intern
+     * other names of the same compilation.
+     */
+    public NameInterner getNames() {
+        return names;
+    }
 
-        for (Symbol param : getParameters(methodName)) {
-            if (param.getName().equals(varName)) {
-                return param.getType();
-            }
-        }
+    /**
+     * Signatures of the classes on the classpath, to type calls on imported classes.
+     */
+    public SignatureIndex getSignatures() {
+        return signatures;
+    }
+
+    public void setSignatures(SignatureIndex signatures) {
+        this.signatures = signatures;
+    }
+
+    public boolean hasMethod(String methodSignature) {
+        return methodIndex.contains(methodSignature);
+    }
 
-        for (Symbol field : getFields()) {
-            if (field.getName().equals(varName)) {
-                return field.getType();
+    /**
+     * Finds a variable as seen from inside the given method: locals first, then parameters, then fields.
+     *
+     * @return the symbol and where it was declared, or null if there is no variable with that name
+     */
+    public ResolvedSymbol resolve(String varName, String methodName) {
+        var scope = methodName != null ? scopeIndex.get(methodName) : null;
+        if (scope != null) {
+            var symbol = scope.get(varName);
+            if (symbol != null) {
+                return symbol;
             }
         }
 
-        // Variable not found
-        return null;
+        return fieldIndex.get(varName);
+    }
+
+    public Type getVariableType(String varName, String methodName) {
+        var symbol = resolve(varName, methodName);
+        return symbol != null ? symbol.getType() : null;
     }
 }
@@ -0,0 +1,114 @@
+package pt.up.fe.comp2025.symboltable;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+
+import java.util.Set;
+
+/**
+ * What a name in the AST refers to: the method it appears in and the variable it resolves to.
+ * <p>
+ * {@link #annotate} resolves every identifier and assignment target once, right after the symbol table is built,
+ * and attaches the result to the node. Later stages read it with {@link #of}, which only searches again for nodes
+ * that were created after the annotation (e.g. by AST optimizations).
+ */
+public class NameBinding {
+
+    private static final String ATTRIBUTE = "binding";
+
+    private static final Set<String> NAMED_KINDS = Set.of(Kind.IDENTIFIER.getNodeName(),
+            Kind.ASSIGN_STMT.getNodeName(), Kind.ARRAY_ASSIGN_STMT.getNodeName());
+
+    private final String method;
+    private final ResolvedSymbol symbol;
+
+    public NameBinding(String method, ResolvedSymbol symbol) {
+        this.method = method;
+        this.symbol = symbol;
+    }
+
+    /**
+     * Name of the enclosing method, or null outside of methods.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * The variable the name resolves to, or null if it is not a variable (e.g. an imported class).
+     */
+    public ResolvedSymbol getSymbol() {
+        return symbol;
+    }
+
+    public boolean isVariable() {
+        return symbol != null;
+    }
+
+    public boolean isLocalOrParam() {
+        return symbol != null && !symbol.isField();
+    }
+
+    /**
+     * Annotates every identifier and assignment target under the given node.
+     */
+    public static void annotate(JmmNode root, JmmSymbolTable table) {
+        annotate(root, enclosingMethod(root), table);
+    }
+
+    private static void annotate(JmmNode node, String method, JmmSymbolTable table) {
+        if (Kind.METHOD_DECL.check(node) && node.hasAttribute("name")) {
+            method = node.get("name");
+        }
+
+        if (NAMED_KINDS.contains(node.getKind()) && node.hasAttribute("name")) {
+            node.putObject(ATTRIBUTE, new NameBinding(method, table.resolve(node.get("name"), method)));
+        }
+
+        for (var child : node.getChildren()) {
+            annotate(child, method, table);
+        }
+    }
+
+    /**
+     * The binding of a named node, from its annotation or, if it has none, resolved now.
+     */
+    public static NameBinding of(JmmNode node, JmmSymbolTable table) {
+        if (node.hasAttribute(ATTRIBUTE) && node.getObject(ATTRIBUTE) instanceof NameBinding binding) {
+            return binding;
+        }
+
+        var method = enclosingMethod(node);
+        var symbol = node.hasAttribute("name") ? table.resolve(node.get("name"), method) : null;
+
+        return new NameBinding(method, symbol);
+    }
+
+    /**
+     * Id of the name of a named node, shared by every node with the same name. Uses the id of the bound symbol
+     * when there is one, so annotated variables are not hashed again.
+     */
+    public static int getId(JmmNode node, JmmSymbolTable table) {
+        if (node.hasAttribute(ATTRIBUTE) && node.getObject(ATTRIBUTE) instanceof NameBinding binding
+                && binding.isVariable()) {
+            return binding.getSymbol().getId();
+        }
+
+        return table.getNames().intern(node.get("name"));
+    }
+
+    private static String enclosingMethod(JmmNode node) {
+        for (var current = node; current != null; current = current.getParent()) {
+            if (Kind.METHOD_DECL.check(current) && current.hasAttribute("name")) {
+                return current.get("name");
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return (symbol != null ? symbol.getScope().toString() : "none") + (method != null ? " in " + method : "");
+    }
+}
@@ -0,0 +1,58 @@
+package pt.up.fe.comp2025.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+/**
+ * A variable found in the symbol table, together with the scope it was declared in.
+ */
+public class ResolvedSymbol {
+
+    public enum Scope {
+        LOCAL,
+        PARAM,
+        FIELD
+    }
+
+    private final Symbol symbol;
+    private final Scope scope;
+    private final int id;
+
+    public ResolvedSymbol(Symbol symbol, Scope scope, int id) {
+        this.symbol = symbol;
+        this.scope = scope;
+        this.id = id;
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getName() {
+        return symbol.getName();
+    }
+
+    /**
+     * Id of the name in {@link JmmSymbolTable#getNames()}, shared by every symbol with the same name.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return symbol.getType();
+    }
+
+    public boolean isField() {
+        return scope == Scope.FIELD;
+    }
+
+    @Override
+    public String toString() {
+        return scope + " " + symbol;
+    }
+}
@@ -0,0 +1,53 @@
+package pt.up.fe.comp2025.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives each distinct name a small integer id, numbered from 0 in the order the names are first seen.
+ * <p>
+ * Stages that keep sets or maps of names can then use the id as an index into arrays and {@link java.util.BitSet}s
+ * instead of hashing and comparing strings. An interner belongs to a single compilation and is not thread-safe.
+ */
+public class NameInterner {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Id of the given name, adding it if it was not seen before.
+     */
+    public int intern(String name) {
+        var id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = names.size();
+        ids.put(name, newId);
+        names.add(name);
+
+        return newId;
+    }
+
+    /**
+     * Id of the given name, or -1 if it was never interned.
+     */
+    public int getId(String name) {
+        var id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Number of names, every id is smaller than this.
+     */
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,100 @@
+package pt.up.fe.comp2025.utils;
+
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ConfigOptions;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Diagnostic output of a compiler stage, written to stderr.
+ * <p>
+ * Messages are given as suppliers and only built if the level is enabled, so a disabled trace costs a comparison.
+ * Enabled with the 'trace' option, either a level for every stage (e.g. 'debug') or a list of stage levels
+ * (e.g. 'semantic=debug,generation=info'). Without a level, 'info' is used.
+ */
+public class Trace {
+
+    public enum Level {
+        OFF,
+        INFO,
+        DEBUG
+    }
+
+    private static final Trace OFF = new Trace(Stage.OTHER, Level.OFF);
+
+    private final Stage stage;
+    private final Level level;
+
+    private Trace(Stage stage, Level level) {
+        this.stage = stage;
+        this.level = level;
+    }
+
+    /**
+     * A trace that never prints, for code that has no config.
+     */
+    public static Trace off() {
+        return OFF;
+    }
+
+    public static Trace of(Map<String, String> config, Stage stage) {
+        var spec = ConfigOptions.getTrace(config);
+        if (spec == null) {
+            return OFF;
+        }
+
+        var level = parseLevel(spec, stage);
+        return level == Level.OFF ? OFF : new Trace(stage, level);
+    }
+
+    private static Level parseLevel(String spec, Stage stage) {
+        // A single value applies to every stage
+        if (!spec.contains("=")) {
+            return toLevel(spec);
+        }
+
+        for (var entry : spec.split(",")) {
+            var parts = entry.split("=", 2);
+            if (parts.length == 2 && parts[0].strip().equalsIgnoreCase(stage.name())) {
+                return toLevel(parts[1]);
+            }
+        }
+
+        return Level.OFF;
+    }
+
+    private static Level toLevel(String value) {
+        var level = value.strip().toUpperCase(Locale.ROOT);
+        if (level.equals("TRUE")) {
+            return Level.INFO;
+        }
+
+        try {
+            return Level.valueOf(level);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown trace level '" + value + "', expected 'off', 'info' or 'debug'");
+        }
+    }
+
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && this.level.compareTo(level) >= 0;
+    }
+
+    public void info(Supplier<String> message) {
+        print(Level.INFO, message);
+    }
+
+    public void debug(Supplier<String> message) {
+        print(Level.DEBUG, message);
+    }
+
+    private void print(Level level, Supplier<String> message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        System.err.println("[" + stage + "] " + message.get());
+    }
+}
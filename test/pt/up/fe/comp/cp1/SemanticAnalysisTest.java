@@ -517,6 +517,13 @@ public class SemanticAnalysisTest {
         TestUtils.noErrors(result);
     }
 
+    @Test
+    public void notOfComparison() {
+        var result = TestUtils
+                .analyse(SpecsIo.getResource("pt/up/fe/comp/cp1/semanticanalysis/NotOfComparison.jmm"));
+        TestUtils.noErrors(result);
+    }
+
     @Test
     public void newImportTest() {
         var result = TestUtils
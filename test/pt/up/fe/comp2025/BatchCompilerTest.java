@@ -0,0 +1,98 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchCompilerTest {
+
+    private static final String COUNTER = """
+            class Counter%d {
+                int count;
+                public int add(int amount) {
+                    count = count + amount * %d;
+                    return count;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Five independent files, the one in the middle with a type error.
+     */
+    private List<File> writeBatch() throws IOException {
+        var sources = new ArrayList<File>();
+        for (int i = 0; i < 5; i++) {
+            var code = String.format(COUNTER, i, i);
+            if (i == 2) {
+                code = code.replace("return count;", "return true;");
+            }
+
+            var file = new File(folder.getRoot(), "Counter" + i + ".jmm");
+            SpecsIo.write(file, code);
+            sources.add(file);
+        }
+
+        return sources;
+    }
+
+    @Test
+    public void aFileWithErrorsDoesNotStopTheOthers() throws IOException {
+        var sources = writeBatch();
+
+        var results = new BatchCompiler(CompilerConfig.getDefault(), 4).compile(sources);
+
+        assertEquals(sources.size(), results.size());
+        for (int i = 0; i < sources.size(); i++) {
+            var result = results.get(i);
+            assertEquals(sources.get(i), result.getSource());
+
+            if (i == 2) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getJasminResult().isEmpty());
+            } else {
+                assertTrue(result.getReports().toString(), result.isSuccess());
+                assertEquals("Counter" + i, result.getJasminResult().orElseThrow().getClassName());
+            }
+        }
+    }
+
+    @Test
+    public void parallelAndSerialBatchesGiveTheSameResults() throws IOException {
+        var sources = writeBatch();
+
+        var parallel = new BatchCompiler(CompilerConfig.getDefault(), 4).compile(sources);
+        var serial = new BatchCompiler(CompilerConfig.getDefault(), 1).compile(sources);
+
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            var expected = serial.get(i);
+            var actual = parallel.get(i);
+
+            assertEquals(expected.getSource(), actual.getSource());
+            assertEquals(expected.isSuccess(), actual.isSuccess());
+            assertEquals(getMessages(expected.getReports()), getMessages(actual.getReports()));
+            assertEquals(expected.getJasminResult().map(jasmin -> jasmin.getJasminCode()),
+                    actual.getJasminResult().map(jasmin -> jasmin.getJasminCode()));
+        }
+    }
+
+    private static List<String> getMessages(List<Report> reports) {
+        return reports.stream()
+                .map(report -> report.getType() + " " + report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .toList();
+    }
+}
@@ -0,0 +1,84 @@
+package pt.up.fe.comp2025;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProjectCompilerTest {
+
+    private static final String COUNTER = """
+            class Counter {
+                int count;
+                public int add(int amount) {
+                    count = count + amount;
+                    return count;
+                }
+            }
+            """;
+
+    private static final String MAIN = """
+            import Counter;
+            class Main {
+                public int run() {
+                    Counter c;
+                    c = new Counter();
+                    return c.add(2) + c.add(3);
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String code) throws IOException {
+        var file = new File(folder.getRoot(), name);
+        SpecsIo.write(file, code);
+        return file;
+    }
+
+    @Test
+    public void importsAreResolvedAgainstTheProject() throws IOException {
+        var main = write("Main.jmm", MAIN);
+        var counter = write("Counter.jmm", COUNTER);
+
+        // On its own, the return type of 'add' is unknown
+        assertFalse(new JmmCompiler(CompilerConfig.getDefault()).compile(main).isSuccess());
+
+        var results = new ProjectCompiler(CompilerConfig.getDefault(), 2).compile(List.of(main, counter));
+
+        assertEquals(main, results.get(0).getSource());
+        assertTrue(results.get(0).getReports().toString(), results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(0).getJasminResult().orElseThrow().getJasminCode().contains("invokevirtual Counter/add(I)I"));
+    }
+
+    @Test
+    public void filesThatImportAFileWithErrorsAreNotCompiled() throws IOException {
+        var main = write("Main.jmm", MAIN);
+        var counter = write("Counter.jmm", COUNTER.replace("return count;", "return true;"));
+
+        var results = new ProjectCompiler(CompilerConfig.getDefault(), 2).compile(List.of(main, counter));
+
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getReports().getFirst().getMessage().contains("imports 'Counter'"));
+    }
+
+    @Test
+    public void classesCanOnlyBeDeclaredOnce() throws IOException {
+        var counter = write("Counter.jmm", COUNTER);
+        var copy = write("Copy.jmm", COUNTER);
+
+        var results = new ProjectCompiler(CompilerConfig.getDefault(), 2).compile(List.of(counter, copy));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+    }
+}
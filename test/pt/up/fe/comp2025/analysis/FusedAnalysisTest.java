@@ -0,0 +1,112 @@
+package pt.up.fe.comp2025.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.analysis.passes.IdentifierAndDeclarationVerification;
+import pt.up.fe.comp2025.analysis.passes.MethodCallVerificationVisitor;
+import pt.up.fe.comp2025.analysis.passes.TypeCheckingVisitor;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.comp2025.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FusedAnalysisTest {
+
+    private static final File CORPUS = new File("test/pt/up/fe/comp");
+
+    @Test
+    public void sameReportsAsSeparateTraversals() {
+        var sources = SpecsIo.getFilesRecursive(CORPUS, "jmm");
+        assertFalse(sources.isEmpty());
+
+        int analysed = 0;
+        for (var source : sources) {
+            var parserResult = new JmmParserImpl().parse(SpecsIo.read(source), Collections.emptyMap());
+            if (ReportUtils.anyError(parserResult.getReports())) {
+                continue;
+            }
+
+            var root = parserResult.getRootNode();
+            var builder = new JmmSymbolTableBuilder();
+            var table = builder.build(root);
+            if (ReportUtils.anyError(builder.getReports())) {
+                continue;
+            }
+
+            assertEquals(source.getPath(), toString(separate(root, table)), toString(fused(root, table)));
+            analysed++;
+        }
+
+        assertTrue(analysed > 100);
+    }
+
+    private static List<AnalysisVisitor> newPasses() {
+        return List.of(
+                new IdentifierAndDeclarationVerification(),
+                new TypeCheckingVisitor(),
+                new MethodCallVerificationVisitor()
+        );
+    }
+
+    // The previous implementation, one traversal per pass
+    private static List<Report> separate(JmmNode root, SymbolTable table) {
+        var reports = new ArrayList<Report>();
+
+        for (var pass : newPasses()) {
+            try {
+                var passReports = pass.analyze(root, table);
+                reports.addAll(passReports);
+                if (passReports.stream().anyMatch(report -> report.getType() == ReportType.ERROR)) {
+                    break;
+                }
+            } catch (Exception e) {
+                reports.add(Report.newError(Stage.SEMANTIC, -1, -1, pass.getClass().getName(), e));
+            }
+        }
+
+        return reports;
+    }
+
+    private static List<Report> fused(JmmNode root, SymbolTable table) {
+        var passes = newPasses();
+        var analysis = new FusedAnalysis(passes);
+        analysis.analyze(root, table);
+
+        var reports = new ArrayList<Report>();
+        for (int i = 0; i < passes.size(); i++) {
+            if (analysis.getFailure(i) != null) {
+                reports.add(Report.newError(Stage.SEMANTIC, -1, -1, passes.get(i).getClass().getName(), analysis.getFailure(i)));
+                continue;
+            }
+
+            var passReports = analysis.getReports(i);
+            reports.addAll(passReports);
+            if (passReports.stream().anyMatch(report -> report.getType() == ReportType.ERROR)) {
+                break;
+            }
+        }
+
+        return reports;
+    }
+
+    private static String toString(List<Report> reports) {
+        var result = new StringBuilder();
+        for (var report : reports) {
+            result.append(report.getType()).append(" ").append(report.getLine()).append(":").append(report.getColumn())
+                    .append(" ").append(report.getMessage()).append("\n");
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package pt.up.fe.comp2025.ast;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompactNodeTest {
+
+    private static JmmNode parse(String code) {
+        return new JmmParserImpl().parse(code, Collections.emptyMap()).getRootNode();
+    }
+
+    @Test
+    public void parsedNodesKeepKindsAndAttributes() {
+        var root = parse("import a.b; class A { int[] f; public int foo() { return 1 + 2; } }");
+
+        var sum = root.getDescendants(Kind.BINARY_OP).getFirst();
+        assertTrue(sum instanceof CompactNode);
+        assertEquals(List.of("BinaryOp", "Expr"), sum.getHierarchy());
+        assertTrue(Kind.EXPR.check(sum));
+        assertFalse(Kind.STMT.check(sum));
+        assertEquals("+", sum.get("op"));
+        assertEquals(1, sum.getLine());
+
+        var type = root.getDescendants(Kind.TYPE).getFirst();
+        assertTrue(type.getBoolean("isArray", false));
+        assertEquals("int", type.get("name"));
+
+        var importDecl = root.getChild(0);
+        assertEquals(List.of("a", "b"), importDecl.getObjectAsList("name"));
+    }
+
+    @Test
+    public void attributesCanBeReplacedByAnyValue() {
+        var node = new CompactNode(Kind.LITERAL);
+        assertFalse(node.hasAttribute("value"));
+
+        node.put("value", "1");
+        assertEquals("1", node.putObject("value", 2));
+        assertEquals(2, node.getObject("value"));
+        assertEquals(Integer.valueOf(2), node.putObject("value", "3"));
+        assertEquals("3", node.get("value"));
+        assertEquals(1, node.getAttributes().size());
+        assertEquals("Literal (value: 3)", node.toString());
+    }
+
+    @Test
+    public void childrenCanBeReplacedAndRemoved() {
+        var root = parse("class A { public int foo() { return 1 + 2; } }");
+        var sum = root.getDescendants(Kind.BINARY_OP).getFirst();
+        var ret = sum.getParent();
+
+        var literal = new CompactNode(Kind.LITERAL);
+        literal.put("value", "3");
+        sum.replace(literal);
+
+        assertSame(literal, ret.getChild(0));
+        assertSame(ret, literal.getParent());
+        assertNull(sum.getParent());
+
+        assertEquals(0, ret.removeChild(literal));
+        assertEquals(0, ret.getNumChildren());
+        assertEquals(-1, literal.getIndexOfSelf());
+    }
+}
@@ -0,0 +1,72 @@
+package pt.up.fe.comp2025.ast;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TypeUtilsTest {
+
+    private static final String CODE = """
+            class A {
+                public boolean foo(int x) {
+                    int[] a;
+                    a = new int[2];
+                    return x + a[0] * 2 < a.length;
+                }
+            }
+            """;
+
+    private static JmmNode parse() {
+        return new JmmParserImpl().parse(CODE, Collections.emptyMap()).getRootNode();
+    }
+
+    @Test
+    public void typesAreComputedOnce() {
+        var root = parse();
+        var types = new TypeUtils(new JmmSymbolTableBuilder().build(root));
+        types.annotateTypes(root);
+
+        var comparison = root.getDescendants(Kind.BINARY_OP).stream()
+                .filter(op -> op.get("op").equals("<"))
+                .findFirst().orElseThrow();
+
+        var type = types.getExprType(comparison);
+        assertEquals(TypeUtils.newBooleanType(), type);
+        assertSame(type, types.getExprType(comparison));
+
+        // Every subexpression was typed when the tree was annotated
+        for (var descendant : comparison.getDescendants()) {
+            assertTrue(descendant.toString(), descendant.getObject("exprType") instanceof Type);
+        }
+    }
+
+    @Test
+    public void rewrittenExpressionsAreTypedAgain() {
+        var root = parse();
+        var types = new TypeUtils(new JmmSymbolTableBuilder().build(root));
+        types.annotateTypes(root);
+
+        var product = root.getDescendants(Kind.BINARY_OP).stream()
+                .filter(op -> op.get("op").equals("*"))
+                .findFirst().orElseThrow();
+        var sum = product.getParent();
+        var before = types.getExprType(sum);
+
+        var literal = new JmmNodeImpl(List.of("Literal"));
+        literal.put("value", "6");
+        TypeUtils.invalidateType(product);
+        product.replace(literal);
+
+        assertFalse(sum.getObject("exprType") instanceof Type);
+        assertNotSame(before, types.getExprType(sum));
+        assertEquals(TypeUtils.newIntType(), types.getExprType(sum));
+    }
+}
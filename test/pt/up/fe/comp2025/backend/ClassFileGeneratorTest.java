@@ -0,0 +1,153 @@
+package pt.up.fe.comp2025.backend;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.spi.ToolProvider;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cross-checks the class-file backend against the Jasmin backend over the cp3 Jasmin corpus.
+ */
+public class ClassFileGeneratorTest {
+
+    private static final File CORPUS = new File("test/pt/up/fe/comp/cp3/jasmin");
+    private static final File LIBS = new File("libs-jmm/compiled");
+
+    private static final Pattern INSTRUCTION = Pattern.compile("(\\d+): (\\S+)(.*)");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sameBytecodeAsJasmin() throws Exception {
+        var ollirFiles = SpecsIo.getFilesRecursive(CORPUS, "ollir");
+        assertFalse(ollirFiles.isEmpty());
+
+        for (var ollirFile : ollirFiles) {
+            var jasminDir = folder.newFolder();
+            var directDir = folder.newFolder();
+
+            var jasminResult = new JasminBackendImpl().toJasmin(newOllirResult(ollirFile));
+            var jasminFile = new File(jasminDir, jasminResult.getClassName() + ".j");
+            SpecsIo.write(jasminFile, jasminResult.getJasminCode());
+            var assembled = pt.up.fe.comp.jmm.jasmin.JasminUtils.assemble(jasminFile, jasminDir);
+
+            var ollirResult = newOllirResult(ollirFile);
+            var direct = new ClassFileBackendImpl().toClassFile(ollirResult);
+            var directFile = new File(directDir, direct.getClassName() + ".class");
+            Files.write(directFile.toPath(), direct.getClassFile());
+
+            assertEquals("Bytecode of " + ollirFile.getName(), disassemble(assembled), disassemble(directFile));
+
+            // Some classes extend classes that are not in the corpus, they cannot be loaded
+            var superClass = ollirResult.getOllirClass().getSuperClass();
+            if (superClass != null && !superClass.equals("Object") && !new File(LIBS, superClass + ".class").isFile()) {
+                continue;
+            }
+
+            // Loading the class runs the verifier over every method
+            try (var loader = new URLClassLoader(new URL[]{directDir.toURI().toURL(), LIBS.toURI().toURL()})) {
+                Class.forName(direct.getClassName(), true, loader);
+            }
+        }
+    }
+
+    @Test
+    public void buildIsIdempotent() {
+        var ollirFile = new File(CORPUS, "basic/OllirToJasminBasic.ollir");
+        var generator = new ClassFileGenerator(newOllirResult(ollirFile));
+
+        assertSame(generator.build(), generator.build());
+    }
+
+    @Test
+    public void iconstCoversItsRange() {
+        var code = new MethodCode(0);
+        code.iconst(-1);
+        code.iconst(5);
+
+        assertArrayEquals(new byte[]{Opcodes.ICONST_M1, Opcodes.ICONST_5}, code.finish());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void iconstRejectsOtherValues() {
+        new MethodCode(0).iconst(6);
+    }
+
+    private static OllirResult newOllirResult(File ollirFile) {
+        return new OllirResult(SpecsIo.read(ollirFile), Collections.emptyMap());
+    }
+
+    /**
+     * Instructions of every method, without constant pool indexes (the two backends number the pool differently).
+     * Branch targets are replaced by the index of the target instruction, since Jasmin always uses the wide
+     * form of iinc, which shifts the offsets.
+     */
+    private static String disassemble(File classFile) {
+        var javap = ToolProvider.findFirst("javap").orElseThrow();
+        var output = new StringWriter();
+
+        int status = javap.run(new PrintWriter(output), new PrintWriter(output), "-c", "-p", classFile.getAbsolutePath());
+        assertEquals(output.toString(), 0, status);
+
+        var lines = output.toString().lines()
+                .filter(line -> !line.startsWith("Compiled from"))
+                .map(line -> line.replaceAll("#\\d+", "#").replaceAll("\\s+", " ").strip())
+                .toList();
+
+        // Offsets restart in each method, so index each method separately
+        var result = new StringBuilder();
+        var method = new ArrayList<String>();
+        for (var line : lines) {
+            if (INSTRUCTION.matcher(line).matches()) {
+                method.add(line);
+                continue;
+            }
+
+            appendMethod(method, result);
+            method.clear();
+            result.append(line).append("\n");
+        }
+
+        return result.toString();
+    }
+
+    private static void appendMethod(List<String> instructions, StringBuilder result) {
+        var indexes = new HashMap<String, Integer>();
+        for (int i = 0; i < instructions.size(); i++) {
+            var matcher = INSTRUCTION.matcher(instructions.get(i));
+            matcher.matches();
+            indexes.put(matcher.group(1), i);
+        }
+
+        for (var instruction : instructions) {
+            var matcher = INSTRUCTION.matcher(instruction);
+            matcher.matches();
+
+            var opcode = matcher.group(2).replace("iinc_w", "iinc");
+            var operands = matcher.group(3);
+
+            if (opcode.startsWith("if") || opcode.equals("goto")) {
+                operands = " @" + indexes.get(operands.strip());
+            }
+
+            result.append(opcode).append(operands).append("\n");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pt.up.fe.comp2025.backend;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class JasminGeneratorTest {
+
+    private static final File CORPUS = new File("test/pt/up/fe/comp/cp3/jasmin");
+
+    @Test
+    public void streamedCodeIsTheSameAsBuiltCode() {
+        var ollirFiles = SpecsIo.getFilesRecursive(CORPUS, "ollir");
+        assertFalse(ollirFiles.isEmpty());
+
+        for (var ollirFile : ollirFiles) {
+            var built = new JasminGenerator(newOllirResult(ollirFile)).build();
+
+            var streamed = new StringWriter();
+            var reports = new JasminBackendImpl().writeJasmin(newOllirResult(ollirFile), streamed);
+
+            assertTrue(reports.isEmpty());
+            assertEquals(ollirFile.getName(), built, streamed.toString());
+        }
+    }
+
+    @Test
+    public void buildIsIdempotent() {
+        var generator = new JasminGenerator(newOllirResult(new File(CORPUS, "basic/OllirToJasminBasic.ollir")));
+
+        assertSame(generator.build(), generator.build());
+    }
+
+    private static OllirResult newOllirResult(File ollirFile) {
+        return new OllirResult(SpecsIo.read(ollirFile), Collections.emptyMap());
+    }
+}
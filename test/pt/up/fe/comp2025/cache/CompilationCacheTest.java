@@ -0,0 +1,105 @@
+package pt.up.fe.comp2025.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+public class CompilationCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keyDependsOnSourceAndConfig() {
+        var config = CompilerConfig.getDefault();
+        var key = CompilationCache.key("class A {}", config);
+
+        assertEquals(key, CompilationCache.key("class A {}", CompilerConfig.getDefault()));
+        assertNotEquals(key, CompilationCache.key("class B {}", config));
+
+        config.put(ConfigOptions.getOptimize(), "true");
+        assertNotEquals(key, CompilationCache.key("class A {}", config));
+    }
+
+    @Test
+    public void keyDependsOnTheImportedClasses() throws IOException {
+        var libs = new File("libs-jmm/compiled");
+        var classes = folder.newFolder("classes");
+        var imported = new File(classes, "MathUtils.class");
+        Files.copy(new File(libs, "MathUtils.class").toPath(), imported.toPath());
+        assertTrue(imported.setLastModified(1000));
+
+        var config = CompilerConfig.getDefault();
+        config.put(ConfigOptions.getClasspath(), classes.getAbsolutePath());
+        var code = "import MathUtils; class A { }";
+        var key = CompilationCache.key(code, config);
+        assertEquals(key, CompilationCache.key(code, config));
+
+        // Another version of the class, e.g. after recompiling it with other signatures
+        Files.copy(new File(libs, "io.class").toPath(), imported.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(imported.setLastModified(2000));
+
+        assertNotEquals(key, CompilationCache.key(code, config));
+    }
+
+    @Test
+    public void keyOfAFileIsTheKeyOfItsText() throws IOException {
+        var config = CompilerConfig.getDefault();
+        var file = folder.newFile("A.jmm");
+        SpecsIo.write(file, "class A { } // não");
+
+        assertEquals(CompilationCache.key("class A { } // não", config), CompilationCache.key(file, config));
+    }
+
+    @Test
+    public void hitsAndMisses() throws IOException {
+        var cache = new CompilationCache(folder.newFolder());
+
+        assertTrue(cache.get("a").isEmpty());
+        cache.put("a", new CacheEntry("A", "ollir", "jasmin"));
+
+        var entry = cache.get("a").orElseThrow();
+        assertEquals("A", entry.getClassName());
+        assertEquals("jasmin", entry.getJasminCode());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void entriesSurviveBetweenInstances() throws IOException {
+        var cacheFolder = folder.newFolder();
+        new CompilationCache(cacheFolder).put("a", new CacheEntry("A", "ollir", "jasmin"));
+
+        assertTrue(new CompilationCache(cacheFolder).get("a").isPresent());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        var cacheFolder = folder.newFolder();
+        var code = "x".repeat(1000);
+
+        // Each entry takes a bit more than 2000 bytes, room for two
+        var cache = new CompilationCache(cacheFolder, 5000);
+        cache.put("a", new CacheEntry("A", code, code));
+        cache.put("b", new CacheEntry("B", code, code));
+        assertTrue(cache.get("a").isPresent());
+
+        cache.put("c", new CacheEntry("C", code, code));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+    }
+}
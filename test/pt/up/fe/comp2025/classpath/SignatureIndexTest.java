@@ -0,0 +1,93 @@
+package pt.up.fe.comp2025.classpath;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.backend.JasminGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SignatureIndexTest {
+
+    private static final File LIBS = new File("libs-jmm/compiled");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readsSignatures() throws IOException {
+        var index = SignatureIndex.open(List.of(LIBS), temp.newFile("index.idx"));
+
+        var random = index.getMethods("MathUtils", "random");
+        assertEquals(1, random.size());
+        assertEquals("(II)I", random.getFirst().getDescriptor());
+        assertTrue(random.getFirst().isStatic());
+        assertEquals(List.of("I", "I"), random.getFirst().getParameterDescriptors());
+
+        assertEquals(5, index.getMethods("io", "println").size());
+        assertEquals(3, index.getMethods("io", "println", 1).size());
+        assertEquals("(Ljava/lang/String;I)V", index.getMethods("io", "println", 2).getFirst().getDescriptor());
+
+        // Classes with the same simple name are told apart by their package
+        assertEquals("()Ljava/lang/String;", index.getMethods("foo/bar/A", "foo").getFirst().getDescriptor());
+        assertTrue(index.getMethods("inheritanceAB/A", "foo").isEmpty());
+
+        // Methods of the superclasses are found too
+        assertEquals(2, index.getMethods("inheritanceAB/B", "a").size());
+
+        assertFalse(index.hasClass("Unknown"));
+        assertTrue(index.getMethods("Unknown", "foo").isEmpty());
+    }
+
+    @Test
+    public void reusesTheIndexUntilTheClasspathChanges() throws IOException {
+        var classes = temp.newFolder("classes");
+        Files.copy(new File(LIBS, "MathUtils.class").toPath(), new File(classes, "MathUtils.class").toPath());
+
+        var indexFile = new File(temp.getRoot(), "index.idx");
+        SignatureIndex.open(List.of(classes), indexFile);
+        assertTrue(indexFile.isFile());
+
+        // Not rebuilt while the classes are the same
+        assertTrue(indexFile.setLastModified(1000));
+        var reopened = SignatureIndex.open(List.of(classes), indexFile);
+        assertEquals(1000, indexFile.lastModified());
+        assertEquals(1, reopened.getMethods("MathUtils", "random").size());
+        assertFalse(reopened.hasClass("io"));
+
+        // Rebuilt when a class is added
+        Files.copy(new File(LIBS, "io.class").toPath(), new File(classes, "io.class").toPath());
+        var rebuilt = SignatureIndex.open(List.of(classes), indexFile);
+        assertNotEquals(1000, indexFile.lastModified());
+        assertTrue(rebuilt.hasClass("io"));
+    }
+
+    @Test
+    public void backendUsesExactDescriptors() {
+        var ollir = """
+                import MathUtils;
+                Calls {
+                    .construct Calls().V {
+                        invokespecial(this, "<init>").V;
+                    }
+
+                    .method public static main(args.array.String).V {
+                        invokestatic(MathUtils, "random", 1.i32, 2.i32).V;
+                        ret.V;
+                    }
+                }
+                """;
+
+        var jasmin = new JasminGenerator(new OllirResult(ollir, Collections.emptyMap())).build();
+
+        assertTrue(jasmin, jasmin.contains("invokestatic MathUtils/random(II)I"));
+        assertTrue(jasmin, jasmin.contains("pop"));
+    }
+}
@@ -0,0 +1,49 @@
+package pt.up.fe.comp2025.daemon;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class JmmClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeSource() throws IOException {
+        var file = new File(folder.getRoot(), "A.jmm");
+        SpecsIo.write(file, "class A { }");
+        return file;
+    }
+
+    @Test
+    public void singleFilesGoToTheDaemon() throws IOException {
+        var config = CompilerConfig.parseArgs(new String[]{"-i=" + writeSource()});
+
+        assertTrue(JmmClient.isDaemonCompile(config));
+    }
+
+    @Test
+    public void batchRunsInTheLauncher() throws IOException {
+        writeSource();
+        var config = CompilerConfig.parseArgs(new String[]{"-b=" + folder.getRoot()});
+
+        // There is no input file, asking the daemon for it used to fail
+        assertTrue(CompilerConfig.getInputFile(config).isEmpty());
+        assertFalse(JmmClient.isDaemonCompile(config));
+    }
+
+    @Test
+    public void projectsAndProfilesRunInTheLauncher() throws IOException {
+        var source = writeSource();
+
+        assertFalse(JmmClient.isDaemonCompile(CompilerConfig.parseArgs(new String[]{"-m=" + folder.getRoot()})));
+        assertFalse(JmmClient.isDaemonCompile(CompilerConfig.parseArgs(new String[]{"-i=" + source, "-t"})));
+    }
+}
@@ -0,0 +1,88 @@
+package pt.up.fe.comp2025.incremental;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.comp2025.CompilationResult;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.JmmCompiler;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class MethodCacheTest {
+
+    private static final String CODE = """
+            class Incremental {
+                public int foo(int a) {
+                    int b;
+                    b = a + 1;
+                    if (b < 10) { b = b * 2; } else { b = 0; }
+                    return b;
+                }
+
+                public int bar(int a) {
+                    int i;
+                    i = 0;
+                    while (i < a) { i = i + %d; }
+                    return i;
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void clearCache() {
+        MethodCache.get().clear();
+    }
+
+    private CompilationResult compile(String code, boolean incremental) throws IOException {
+        var file = new File(folder.getRoot(), "Incremental.jmm");
+        SpecsIo.write(file, code);
+
+        var config = CompilerConfig.getDefault();
+        config.put(ConfigOptions.getRegister(), "0");
+        config.put(ConfigOptions.getIncremental(), Boolean.toString(incremental));
+
+        var result = new JmmCompiler(config).compile(file);
+        assertTrue(result.getReports().toString(), result.isSuccess());
+        return result;
+    }
+
+    private static String jasmin(CompilationResult result) {
+        return result.getJasminResult().orElseThrow().getJasminCode();
+    }
+
+    @Test
+    public void sameCodeAsFullCompilation() throws IOException {
+        var full = compile(CODE.formatted(1), false);
+        var first = compile(CODE.formatted(1), true);
+        var second = compile(CODE.formatted(1), true);
+
+        assertEquals(jasmin(full), jasmin(first));
+        assertEquals(jasmin(full), jasmin(second));
+    }
+
+    @Test
+    public void onlyChangedMethodIsRegenerated() throws IOException {
+        compile(CODE.formatted(1), true);
+
+        var misses = MethodCache.get().getMisses();
+        var hits = MethodCache.get().getHits();
+        var changed = compile(CODE.formatted(2), true);
+
+        // 'foo' hits in the three stages, 'bar' misses in the three stages
+        assertEquals(hits + 3, MethodCache.get().getHits());
+        assertEquals(misses + 3, MethodCache.get().getMisses());
+
+        MethodCache.get().clear();
+        assertEquals(jasmin(compile(CODE.formatted(2), false)), jasmin(changed));
+    }
+}
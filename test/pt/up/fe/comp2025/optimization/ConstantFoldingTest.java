@@ -0,0 +1,91 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.optimization.optimi.AstOptimizerVisitor;
+import pt.up.fe.comp2025.optimization.optimi.ConstantFolding;
+import pt.up.fe.specs.util.SpecsIo;
+
+import static org.junit.Assert.*;
+
+public class ConstantFoldingTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp2025/optimization/const_fold/";
+
+    private static JmmNode optimize(String filename) {
+        var semanticsResult = TestUtils.analyse(SpecsIo.getResource(BASE_PATH + filename));
+        TestUtils.noErrors(semanticsResult);
+
+        var root = semanticsResult.getRootNode();
+        new AstOptimizerVisitor(semanticsResult.getSymbolTable()).visit(root);
+
+        return root.getDescendants(Kind.METHOD_DECL).getFirst();
+    }
+
+    @Test
+    public void evaluatesEveryOperator() {
+        assertEquals("7", ConstantFolding.evaluate("+", "3", "4"));
+        assertEquals("-1", ConstantFolding.evaluate("-", "3", "4"));
+        assertEquals("12", ConstantFolding.evaluate("*", "3", "4"));
+        assertEquals("0", ConstantFolding.evaluate("/", "3", "4"));
+        assertEquals("true", ConstantFolding.evaluate("<", "3", "4"));
+        assertEquals("false", ConstantFolding.evaluate(">", "3", "4"));
+        assertEquals("true", ConstantFolding.evaluate("<=", "4", "4"));
+        assertEquals("true", ConstantFolding.evaluate(">=", "4", "4"));
+        assertEquals("false", ConstantFolding.evaluate("==", "3", "4"));
+        assertEquals("true", ConstantFolding.evaluate("!=", "true", "false"));
+        assertEquals("false", ConstantFolding.evaluate("&&", "true", "false"));
+        assertEquals("true", ConstantFolding.evaluate("||", "true", "false"));
+        assertEquals("false", ConstantFolding.not("true"));
+    }
+
+    @Test
+    public void keepsWhatMustRun() {
+        // Division by zero fails at run time, compound assignments write their operand
+        assertNull(ConstantFolding.evaluate("/", "1", "0"));
+        assertNull(ConstantFolding.evaluate("+=", "1", "2"));
+        assertNull(ConstantFolding.evaluate("<", "true", "false"));
+
+        assertEquals("false", ConstantFolding.shortCircuit("&&", "false"));
+        assertEquals("true", ConstantFolding.shortCircuit("||", "true"));
+        assertNull(ConstantFolding.shortCircuit("&&", "true"));
+    }
+
+    @Test
+    public void foldsBooleanExpressions() {
+        var method = optimize("BooleanExpression.jmm");
+
+        var value = method.getDescendants(Kind.ASSIGN_STMT).getFirst().getChild(0);
+        assertTrue(Kind.LITERAL.check(value));
+        assertEquals("true", value.get("value"));
+    }
+
+    @Test
+    public void constantBranchesArePruned() {
+        var method = optimize("ConstantBranches.jmm");
+
+        assertTrue(method.getDescendants(Kind.IF_STMT).isEmpty());
+        assertTrue(method.getDescendants(Kind.WHILE_STMT).isEmpty());
+
+        var returned = method.getDescendants(Kind.RETURN_STMT).getFirst().getChild(0);
+        assertEquals("20", returned.get("value"));
+    }
+
+    @Test
+    public void loopsThatRunAreKept() {
+        var method = optimize("LoopThatRuns.jmm");
+
+        assertEquals(1, method.getDescendants(Kind.WHILE_STMT).size());
+    }
+
+    @Test
+    public void shortCircuitDropsOnlyWhatNeverRuns() {
+        var method = optimize("ShortCircuit.jmm");
+
+        var value = method.getDescendants(Kind.ASSIGN_STMT).getFirst().getChild(0);
+        assertTrue(Kind.BINARY_OP.check(value));
+        assertEquals(1, value.getDescendants(Kind.METHOD_CALL).size());
+    }
+}
@@ -0,0 +1,106 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.optimization.optimi.AstOptimizerVisitor;
+import pt.up.fe.specs.util.SpecsIo;
+
+import static org.junit.Assert.*;
+
+public class ConstantPropagationTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp2025/optimization/const_prop/";
+
+    private static JmmNode optimize(String filename) {
+        var semanticsResult = TestUtils.analyse(SpecsIo.getResource(BASE_PATH + filename));
+        TestUtils.noErrors(semanticsResult);
+
+        var root = semanticsResult.getRootNode();
+        new AstOptimizerVisitor(semanticsResult.getSymbolTable()).visit(root);
+
+        return root;
+    }
+
+    private static JmmNode returned(JmmNode root) {
+        return root.getDescendants(Kind.RETURN_STMT).getFirst().getChild(0);
+    }
+
+    private static void assertLiteral(String value, JmmNode node) {
+        assertTrue(node.toString(), Kind.LITERAL.check(node));
+        assertEquals(value, node.get("value"));
+    }
+
+    @Test
+    public void propagatesAndFolds() {
+        var root = optimize("PropagatesAndFolds.jmm");
+
+        assertLiteral("11", returned(root));
+    }
+
+    @Test
+    public void branchesThatAgreeKeepTheConstant() {
+        var root = optimize("BranchesThatAgree.jmm");
+
+        assertLiteral("1", returned(root));
+    }
+
+    @Test
+    public void constantsDoNotLeakAcrossBranches() {
+        var root = optimize("BranchesThatDisagree.jmm");
+
+        assertTrue(Kind.IDENTIFIER.check(returned(root)));
+
+        var assignments = root.getDescendants(Kind.ASSIGN_STMT).stream()
+                .filter(assign -> assign.get("name").equals("b"))
+                .toList();
+        assertLiteral("2", assignments.get(0).getChild(0));
+        assertLiteral("1", assignments.get(1).getChild(0));
+    }
+
+    @Test
+    public void loopInvariantsArePropagated() {
+        var root = optimize("LoopInvariant.jmm");
+
+        var condition = root.getDescendants(Kind.WHILE_STMT).getFirst().getChild(0);
+        assertTrue(Kind.IDENTIFIER.check(condition.getChild(0)));
+        assertLiteral("3", condition.getChild(1));
+
+        var result = returned(root);
+        assertTrue(Kind.IDENTIFIER.check(result.getChild(0)));
+        assertLiteral("3", result.getChild(1));
+    }
+
+    @Test
+    public void nestedLoopsReachAFixpoint() {
+        var root = optimize("NestedLoops.jmm");
+
+        assertTrue(Kind.IDENTIFIER.check(returned(root)));
+
+        // j is reset before the inner loop, but changes inside it
+        var inner = root.getDescendants(Kind.WHILE_STMT).get(1);
+        assertTrue(Kind.IDENTIFIER.check(inner.getChild(0).getChild(0)));
+        for (var assign : root.getDescendants(Kind.ASSIGN_STMT)) {
+            if (assign.getChild(0).getNumChildren() > 0) {
+                assertTrue(assign.toString(), Kind.IDENTIFIER.check(assign.getChild(0).getChild(0)));
+            }
+        }
+    }
+
+    @Test
+    public void compoundAssignmentsWriteTheirOperand() {
+        var root = optimize("CompoundAssignment.jmm");
+
+        var compound = root.getDescendants(Kind.BINARY_OP).getFirst();
+        assertTrue(Kind.IDENTIFIER.check(compound.getChild(0)));
+        assertTrue(Kind.IDENTIFIER.check(returned(root)));
+    }
+
+    @Test
+    public void parametersAreNotConstants() {
+        var root = optimize("Parameter.jmm");
+
+        assertTrue(Kind.IDENTIFIER.check(returned(root)));
+    }
+}
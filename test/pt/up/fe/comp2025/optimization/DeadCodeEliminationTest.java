@@ -0,0 +1,132 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.backend.JasminGenerator;
+import pt.up.fe.comp2025.optimization.optimi.DeadCodeElimination;
+import pt.up.fe.comp2025.optimization.optimi.OllirOptimizerVisitor;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DeadCodeEliminationTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp2025/optimization/dead_code/";
+
+    private static final File CORPUS = new File("test/pt/up/fe/comp/cp3/jasmin");
+
+    private static OllirResult parse(String filename, Map<String, String> config) {
+        return new OllirResult(SpecsIo.getResource(BASE_PATH + filename), config);
+    }
+
+    private static OllirResult eliminate(String filename) {
+        var ollirResult = parse(filename, Collections.emptyMap());
+        DeadCodeElimination.eliminate(getFoo(ollirResult));
+
+        return ollirResult;
+    }
+
+    private static Method getFoo(OllirResult ollirResult) {
+        return ollirResult.getOllirClass().getMethods().stream()
+                .filter(method -> method.getMethodName().equals("foo"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static long countAssignsTo(Method method, String name) {
+        return method.getInstructions().stream()
+                .filter(inst -> inst instanceof AssignInstruction assign
+                        && assign.getDest() instanceof Operand dest && dest.getName().equals(name))
+                .count();
+    }
+
+    @Test
+    public void unreachableCodeIsRemoved() {
+        var ollirResult = eliminate("UnreachableCode.ollir");
+
+        var method = getFoo(ollirResult);
+        assertEquals(2, method.getInstructions().size());
+
+        // The label of the removed goto target still leads to the return
+        new JasminGenerator(ollirResult).build();
+    }
+
+    @Test
+    public void deadStoresAreRemoved() {
+        var method = getFoo(eliminate("DeadStores.ollir"));
+
+        assertEquals(0, countAssignsTo(method, "a"));
+        assertEquals(0, countAssignsTo(method, "tmp0"));
+        assertEquals(1, countAssignsTo(method, "b"));
+    }
+
+    @Test
+    public void sideEffectsAreKept() {
+        var method = getFoo(eliminate("SideEffects.ollir"));
+
+        assertEquals(5, method.getInstructions().size());
+    }
+
+    @Test
+    public void storesReadInLoopsAreKept() {
+        var method = getFoo(eliminate("StoresInLoop.ollir"));
+
+        assertEquals(2, countAssignsTo(method, "i"));
+        assertEquals(0, countAssignsTo(method, "unused"));
+    }
+
+    @Test
+    public void runsOnlyWithItsOption() {
+        var optimized = parse("UnusedStore.ollir", Map.of(ConfigOptions.getOptimize(), "true"));
+        new OllirOptimizerVisitor().optimize(optimized);
+        assertEquals(1, countAssignsTo(getFoo(optimized), "a"));
+
+        var eliminated = parse("UnusedStore.ollir", Map.of(ConfigOptions.getDeadCodeElimination(), "true"));
+        new OllirOptimizerVisitor().optimize(eliminated);
+        assertEquals(0, countAssignsTo(getFoo(eliminated), "a"));
+    }
+
+    @Test
+    public void storesOfPropagatedConstantsAreRemoved() {
+        Map<String, String> config = new HashMap<>();
+        config.put(ConfigOptions.getOptimize(), "true");
+        config.put(ConfigOptions.getDeadCodeElimination(), "true");
+
+        var optimized = CpUtils.getOllirResult(SpecsIo.getResource(BASE_PATH + "PropagatedConstant.jmm"), config, true);
+
+        // 'a' is only read where it was replaced with 3, so its assignment is removed
+        var method = getFoo(optimized);
+        assertEquals(0, countAssignsTo(method, "a"));
+        CpUtils.assertLiteralCount("3", method, optimized, 2);
+    }
+
+    @Test
+    public void corpusStillGeneratesJasmin() {
+        var ollirFiles = SpecsIo.getFilesRecursive(CORPUS, "ollir");
+        assertFalse(ollirFiles.isEmpty());
+
+        for (var ollirFile : ollirFiles) {
+            var ollirResult = new OllirResult(SpecsIo.read(ollirFile), Collections.emptyMap());
+            for (var method : ollirResult.getOllirClass().getMethods()) {
+                DeadCodeElimination.eliminate(method);
+
+                // Every label still leads to an instruction of the method
+                for (var target : method.getLabels().values()) {
+                    assertTrue(ollirFile.getName(), method.getInstructions().contains(target));
+                }
+            }
+
+            assertNotNull(ollirFile.getName(), new JasminGenerator(ollirResult).build());
+        }
+    }
+}
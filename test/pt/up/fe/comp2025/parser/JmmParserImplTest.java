@@ -0,0 +1,148 @@
+package pt.up.fe.comp2025.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JmmParserImplTest {
+
+    private static final String VALID = "class A { public int foo(int x) { return x + 1; } }";
+    private static final String INVALID = "class A { public int foo( { return x +; } }";
+
+    private static final String PARSING_ERRORS = "pt/up/fe/comp/cp1/parsingerrors/";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> getErrors(String code) {
+        return new JmmParserImpl().parse(code, new HashMap<>()).getReports().stream()
+                .map(report -> report.getLine() + ":" + report.getColumn() + " " + report.getMessage())
+                .toList();
+    }
+
+    @Test
+    public void filesParseLikeTheirText() {
+        var parser = new JmmParserImpl();
+        // The second one is not ASCII
+        var codes = new String[]{VALID, "class A { public int foo() { String s; s = \"não é ascii\"; return 1; } }", INVALID};
+
+        for (var code : codes) {
+            var file = new File(folder.getRoot(), "A.jmm");
+            SpecsIo.write(file, code);
+
+            var fromText = parser.parse(code, new HashMap<>());
+            var fromFile = parser.parse(file.toPath(), new HashMap<>());
+
+            assertEquals(fromText.getReports().toString(), fromFile.getReports().toString());
+            if (fromText.getRootNode() != null) {
+                assertEquals(fromText.getRootNode().toTree(), fromFile.getRootNode().toTree());
+            }
+        }
+    }
+
+    @Test
+    public void reusedParserGivesTheSameResults() {
+        var parser = new JmmParserImpl();
+
+        var first = parser.parse(VALID, new HashMap<>());
+        var invalid = parser.parse(INVALID, new HashMap<>());
+        var second = parser.parse(VALID, new HashMap<>());
+
+        assertTrue(first.getReports().isEmpty());
+        assertEquals(first.getRootNode().toTree(), second.getRootNode().toTree());
+        assertNull(invalid.getRootNode());
+        assertEquals(invalid.getReports().toString(), parser.parse(INVALID, new HashMap<>()).getReports().toString());
+    }
+
+    @Test
+    public void methodHeadersAreClassifiedAfterParsing() {
+        var code = "class A { public static void main(String[] args) { } static int foo() { return 1; } int bar() { return 1; } }";
+        var methods = new JmmParserImpl().parse(code, new HashMap<>()).getRootNode().getChild(0).getChildren();
+
+        var main = methods.get(0);
+        assertTrue(main.getBoolean("isMain", false));
+        assertFalse(main.getBoolean("isWrong", true));
+        assertEquals("String", main.get("string"));
+        assertEquals("args", main.get("args"));
+        assertEquals(0, main.getNumChildren());
+
+        assertTrue(methods.get(1).getBoolean("isWrong", false));
+        assertFalse(methods.get(2).getBoolean("isWrong", true));
+    }
+
+    @Test
+    public void llOnlyParsesLikeSllFirst() {
+        var parser = new JmmParserImpl();
+
+        // The LL stage parses headers with the Javamm grammar, the SLL one with JavammSll and MethodHeaders
+        var codes = List.of(VALID, INVALID,
+                "class A { public static void main(String[] args) { } static void main(String[] args) { } }",
+                "class A { public static void main(String... args) { } static void main(String... args) { } }",
+                "class A { static int foo(String[] a) { return 1; } static void foo(int[] a) { } static bar() { } }",
+                "class A { public void foo(String[] a, int b) { } void bar(Foo[] a) { } public static foo(Foo[] a) { } }");
+
+        for (var code : codes) {
+            var sllFirst = parser.parse(code, new HashMap<>());
+            var llOnly = parser.parseLlOnly(code, new HashMap<>());
+
+            assertEquals(sllFirst.getReports().toString(), llOnly.getReports().toString());
+            if (sllFirst.getRootNode() != null) {
+                assertEquals(sllFirst.getRootNode().toTree(), llOnly.getRootNode().toTree());
+            }
+        }
+    }
+
+    @Test
+    public void headersTheGrammarNeverAcceptedAreSyntaxErrors() {
+        assertEquals(List.of("1:22 no viable alternative at input 'staticvoidint'"),
+                getErrors("class A { static void int foo() { } }"));
+        assertEquals(List.of("1:15 no viable alternative at input 'voidint'"),
+                getErrors("class A { void int foo() { } }"));
+        assertEquals(List.of("1:24 no viable alternative at input 'intfoo(String...'", "1:45 extraneous input '}' expecting <EOF>"),
+                getErrors("class A { int foo(String... a) { return 1; } }"));
+    }
+
+    @Test
+    public void syntaxErrorsInMethodsAreReportedAsBefore() {
+        // The LL stage predicts each method over its whole body, so an error in the body fails that prediction
+        assertEquals(List.of("6:14 no viable alternative at input 'publicstaticvoidmain(String[]args){intresult;result=1+2*3-4/5;return;'",
+                        "9:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_Main.jmm")));
+        assertEquals(List.of("5:21 no viable alternative at input 'publicstaticvoidmain(String[]args){inta;a=newint[2,'",
+                        "7:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_NotInt.jmm")));
+        assertEquals(List.of("5:22 no viable alternative at input 'publicstaticvoidmain(String[]args){inta;a=newint[2.2'",
+                        "7:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_NotInt2.jmm")));
+        assertEquals(List.of("7:16 no viable alternative at input 'publicstaticvoidmain(String[]args){int[]a;intb;a=[2,3,4,5,6,7,8,9,10];b=a[0.3'",
+                        "9:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_NotInt3.jmm")));
+        assertEquals(List.of("7:15 no viable alternative at input 'publicstaticvoidmain(String[]args){int[]a;intb;a=[2,3,4,5,6,7,8,9,10];b=a[0,'",
+                        "9:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_NotInt4.jmm")));
+        assertEquals(List.of("7:15 no viable alternative at input 'publicstaticvoidmain(String[]args){int[]a;intb;a=[2,3,4,5,6,7,8,9,10];b=a[0;'",
+                        "9:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_NotInt5.jmm")));
+        assertEquals(List.of("5:21 no viable alternative at input 'publicstaticvoidmain(String[]args){intresult;result=test('",
+                        "8:4 mismatched input 'int' expecting <EOF>"),
+                getErrors(SpecsIo.getResource(PARSING_ERRORS + "syntatic_MethodCallTestError6.jmm")));
+        assertEquals(List.of("4:14 no viable alternative at input 'String...'", "8:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource("pt/up/fe/comp/cp1/semanticanalysis2/ArrayTestError6.jmm")));
+        assertEquals(List.of("4:18 no viable alternative at input 'intnao(String...'", "8:0 extraneous input '}' expecting <EOF>"),
+                getErrors(SpecsIo.getResource("pt/up/fe/comp/cp1/semanticanalysis2/ArrayTestError11.jmm")));
+    }
+
+    @Test
+    public void warmUpParsesWithoutErrors() {
+        JmmParserImpl.warmUp();
+
+        assertTrue(new JmmParserImpl().parse(VALID, new HashMap<>()).getReports().isEmpty());
+    }
+}
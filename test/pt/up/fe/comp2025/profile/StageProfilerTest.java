@@ -0,0 +1,92 @@
+package pt.up.fe.comp2025.profile;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.optimization.optimi.OllirOptimizerVisitor;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StageProfilerTest {
+
+    @Test
+    public void disabledOnlyRunsTheStage() {
+        var profiler = StageProfiler.start(false);
+        try {
+            assertSame(profiler, StageProfiler.current());
+            assertEquals("result", StageProfiler.current().time("stage", () -> "result"));
+            assertTrue(profiler.getTimings().isEmpty());
+        } finally {
+            profiler.stop();
+        }
+    }
+
+    @Test
+    public void nestedStages() {
+        var profiler = StageProfiler.start(true);
+        try {
+            StageProfiler.current().time("outer", () -> {
+                StageProfiler.current().time("inner", () -> new int[1024]);
+                StageProfiler.current().time("inner", () -> new int[1024]);
+            });
+        } finally {
+            profiler.stop();
+        }
+
+        assertFalse(StageProfiler.current().isEnabled());
+
+        var timings = profiler.getTimings();
+        assertEquals(2, timings.size());
+        assertEquals("outer", timings.get(0).getPath());
+        assertEquals(0, timings.get(0).getDepth());
+        assertEquals("outer/inner", timings.get(1).getPath());
+        assertEquals(1, timings.get(1).getDepth());
+        assertEquals(2, timings.get(1).getCalls());
+        assertTrue(timings.get(0).getWallNanos() >= timings.get(1).getWallNanos());
+    }
+
+    @Test
+    public void mergeSumsStages() {
+        var first = StageProfiler.start(true);
+        first.time("parsing", () -> {
+        });
+        first.stop();
+
+        var second = StageProfiler.start(true);
+        second.time("parsing", () -> {
+        });
+        second.stop();
+
+        var profile = StageProfiler.newProfile();
+        profile.merge(first);
+        profile.merge(second);
+
+        assertEquals(1, profile.getTimings().size());
+        assertEquals(2, profile.getTimings().getFirst().getCalls());
+        assertTrue(profile.toTable().contains("2 files profiled"));
+        assertTrue(profile.toJson().contains("\"files\": 2"));
+    }
+
+    @Test
+    public void optimizationPassesAreTimedSeparately() {
+        var ollirCode = SpecsIo.read(new File("test/pt/up/fe/comp/cp3/jasmin/basic/OllirToJasminBasic.ollir"));
+        var config = Map.of(ConfigOptions.getDeadCodeElimination(), "true", ConfigOptions.getRegister(), "0");
+
+        var profiler = StageProfiler.start(true);
+        try {
+            StageProfiler.current().time("ollir optimization",
+                    () -> new OllirOptimizerVisitor().optimize(new OllirResult(ollirCode, config)));
+        } finally {
+            profiler.stop();
+        }
+
+        var paths = profiler.getTimings().stream().map(StageTiming::getPath).toList();
+        assertEquals(List.of("ollir optimization", "ollir optimization/dead code elimination",
+                "ollir optimization/register allocation"), paths);
+    }
+}
@@ -0,0 +1,70 @@
+package pt.up.fe.comp2025.symboltable;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JmmSymbolTableTest {
+
+    private static final Type INT = new Type("int", false);
+    private static final Type BOOLEAN = new Type("boolean", false);
+    private static final Type INT_ARRAY = new Type("int", true);
+
+    private static JmmSymbolTable newTable() {
+        return new JmmSymbolTable("A", null, List.of(), List.of("foo", "bar"),
+                Map.of("foo", INT),
+                Map.of("foo", List.of(new Symbol(INT, "x"), new Symbol(BOOLEAN, "y")), "bar", List.of()),
+                Map.of("foo", List.of(new Symbol(INT_ARRAY, "y"), new Symbol(BOOLEAN, "y")), "bar", List.of()),
+                List.of(new Symbol(BOOLEAN, "x"), new Symbol(INT, "z")));
+    }
+
+    @Test
+    public void localsShadowParamsAndFields() {
+        var table = newTable();
+
+        var y = table.resolve("y", "foo");
+        assertEquals(ResolvedSymbol.Scope.LOCAL, y.getScope());
+        // First declaration wins
+        assertEquals(INT_ARRAY, y.getType());
+
+        var x = table.resolve("x", "foo");
+        assertEquals(ResolvedSymbol.Scope.PARAM, x.getScope());
+        assertEquals(INT, x.getType());
+
+        assertEquals(ResolvedSymbol.Scope.FIELD, table.resolve("x", "bar").getScope());
+        assertEquals(ResolvedSymbol.Scope.FIELD, table.resolve("z", "foo").getScope());
+        assertEquals(ResolvedSymbol.Scope.FIELD, table.resolve("z", null).getScope());
+        assertNull(table.resolve("w", "foo"));
+    }
+
+    @Test
+    public void methodIndex() {
+        var table = newTable();
+
+        assertTrue(table.hasMethod("foo"));
+        assertFalse(table.hasMethod("baz"));
+        assertEquals(INT, table.getReturnType("foo"));
+        assertEquals("void", table.getReturnType("bar").getName());
+        assertNull(table.getReturnType("baz"));
+        assertEquals(BOOLEAN, table.getVariableType("x", "bar"));
+    }
+
+    @Test
+    public void symbolsWithTheSameNameShareAnId() {
+        var table = newTable();
+
+        var fieldX = table.resolve("x", "bar");
+        var paramX = table.resolve("x", "foo");
+
+        assertNotSame(fieldX, paramX);
+        assertEquals(fieldX.getId(), paramX.getId());
+        assertNotEquals(fieldX.getId(), table.resolve("z", "foo").getId());
+        assertEquals("x", table.getNames().getName(paramX.getId()));
+        assertEquals(-1, table.getNames().getId("w"));
+    }
+}
@@ -0,0 +1,64 @@
+package pt.up.fe.comp2025.symboltable;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class NameBindingTest {
+
+    private static final String CODE = """
+            import io;
+            class A {
+                int x;
+                int y;
+                public int foo(int x) {
+                    int z;
+                    z = x + y;
+                    io.println(z);
+                    return z;
+                }
+            }
+            """;
+
+    @Test
+    public void identifiersAreAnnotated() {
+        var root = new JmmParserImpl().parse(CODE, Collections.emptyMap()).getRootNode();
+        var table = new JmmSymbolTableBuilder().build(root);
+        NameBinding.annotate(root, table);
+
+        var identifiers = root.getDescendants(Kind.IDENTIFIER);
+        assertFalse(identifiers.isEmpty());
+
+        for (var identifier : identifiers) {
+            assertTrue(identifier.getObject("binding") instanceof NameBinding);
+
+            var binding = NameBinding.of(identifier, table);
+            assertEquals("foo", binding.getMethod());
+
+            var expected = switch (identifier.get("name")) {
+                case "x" -> ResolvedSymbol.Scope.PARAM;
+                case "y" -> ResolvedSymbol.Scope.FIELD;
+                case "z" -> ResolvedSymbol.Scope.LOCAL;
+                default -> null;
+            };
+            assertEquals(identifier.get("name"), expected, binding.isVariable() ? binding.getSymbol().getScope() : null);
+        }
+
+        var assign = root.getDescendants(Kind.ASSIGN_STMT).getFirst();
+        assertTrue(NameBinding.of(assign, table).isLocalOrParam());
+    }
+
+    @Test
+    public void unannotatedNodesAreResolved() {
+        var root = new JmmParserImpl().parse(CODE, Collections.emptyMap()).getRootNode();
+        var table = new JmmSymbolTableBuilder().build(root);
+
+        var identifier = root.getDescendants(Kind.IDENTIFIER).getFirst();
+        assertFalse(identifier.hasAttribute("binding"));
+        assertEquals("foo", NameBinding.of(identifier, table).getMethod());
+    }
+}
@@ -0,0 +1,48 @@
+package pt.up.fe.comp2025.utils;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ConfigOptions;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TraceTest {
+
+    @Test
+    public void offWithoutOption() {
+        var trace = Trace.of(Map.of(), Stage.SEMANTIC);
+
+        assertSame(Trace.off(), trace);
+        // The message must not even be built
+        trace.debug(() -> {
+            throw new AssertionError("Message built while tracing is off");
+        });
+    }
+
+    @Test
+    public void levelForEveryStage() {
+        var trace = Trace.of(Map.of(ConfigOptions.getTrace(), "debug"), Stage.GENERATION);
+
+        assertTrue(trace.isEnabled(Trace.Level.INFO));
+        assertTrue(trace.isEnabled(Trace.Level.DEBUG));
+    }
+
+    @Test
+    public void flagWithoutLevelIsInfo() {
+        var trace = Trace.of(Map.of(ConfigOptions.getTrace(), "true"), Stage.SEMANTIC);
+
+        assertTrue(trace.isEnabled(Trace.Level.INFO));
+        assertFalse(trace.isEnabled(Trace.Level.DEBUG));
+    }
+
+    @Test
+    public void levelPerStage() {
+        var config = Map.of(ConfigOptions.getTrace(), "semantic=debug,generation=info");
+
+        assertTrue(Trace.of(config, Stage.SEMANTIC).isEnabled(Trace.Level.DEBUG));
+        assertFalse(Trace.of(config, Stage.GENERATION).isEnabled(Trace.Level.DEBUG));
+        assertSame(Trace.off(), Trace.of(config, Stage.LLIR));
+    }
+}